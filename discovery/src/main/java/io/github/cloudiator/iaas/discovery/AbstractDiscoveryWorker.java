@@ -21,15 +21,29 @@ package io.github.cloudiator.iaas.discovery;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.multicloud.exception.MultiCloudException;
 import de.uniulm.omi.cloudiator.sword.service.DiscoveryService;
 import de.uniulm.omi.cloudiator.util.execution.Schedulable;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.iaas.discovery.DiscoveryFingerprintStore.Delta;
 import io.github.cloudiator.iaas.discovery.error.DiscoveryErrorHandler;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,35 +56,96 @@ public abstract class AbstractDiscoveryWorker<T> implements Schedulable {
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDiscoveryWorker.class);
 
   private final DiscoveryQueue discoveryQueue;
-  private final DiscoveryService discoveryService;
+  private final DiscoveryServiceProvider discoveryServiceProvider;
+  private final CloudDiscoveryExecutor cloudDiscoveryExecutor;
   private final DiscoveryErrorHandler discoveryErrorHandler;
+  private final DiscoveryFingerprintStore discoveryFingerprintStore;
+  private final DiscoverySchedule discoverySchedule;
+  private final DiscoveryMetrics discoveryMetrics;
+  private final CloudCircuitBreaker cloudCircuitBreaker;
+  private final DiscoveryMembership discoveryMembership;
+  private final boolean deduplicateAccounts;
 
-  public static final Map<String, Integer> DISCOVERY_STATUS = new HashMap<>();
-  private static final String TOTAL_NAME = "total";
+  private static final AtomicLong RUN_COUNTER = new AtomicLong();
 
   @Inject
-  public AbstractDiscoveryWorker(DiscoveryQueue discoveryQueue, DiscoveryService discoveryService,
-      DiscoveryErrorHandler discoveryErrorHandler) {
+  public AbstractDiscoveryWorker(DiscoveryQueue discoveryQueue,
+      DiscoveryServiceProvider discoveryServiceProvider,
+      CloudDiscoveryExecutor cloudDiscoveryExecutor,
+      DiscoveryErrorHandler discoveryErrorHandler,
+      DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoverySchedule discoverySchedule,
+      DiscoveryMetrics discoveryMetrics,
+      CloudCircuitBreaker cloudCircuitBreaker,
+      DiscoveryMembership discoveryMembership,
+      DiscoveryContext discoveryContext) {
     checkNotNull(discoveryQueue, "discoveryQueue is null");
     this.discoveryQueue = discoveryQueue;
-    checkNotNull(discoveryService, "discoveryService is null");
-    this.discoveryService = discoveryService;
+    checkNotNull(discoveryServiceProvider, "discoveryServiceProvider is null");
+    this.discoveryServiceProvider = discoveryServiceProvider;
+    checkNotNull(cloudDiscoveryExecutor, "cloudDiscoveryExecutor is null");
+    this.cloudDiscoveryExecutor = cloudDiscoveryExecutor;
     checkNotNull(discoveryErrorHandler, "discoveryErrorHandler is null");
     this.discoveryErrorHandler = discoveryErrorHandler;
-
-    //initialize total counter
-    DISCOVERY_STATUS.put(TOTAL_NAME, 0);
+    checkNotNull(discoveryFingerprintStore, "discoveryFingerprintStore is null");
+    this.discoveryFingerprintStore = discoveryFingerprintStore;
+    checkNotNull(discoverySchedule, "discoverySchedule is null");
+    this.discoverySchedule = discoverySchedule;
+    checkNotNull(discoveryMetrics, "discoveryMetrics is null");
+    this.discoveryMetrics = discoveryMetrics;
+    checkNotNull(cloudCircuitBreaker, "cloudCircuitBreaker is null");
+    this.cloudCircuitBreaker = cloudCircuitBreaker;
+    checkNotNull(discoveryMembership, "discoveryMembership is null");
+    this.discoveryMembership = discoveryMembership;
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    this.deduplicateAccounts = discoveryContext.deduplicateAccounts();
   }
 
   protected abstract Iterable<T> resources(DiscoveryService discoveryService);
 
-  protected Predicate<T> filter() {
+  protected abstract Class<T> type();
+
+  protected abstract String id(T resource);
+
+  /**
+   * Copies the resource to another cloud of the same provider account.
+   *
+   * @param resource the resource discovered for the listed cloud
+   * @param rescoper the rescoper to the other cloud
+   * @return the resource as discovered for the other cloud
+   */
+  protected abstract T rescope(T resource, CloudRescoper rescoper);
+
+  /**
+   * @return the name of the resource used to look up its schedule, e.g. images
+   */
+  protected abstract String resourceName();
+
+  /**
+   * Calculates the content hash used to detect changes of a resource.
+   *
+   * @param resource the resource
+   * @return the hash of the string representation of the resource
+   */
+  protected long fingerprint(T resource) {
+    return Hashing.murmur3_128().hashString(resource.toString(), StandardCharsets.UTF_8)
+        .asLong();
+  }
+
+  /**
+   * Restricts the resources discovered for a cloud. Resources not matching the filter are
+   * treated as if the provider did not offer them.
+   *
+   * @param cloud the cloud the resources are discovered for
+   * @return the filter for the resources of the cloud
+   */
+  protected Predicate<T> filter(ExtendedCloud cloud) {
     return t -> true;
   }
 
   @Override
   public final long period() {
-    return 30;
+    return discoverySchedule.tick();
   }
 
   @Override
@@ -87,34 +162,186 @@ public abstract class AbstractDiscoveryWorker<T> implements Schedulable {
   public void run() {
     LOGGER.info(String.format("%s is starting new discovery run", this));
 
-    final String id = this.getClass().getSimpleName();
-    DISCOVERY_STATUS.put(id, 0);
+    try {
+      //clouds owned by other agents are forgotten, they may change while not owned
+      final List<List<ExtendedCloud>> accounts = accounts(discoveryServiceProvider.clouds())
+          .stream().filter(members -> discoveryMembership.owns(members.get(0)))
+          .collect(Collectors.toList());
+      final Set<String> cloudIds = accounts.stream().flatMap(List::stream)
+          .map(ExtendedCloud::id).collect(Collectors.toSet());
+      discoveryFingerprintStore.retain(cloudIds);
+      discoverySchedule.retain(cloudIds);
+      discoveryMetrics.retain(cloudIds);
+      cloudCircuitBreaker.retain(cloudIds);
+      for (List<ExtendedCloud> members : accounts) {
+        if (members.stream()
+            .noneMatch(member -> discoverySchedule.isDue(member.id(), resourceName()))) {
+          continue;
+        }
+        final ExtendedCloud cloud = members.get(0);
+        if (!cloudCircuitBreaker.allow(cloud, resourceName())) {
+          continue;
+        }
+        final List<ExtendedCloud> followers = members.subList(1, members.size());
+        final boolean submitted = cloudDiscoveryExecutor
+            .submit(key(cloud), () -> discover(cloud, followers));
+        if (!submitted) {
+          LOGGER.debug(String.format(
+              "%s skips discovery of cloud %s as the previous discovery of this cloud is still running.",
+              this, cloud.id()));
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.error(String.format(
+          "%s reported exception %s during discovery run. Exception was caught to allow further executions.",
+          this, e.getMessage()), e);
+    }
+    LOGGER.info(String.format("%s finished submitting discovery run", this));
+  }
+
+  /**
+   * Groups the clouds by their provider account, see {@link ProviderAccount}.
+   *
+   * <p>Only the first cloud of each group is listed, preferring clouds in state {@link
+   * CloudState#OK}. The result is copied to all other clouds of the group.
+   */
+  private Collection<List<ExtendedCloud>> accounts(List<ExtendedCloud> clouds) {
+    if (!deduplicateAccounts) {
+      return clouds.stream().map(Collections::singletonList).collect(Collectors.toList());
+    }
+    final Map<String, List<ExtendedCloud>> accounts = clouds.stream()
+        .sorted(Comparator
+            .comparing((ExtendedCloud cloud) -> !CloudState.OK.equals(cloud.state()))
+            .thenComparing(ExtendedCloud::id))
+        .collect(Collectors.groupingBy(ProviderAccount::of, LinkedHashMap::new,
+            Collectors.toList()));
+    return accounts.values();
+  }
+
+  private String key(ExtendedCloud cloud) {
+    return this.getClass().getSimpleName() + "/" + cloud.id();
+  }
+
+  /**
+   * Discovers the given cloud ahead of all periodic discoveries.
+   *
+   * @param cloud the cloud to discover
+   * @param then executed once the discovery finished, or once the already running discovery of the
+   * cloud finished
+   */
+  void discoverNow(ExtendedCloud cloud, Runnable then) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(then, "then is null");
+
+    final String key = key(cloud);
+    //retry if the running discovery finished in between
+    while (!cloudDiscoveryExecutor.submitImmediate(key, () -> {
+      try {
+        discover(cloud, Collections.emptyList());
+      } finally {
+        then.run();
+      }
+    })) {
+      if (cloudDiscoveryExecutor.whenDone(key, then)) {
+        LOGGER.debug(String.format(
+            "%s skips immediate discovery of cloud %s as a discovery of this cloud is still running.",
+            this, cloud.id()));
+        return;
+      }
+    }
+  }
+
+  private void discover(ExtendedCloud cloud, List<ExtendedCloud> followers) {
+    LOGGER.debug(String.format("%s is starting discovery of cloud %s", this, cloud.id()));
+
+    final long run = RUN_COUNTER.incrementAndGet();
+    final List<ExtendedCloud> members = new ArrayList<>(followers.size() + 1);
+    members.add(cloud);
+    members.addAll(followers);
+    final Map<String, CloudRescoper> rescopers = followers.stream().collect(Collectors
+        .toMap(ExtendedCloud::id, follower -> new CloudRescoper(cloud.id(), follower.id())));
+    final Set<String> changed = new HashSet<>();
+    final AtomicLong items = new AtomicLong();
+    final long start = System.nanoTime();
 
     try {
-      StreamSupport.stream(resources(discoveryService).spliterator(), false).filter(filter())
-          .map(Discovery::new)
-          .forEach(discovery -> {
-            LOGGER.trace(String.format("%s found discovery %s", this, discovery));
-            discoveryQueue.add(discovery);
-            final Integer current = DISCOVERY_STATUS.get(id);
-            DISCOVERY_STATUS.put(id, current + 1);
+      StreamSupport
+          .stream(resources(discoveryServiceProvider.forCloud(cloud)).spliterator(), false)
+          .filter(filter(cloud))
+          .forEach(resource -> {
+            if (Thread.currentThread().isInterrupted()) {
+              throw new IllegalStateException(
+                  String.format("Discovery of cloud %s was interrupted.", cloud.id()));
+            }
+            items.incrementAndGet();
+            see(cloud, resource, run, changed);
+            //clouds sharing the provider account get a copy scoped to them
+            for (ExtendedCloud follower : followers) {
+              see(follower, rescope(resource, rescopers.get(follower.id())), run, changed);
+            }
           });
 
-      synchronized (DISCOVERY_STATUS) {
-        DISCOVERY_STATUS
-            .put(TOTAL_NAME, DISCOVERY_STATUS.get(TOTAL_NAME) + DISCOVERY_STATUS.get(id));
+      //only a complete listing allows to detect removed items
+      final long duration = System.nanoTime() - start;
+      for (ExtendedCloud member : members) {
+        discoveryMetrics.listed(member.id(), resourceName(), duration, items.get());
+
+        final Set<String> gone = discoveryFingerprintStore.sweep(member.id(), type(), run);
+        discoveryMetrics.removed(member.id(), resourceName(), gone.size());
+
+        if (cloudCircuitBreaker.success(member, resourceName()) && CloudState.ERROR
+            .equals(member.state())) {
+          discoveryErrorHandler.recovered(member.id());
+        }
+        for (String goneId : gone) {
+          LOGGER.trace(String.format("%s found removed item %s", this, goneId));
+          discoveryQueue.add(Discovery.removed(type(), goneId));
+          changed.add(member.id());
+        }
       }
     } catch (MultiCloudException e) {
       LOGGER.error(String.format(
-          "%s caught multi cloud exception %s during discovery run. Exception was caught and send to error handler %s.",
-          this, e.getMessage(), discoveryErrorHandler), e);
-      discoveryErrorHandler.report(e);
+          "%s caught multi cloud exception %s during discovery of cloud %s. Exception was caught and send to error handler %s.",
+          this, e.getMessage(), cloud.id(), discoveryErrorHandler), e);
+      for (ExtendedCloud member : members) {
+        discoveryMetrics.failed(member.id(), resourceName());
+        if (!cloudCircuitBreaker.failure(member, resourceName())) {
+          continue;
+        }
+        if (member == cloud) {
+          discoveryErrorHandler.report(e);
+        } else {
+          discoveryErrorHandler.report(member.id(), e);
+        }
+      }
     } catch (Exception e) {
       LOGGER.error(String.format(
-          "%s reported exception %s during discovery run. Exception was caught to allow further executions.",
-          this, e.getMessage()), e);
+          "%s reported exception %s during discovery of cloud %s. Exception was caught to allow further executions.",
+          this, e.getMessage(), cloud.id()), e);
+      for (ExtendedCloud member : members) {
+        discoveryMetrics.failed(member.id(), resourceName());
+        cloudCircuitBreaker.failure(member, resourceName());
+      }
+    } finally {
+      for (ExtendedCloud member : members) {
+        discoverySchedule.completed(member, resourceName(), changed.contains(member.id()));
+      }
+    }
+    LOGGER.debug(String.format("%s finished discovery of cloud %s", this, cloud.id()));
+  }
+
+  private void see(ExtendedCloud cloud, T resource, long run, Set<String> changed) {
+    final long fingerprint = fingerprint(resource);
+    final Delta delta = discoveryFingerprintStore
+        .see(cloud.id(), type(), id(resource), fingerprint, run);
+    discoveryMetrics.delta(cloud.id(), resourceName(), delta);
+    if (Delta.UNCHANGED.equals(delta)) {
+      return;
     }
-    LOGGER.info(String.format("%s finished discovery run", this));
+    final Discovery discovery = Discovery.of(type(), id(resource), resource, fingerprint);
+    LOGGER.trace(String.format("%s found %s discovery %s", this, delta, discovery));
+    discoveryQueue.add(discovery);
+    changed.add(cloud.id());
   }
 
   @Override
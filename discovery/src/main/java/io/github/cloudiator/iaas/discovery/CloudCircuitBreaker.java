@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker isolating clouds whose discovery keeps failing.
+ *
+ * <p>Every resource of a cloud, e.g. images, has its own breaker, so that a failing resource does
+ * not pause the discovery of the other resources of the cloud. A resource of a cloud is
+ * discovered as long as its breaker is closed. After the configured number of
+ * consecutive failures the breaker opens and the cloud is skipped for the open duration. Once
+ * it elapsed, the breaker is half open and exactly one discovery is allowed as trial. A
+ * successful trial closes the breaker, a failed one opens it again with twice the duration.
+ *
+ * <p>Clouds that are already in error state without a known breaker (e.g. after a restart) start
+ * half open.
+ */
+@Singleton
+public class CloudCircuitBreaker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudCircuitBreaker.class);
+
+  private enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private static class Breaker {
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openDuration;
+    private long openUntil;
+    private boolean trialInFlight;
+  }
+
+  private final int failureThreshold;
+  private final long openDuration;
+  private final long maxOpenDuration;
+  //cloud id -> resource -> breaker
+  private final Map<String, Map<String, Breaker>> breakers = new ConcurrentHashMap<>();
+
+  @Inject
+  public CloudCircuitBreaker(DiscoveryContext discoveryContext) {
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    this.failureThreshold = Math.max(1, discoveryContext.breakerFailureThreshold());
+    this.openDuration = TimeUnit.SECONDS.toNanos(discoveryContext.breakerOpenDuration());
+    this.maxOpenDuration = Math.max(openDuration,
+        TimeUnit.SECONDS.toNanos(discoveryContext.breakerMaxOpenDuration()));
+  }
+
+  private Breaker breaker(ExtendedCloud cloud, String resource) {
+    return breakers.computeIfAbsent(cloud.id(), k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(resource, k -> {
+          final Breaker breaker = new Breaker();
+          if (CloudState.ERROR.equals(cloud.state())) {
+            breaker.state = State.OPEN;
+            breaker.openDuration = openDuration;
+            breaker.openUntil = System.nanoTime();
+          }
+          return breaker;
+        });
+  }
+
+  /**
+   * Checks if the resource of the cloud may be discovered. Acquires the trial if the breaker is
+   * half open.
+   *
+   * @param cloud the cloud
+   * @param resource the resource name, e.g. images
+   * @return true if the discovery may run
+   */
+  public boolean allow(ExtendedCloud cloud, String resource) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(resource, "resource is null");
+
+    final Breaker breaker = breaker(cloud, resource);
+    synchronized (breaker) {
+      switch (breaker.state) {
+        case CLOSED:
+          return true;
+        case OPEN:
+          if (System.nanoTime() - breaker.openUntil < 0) {
+            return false;
+          }
+          LOGGER.info(String.format("%s is half opening breaker of %s of cloud %s.", this,
+              resource, cloud.id()));
+          breaker.state = State.HALF_OPEN;
+          breaker.trialInFlight = true;
+          return true;
+        case HALF_OPEN:
+          if (breaker.trialInFlight) {
+            return false;
+          }
+          breaker.trialInFlight = true;
+          return true;
+        default:
+          throw new AssertionError("Unknown state " + breaker.state);
+      }
+    }
+  }
+
+  /**
+   * Records a successful discovery of the resource of the cloud.
+   *
+   * @param cloud the cloud
+   * @param resource the resource name, e.g. images
+   * @return true if the cloud recovered, i.e. the breaker was closed by this call and no other
+   * breaker of the cloud is open
+   */
+  public boolean success(ExtendedCloud cloud, String resource) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(resource, "resource is null");
+
+    final Breaker breaker = breaker(cloud, resource);
+    final boolean closed;
+    synchronized (breaker) {
+      closed = !State.CLOSED.equals(breaker.state);
+      if (closed) {
+        LOGGER.info(String.format("%s is closing breaker of %s of cloud %s.", this, resource,
+            cloud.id()));
+      }
+      breaker.state = State.CLOSED;
+      breaker.failures = 0;
+      breaker.trialInFlight = false;
+    }
+    return closed && breakers.getOrDefault(cloud.id(), Collections.emptyMap()).values().stream()
+        .allMatch(other -> {
+          synchronized (other) {
+            return State.CLOSED.equals(other.state);
+          }
+        });
+  }
+
+  /**
+   * Records a failed discovery of the resource of the cloud.
+   *
+   * @param cloud the cloud
+   * @param resource the resource name, e.g. images
+   * @return true if the breaker was tripped by this call, i.e. the failure needs to be reported
+   */
+  public boolean failure(ExtendedCloud cloud, String resource) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(resource, "resource is null");
+
+    final Breaker breaker = breaker(cloud, resource);
+    synchronized (breaker) {
+      switch (breaker.state) {
+        case CLOSED:
+          if (++breaker.failures < failureThreshold) {
+            return false;
+          }
+          breaker.openDuration = openDuration;
+          open(cloud, resource, breaker);
+          return true;
+        case HALF_OPEN:
+          breaker.openDuration = Math.min(breaker.openDuration * 2, maxOpenDuration);
+          open(cloud, resource, breaker);
+          return false;
+        default:
+          return false;
+      }
+    }
+  }
+
+  private void open(ExtendedCloud cloud, String resource, Breaker breaker) {
+    breaker.state = State.OPEN;
+    breaker.trialInFlight = false;
+    breaker.openUntil = System.nanoTime() + breaker.openDuration;
+    LOGGER.warn(String.format("%s is opening breaker of %s of cloud %s for %s seconds.", this,
+        resource, cloud.id(), TimeUnit.NANOSECONDS.toSeconds(breaker.openDuration)));
+  }
+
+  /**
+   * Drops the breakers of all clouds not contained in the given collection.
+   *
+   * @param cloudIds the ids of all known clouds
+   */
+  public void retain(Collection<String> cloudIds) {
+    checkNotNull(cloudIds, "cloudIds is null");
+    breakers.keySet().retainAll(cloudIds);
+  }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the discovery of single clouds on a bounded pool.
+ *
+ * <p>A task is interrupted once it exceeds the configured cloud timeout. A task that is still
+ * running (e.g. because it ignores the interrupt) is not submitted again until it has finished.
+ * Immediate tasks are executed ahead of all pending periodic tasks. Callbacks can be chained onto
+ * the completion of a running task.
+ */
+@Singleton
+public class CloudDiscoveryExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudDiscoveryExecutor.class);
+  private final ExecutorService executorService;
+  private final ScheduledExecutorService timeoutService;
+  private final long timeout;
+  //key of running task -> callbacks executed once it finished
+  private final Map<String, List<Runnable>> inFlight = new ConcurrentHashMap<>();
+  private final PriorityBlockingQueue<PrioritizedTask> pending = new PriorityBlockingQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  @Inject
+  public CloudDiscoveryExecutor(DiscoveryContext discoveryContext) {
+    checkNotNull(discoveryContext, "discoveryContext is null");
+
+    final int parallelDiscoveries = discoveryContext.parallelDiscoveries();
+    this.executorService = new LoggingThreadPoolExecutor(parallelDiscoveries,
+        parallelDiscoveries, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    this.timeoutService = new LoggingScheduledThreadPoolExecutor(1);
+    this.timeout = discoveryContext.cloudTimeout();
+
+    LOGGER.info(String
+        .format("Allowing parallel discovery of %s clouds with a timeout of %s seconds per cloud.",
+            parallelDiscoveries, timeout));
+
+    MoreExecutors.addDelayedShutdownHook(executorService, 1, TimeUnit.MINUTES);
+    MoreExecutors.addDelayedShutdownHook(timeoutService, 1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Submits the task for asynchronous execution.
+   *
+   * @param key identifies the task, e.g. worker and cloud
+   * @param task the task to execute
+   * @return false if a task with the same key is still running, true otherwise
+   */
+  public boolean submit(String key, Runnable task) {
+    return submit(key, task, Priority.PERIODIC);
+  }
+
+  /**
+   * Submits the task for asynchronous execution ahead of all pending periodic tasks.
+   *
+   * @param key identifies the task, e.g. worker and cloud
+   * @param task the task to execute
+   * @return false if a task with the same key is still running, true otherwise
+   */
+  public boolean submitImmediate(String key, Runnable task) {
+    return submit(key, task, Priority.IMMEDIATE);
+  }
+
+  /**
+   * Executes the callback once the task with the given key finished.
+   *
+   * @param key identifies the task, e.g. worker and cloud
+   * @param callback the callback to execute
+   * @return false if no task with the key is running, the callback is not executed then
+   */
+  public boolean whenDone(String key, Runnable callback) {
+    checkNotNull(key, "key is null");
+    checkNotNull(callback, "callback is null");
+
+    return inFlight.computeIfPresent(key, (k, callbacks) -> {
+      callbacks.add(callback);
+      return callbacks;
+    }) != null;
+  }
+
+  private boolean submit(String key, Runnable task, Priority priority) {
+    checkNotNull(key, "key is null");
+    checkNotNull(task, "task is null");
+
+    if (inFlight.putIfAbsent(key, new ArrayList<>()) != null) {
+      return false;
+    }
+
+    final PrioritizedTask prioritizedTask = new PrioritizedTask(priority,
+        sequence.getAndIncrement(), key, task);
+    pending.add(prioritizedTask);
+    try {
+      //every execution runs the most important pending task, not necessarily this one
+      executorService.execute(this::runNext);
+    } catch (RejectedExecutionException e) {
+      pending.remove(prioritizedTask);
+      done(key);
+      throw e;
+    }
+    return true;
+  }
+
+  private void runNext() {
+    final PrioritizedTask next = pending.poll();
+    if (next == null) {
+      return;
+    }
+
+    final Watchdog watchdog = new Watchdog(Thread.currentThread());
+    final ScheduledFuture<?> scheduledFuture = timeoutService
+        .schedule(watchdog, timeout, TimeUnit.SECONDS);
+    try {
+      next.task.run();
+    } finally {
+      watchdog.finish();
+      scheduledFuture.cancel(false);
+      //clear a possible interrupt so that it does not leak into the next task
+      if (Thread.interrupted()) {
+        LOGGER.warn(String.format("Discovery task %s exceeded timeout of %s seconds.", next.key,
+            timeout));
+      }
+      done(next.key);
+    }
+  }
+
+  private void done(String key) {
+    for (Runnable callback : inFlight.remove(key)) {
+      try {
+        callback.run();
+      } catch (Exception e) {
+        LOGGER.error(String.format("Callback of discovery task %s failed.", key), e);
+      }
+    }
+  }
+
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("executorService", executorService)
+        .add("timeout", timeout).toString();
+  }
+
+  private enum Priority {
+    IMMEDIATE,
+    PERIODIC
+  }
+
+  private static class PrioritizedTask implements Comparable<PrioritizedTask> {
+
+    private final Priority priority;
+    private final long sequence;
+    private final String key;
+    private final Runnable task;
+
+    private PrioritizedTask(Priority priority, long sequence, String key, Runnable task) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.key = key;
+      this.task = task;
+    }
+
+    @Override
+    public int compareTo(PrioritizedTask o) {
+      final int byPriority = priority.compareTo(o.priority);
+      if (byPriority != 0) {
+        return byPriority;
+      }
+      return Long.compare(sequence, o.sequence);
+    }
+  }
+
+  private static class Watchdog implements Runnable {
+
+    private final Thread thread;
+    private boolean finished = false;
+
+    private Watchdog(Thread thread) {
+      this.thread = thread;
+    }
+
+    @Override
+    public synchronized void run() {
+      if (!finished) {
+        thread.interrupt();
+      }
+    }
+
+    private synchronized void finish() {
+      finished = true;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavorBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import de.uniulm.omi.cloudiator.sword.domain.ImageBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.Location;
+import de.uniulm.omi.cloudiator.sword.domain.LocationBuilder;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+
+/**
+ * Copies resources discovered for one cloud to another cloud of the same provider account.
+ *
+ * <p>All ids, including the ids of referenced locations, are scoped to the target cloud. All
+ * other attributes are kept.
+ */
+class CloudRescoper {
+
+  private final String from;
+  private final String to;
+
+  CloudRescoper(String from, String to) {
+    checkNotNull(from, "from is null");
+    checkNotNull(to, "to is null");
+    this.from = from;
+    this.to = to;
+  }
+
+  String id(String id) {
+    checkNotNull(id, "id is null");
+    checkState(id.startsWith(from) && from.equals(IdScopedByClouds.from(id).cloudId()),
+        String.format("Id %s is not scoped by cloud %s.", id, from));
+    return to + id.substring(from.length());
+  }
+
+  Location location(Location location) {
+    if (location == null) {
+      return null;
+    }
+    return LocationBuilder.newBuilder().id(id(location.id())).providerId(location.providerId())
+        .name(location.name()).scope(location.locationScope())
+        .geoLocation(location.geoLocation().orElse(null))
+        .assignable(location.isAssignable())
+        .parent(location(location.parent().orElse(null))).build();
+  }
+
+  Image image(Image image) {
+    return ImageBuilder.newBuilder().id(id(image.id())).providerId(image.providerId())
+        .name(image.name()).os(image.operatingSystem())
+        .location(location(image.location().orElse(null))).build();
+  }
+
+  HardwareFlavor hardware(HardwareFlavor hardwareFlavor) {
+    final HardwareFlavorBuilder builder = HardwareFlavorBuilder.newBuilder()
+        .id(id(hardwareFlavor.id())).providerId(hardwareFlavor.providerId())
+        .name(hardwareFlavor.name()).cores(hardwareFlavor.numberOfCores())
+        .mbRam(hardwareFlavor.mbRam())
+        .location(location(hardwareFlavor.location().orElse(null)));
+    hardwareFlavor.gbDisk().ifPresent(builder::gbDisk);
+    return builder.build();
+  }
+
+}
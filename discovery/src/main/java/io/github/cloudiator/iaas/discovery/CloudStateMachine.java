@@ -19,6 +19,7 @@
 package io.github.cloudiator.iaas.discovery;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
 import de.uniulm.omi.cloudiator.sword.multicloud.service.CloudRegistry;
@@ -32,10 +33,13 @@ import io.github.cloudiator.domain.CloudState;
 import io.github.cloudiator.domain.ExtendedCloud;
 import io.github.cloudiator.domain.ExtendedCloudBuilder;
 import io.github.cloudiator.domain.ExtendedCloudImpl;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.CloudMessageToCloudConverter;
 import io.github.cloudiator.messaging.CloudMessageToCloudConverter.CloudStateConverter;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.persistance.CloudDomainRepository;
 import org.cloudiator.messages.Cloud.CloudEvent;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.services.CloudService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,21 +52,32 @@ public class CloudStateMachine implements ErrorAwareStateMachine<ExtendedCloud,
   private final CloudDomainRepository cloudDomainRepository;
   private final CloudRegistry cloudRegistry;
   private final CloudService cloudService;
+  private final CatalogCache catalogCache;
+  private final Provider<TargetedDiscovery> targetedDiscoveryProvider;
 
   @Inject
   public CloudStateMachine(
       CloudDomainRepository cloudDomainRepository,
-      CloudRegistry cloudRegistry, CloudService cloudService) {
+      CloudRegistry cloudRegistry, CloudService cloudService, EventPublisher eventPublisher,
+      CatalogCache catalogCache,
+      Provider<TargetedDiscovery> targetedDiscoveryProvider) {
     this.cloudDomainRepository = cloudDomainRepository;
     this.cloudRegistry = cloudRegistry;
     this.cloudService = cloudService;
+    this.catalogCache = catalogCache;
+    this.targetedDiscoveryProvider = targetedDiscoveryProvider;
 
     //noinspection unchecked
     stateMachine = StateMachineBuilder.<ExtendedCloud, CloudState>builder().errorTransition(error())
         .addTransition(
             Transitions.<ExtendedCloud, CloudState>transitionBuilder().from(CloudState.NEW)
                 .to(CloudState.OK)
-                .action(newToOk())
+                .action(toOk())
+                .build())
+        .addTransition(
+            Transitions.<ExtendedCloud, CloudState>transitionBuilder().from(CloudState.ERROR)
+                .to(CloudState.OK)
+                .action(toOk())
                 .build())
         .addTransition(
             Transitions.<ExtendedCloud, CloudState>transitionBuilder().from(CloudState.OK)
@@ -82,9 +97,18 @@ public class CloudStateMachine implements ErrorAwareStateMachine<ExtendedCloud,
 
           @Override
           public void post(CloudState from, ExtendedCloud cloud) {
+            final IaasEntities.Cloud cloudMessage = CloudMessageToCloudConverter.INSTANCE
+                .applyBack(cloud);
+            if (CloudState.DELETED.equals(cloud.state())) {
+              catalogCache.clouds().remove(cloud.userId(), cloud.id());
+              //the resources of the cloud were deleted with it
+              catalogCache.invalidateResources(cloud.userId());
+            } else {
+              catalogCache.clouds().put(cloud.userId(), cloudMessage);
+            }
+
             final CloudEvent cloudEvent = CloudEvent.newBuilder().setUserId(cloud.userId())
-                .setCloud(
-                    CloudMessageToCloudConverter.INSTANCE.applyBack(cloud))
+                .setCloud(cloudMessage)
                 .setFrom(CloudStateConverter.INSTANCE.applyBack(
                     from)).setTo(CloudStateConverter.INSTANCE.applyBack(cloud.state()))
                 .build();
@@ -92,7 +116,12 @@ public class CloudStateMachine implements ErrorAwareStateMachine<ExtendedCloud,
                 .format(
                     "Executing post hook to announce cloud changed event for cloud %s. Previous state was %s, new state is %s.",
                     cloud, from, cloud.state()));
-            cloudService.announceEvent(cloudEvent);
+            eventPublisher.publish(cloud.id(), cloudEvent, cloudService::announceEvent);
+
+            //discover newly usable clouds right away instead of waiting for the next run
+            if (CloudState.OK.equals(cloud.state()) && !CloudState.OK.equals(from)) {
+              targetedDiscoveryProvider.get().discover(cloud);
+            }
           }
         })
         .build();
@@ -112,12 +141,12 @@ public class CloudStateMachine implements ErrorAwareStateMachine<ExtendedCloud,
   }
 
 
-  private TransitionAction<ExtendedCloud> newToOk() {
+  private TransitionAction<ExtendedCloud> toOk() {
 
     return (extendedCloud, arguments) -> {
 
       final ExtendedCloudImpl ok = ExtendedCloudBuilder.of(extendedCloud).state(CloudState.OK)
-          .build();
+          .diagnostic(null).build();
       CloudStateMachine.this.save(ok);
       cloudRegistry.register(ok);
 
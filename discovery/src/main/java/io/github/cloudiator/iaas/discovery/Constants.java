@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+public class Constants {
+
+  public static final String DISCOVERY_PARALLEL_DISCOVERIES = "discovery.parallelDiscoveries";
+  public static final String DISCOVERY_CLOUD_TIMEOUT = "discovery.cloudTimeout";
+  public static final String DISCOVERY_QUEUE_CAPACITY = "discovery.queue.capacity";
+  public static final String DISCOVERY_LISTENER_BATCH_SIZE = "discovery.listener.batchSize";
+  public static final String DISCOVERY_LISTENER_LANES = "discovery.listener.lanes";
+  public static final String DISCOVERY_LISTENER_BATCH_TIMEOUT = "discovery.listener.batchTimeout";
+  public static final String DISCOVERY_BREAKER_FAILURE_THRESHOLD = "discovery.breaker.failureThreshold";
+  public static final String DISCOVERY_BREAKER_OPEN_DURATION = "discovery.breaker.openDuration";
+  public static final String DISCOVERY_BREAKER_MAX_OPEN_DURATION = "discovery.breaker.maxOpenDuration";
+  public static final String DISCOVERY_CACHE_MAX_ITEMS = "discovery.cache.maxItems";
+  public static final String DISCOVERY_CACHE_EXPIRY = "discovery.cache.expiry";
+  public static final String DISCOVERY_DEDUPLICATE_ACCOUNTS = "discovery.deduplicateAccounts";
+  public static final String DISCOVERY_SHARD_ENABLED = "discovery.shard.enabled";
+  public static final String DISCOVERY_SHARD_MEMBER_ID = "discovery.shard.memberId";
+  public static final String DISCOVERY_SHARD_HEARTBEAT = "discovery.shard.heartbeat";
+  public static final String DISCOVERY_SHARD_LEASE_DURATION = "discovery.shard.leaseDuration";
+  public static final String DISCOVERY_SNAPSHOT_FILE = "discovery.snapshot.file";
+  public static final String DISCOVERY_SNAPSHOT_INTERVAL = "discovery.snapshot.interval";
+  public static final String DISCOVERY_SNAPSHOT_MAX_AGE = "discovery.snapshot.maxAge";
+  public static final String DISCOVERY_SCHEDULE = "discovery.schedule";
+  public static final String DISCOVERY_SCHEDULE_TICK = "discovery.schedule.tick";
+  public static final String DISCOVERY_SCHEDULE_INITIAL_INTERVAL = "discovery.schedule.initialInterval";
+
+  private Constants() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+}
@@ -18,29 +18,75 @@
 
 package io.github.cloudiator.iaas.discovery;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.MoreObjects;
+import javax.annotation.Nullable;
 
 /**
  * Created by daniel on 01.06.17.
  */
 public final class Discovery {
 
+  private final Class<?> type;
+  private final String id;
+  @Nullable
   private final Object discovery;
+  private final long fingerprint;
 
-  public Discovery(Object discovery) {
+  private Discovery(Class<?> type, String id, @Nullable Object discovery, long fingerprint) {
+    checkNotNull(type, "type is null");
+    checkNotNull(id, "id is null");
+    this.type = type;
+    this.id = id;
     this.discovery = discovery;
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * A new or changed item.
+   *
+   * @param fingerprint the content hash of the item, see {@link DiscoveryFingerprintStore}
+   */
+  public static Discovery of(Class<?> type, String id, Object discovery, long fingerprint) {
+    checkNotNull(discovery, "discovery is null");
+    return new Discovery(type, id, discovery, fingerprint);
+  }
+
+  /**
+   * An item that is no longer offered by the provider.
+   */
+  public static Discovery removed(Class<?> type, String id) {
+    return new Discovery(type, id, null, 0);
   }
 
   public Class<?> getType() {
-    return discovery.getClass();
+    return type;
   }
 
+  public String id() {
+    return id;
+  }
+
+  public boolean isRemoved() {
+    return discovery == null;
+  }
+
+  @Nullable
   public Object discovery() {
     return discovery;
   }
 
+  /**
+   * @return the content hash of the item, 0 for removed items
+   */
+  public long fingerprint() {
+    return fingerprint;
+  }
+
   @Override
   public String toString() {
-    return MoreObjects.toStringHelper(this).add("discovery", discovery).toString();
+    return MoreObjects.toStringHelper(this).add("type", type.getSimpleName()).add("id", id)
+        .add("removed", isRemoved()).add("discovery", discovery).toString();
   }
 }
@@ -29,7 +29,10 @@ import io.github.cloudiator.iaas.discovery.messaging.DiscoveryStatusSubscriber;
 import io.github.cloudiator.iaas.discovery.messaging.HardwareQuerySubscriber;
 import io.github.cloudiator.iaas.discovery.messaging.ImageQuerySubscriber;
 import io.github.cloudiator.iaas.discovery.messaging.LocationQuerySubscriber;
+import io.github.cloudiator.messaging.EventPublisher;
+import io.github.cloudiator.persistance.ConnectionPoolContext;
 import io.github.cloudiator.persistance.JpaModule;
+import io.github.cloudiator.persistance.PersistenceStatistics;
 import io.github.cloudiator.util.JpaContext;
 import org.cloudiator.messaging.kafka.KafkaContext;
 import org.cloudiator.messaging.kafka.KafkaMessagingModule;
@@ -44,16 +47,27 @@ public class DiscoveryAgent {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryAgent.class);
 
+  private static final DiscoveryContext DISCOVERY_CONTEXT = new DiscoveryContext();
+  /**
+   * The subscribers accessing the database, each handling one request at a time.
+   */
+  private static final int DATABASE_SUBSCRIBERS = 6;
+
   private static Injector injector = Guice
-      .createInjector(new DiscoveryModule(), new MessageServiceModule(),
+      .createInjector(new DiscoveryModule(DISCOVERY_CONTEXT), new MessageServiceModule(),
           new JpaModule("defaultPersistenceUnit", new JpaContext(
-              Configuration.conf())),
+              Configuration.conf()), new ConnectionPoolContext(Configuration.conf(),
+              DISCOVERY_CONTEXT.listenerLanes() + DATABASE_SUBSCRIBERS)),
           new KafkaMessagingModule(new KafkaContext(Configuration.conf())));
 
   public static void main(String[] args) {
 
     LOGGER.info("Using configuration: " + Configuration.conf());
 
+    injector.getInstance(DiscoveryMetrics.class).register();
+    injector.getInstance(EventPublisher.class).register();
+    injector.getInstance(PersistenceStatistics.class).register();
+
     final CloudAddedSubscriber instance = injector.getInstance(CloudAddedSubscriber.class);
     instance.run();
 
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_BREAKER_FAILURE_THRESHOLD;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_BREAKER_MAX_OPEN_DURATION;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_BREAKER_OPEN_DURATION;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_CACHE_EXPIRY;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_CACHE_MAX_ITEMS;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_CLOUD_TIMEOUT;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_DEDUPLICATE_ACCOUNTS;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_LISTENER_BATCH_SIZE;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_LISTENER_BATCH_TIMEOUT;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_LISTENER_LANES;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_PARALLEL_DISCOVERIES;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_QUEUE_CAPACITY;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SCHEDULE;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SCHEDULE_INITIAL_INTERVAL;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SCHEDULE_TICK;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SHARD_ENABLED;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SHARD_HEARTBEAT;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SHARD_LEASE_DURATION;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SHARD_MEMBER_ID;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SNAPSHOT_FILE;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SNAPSHOT_INTERVAL;
+import static io.github.cloudiator.iaas.discovery.Constants.DISCOVERY_SNAPSHOT_MAX_AGE;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueType;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class DiscoveryContext {
+
+  private final Config config;
+
+  public DiscoveryContext() {
+    this(Configuration.conf());
+  }
+
+  public DiscoveryContext(Config config) {
+    this.config = config;
+    config.checkValid(ConfigFactory.defaultReference(), "discovery");
+  }
+
+  public int parallelDiscoveries() {
+    return config.getInt(DISCOVERY_PARALLEL_DISCOVERIES);
+  }
+
+  /**
+   * @return the maximum time in seconds a single cloud may take to list one resource type.
+   */
+  public long cloudTimeout() {
+    return config.getLong(DISCOVERY_CLOUD_TIMEOUT);
+  }
+
+  /**
+   * @return the maximum number of pending discoveries before producers are blocked.
+   */
+  public int queueCapacity() {
+    return config.getInt(DISCOVERY_QUEUE_CAPACITY);
+  }
+
+  /**
+   * @return the number of threads handling discoveries, one per available processor unless
+   * configured.
+   */
+  public int listenerLanes() {
+    final int lanes = config.getInt(DISCOVERY_LISTENER_LANES);
+    if (lanes <= 0) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    return lanes;
+  }
+
+  /**
+   * @return the maximum number of discoveries persisted in one transaction.
+   */
+  public int listenerBatchSize() {
+    return config.getInt(DISCOVERY_LISTENER_BATCH_SIZE);
+  }
+
+  /**
+   * @return the maximum time in milliseconds to wait for a batch to fill up.
+   */
+  public long listenerBatchTimeout() {
+    return config.getLong(DISCOVERY_LISTENER_BATCH_TIMEOUT);
+  }
+
+  /**
+   * @return the period in seconds in which the workers check for clouds due for discovery.
+   */
+  public long scheduleTick() {
+    return config.getLong(DISCOVERY_SCHEDULE_TICK);
+  }
+
+  /**
+   * @return the interval in seconds used for clouds that were just added.
+   */
+  public long scheduleInitialInterval() {
+    return config.getLong(DISCOVERY_SCHEDULE_INITIAL_INTERVAL);
+  }
+
+  /**
+   * @return the names of all resources with a configured schedule.
+   */
+  public Set<String> scheduleResources() {
+    return config.getObject(DISCOVERY_SCHEDULE).entrySet().stream()
+        .filter(e -> ConfigValueType.OBJECT.equals(e.getValue().valueType()))
+        .map(Entry::getKey).collect(Collectors.toSet());
+  }
+
+  /**
+   * @param resource the name of the resource, e.g. images
+   * @return the base interval in seconds between two discoveries of the resource.
+   */
+  public long scheduleInterval(String resource) {
+    return config.getLong(DISCOVERY_SCHEDULE + "." + resource + ".interval");
+  }
+
+  /**
+   * @param resource the name of the resource, e.g. images
+   * @return the maximum interval in seconds between two discoveries of an unchanged resource.
+   */
+  public long scheduleMaxInterval(String resource) {
+    return config.getLong(DISCOVERY_SCHEDULE + "." + resource + ".maxInterval");
+  }
+
+  /**
+   * @return the number of consecutive failures after which the discovery of a cloud is paused.
+   */
+  public int breakerFailureThreshold() {
+    return config.getInt(DISCOVERY_BREAKER_FAILURE_THRESHOLD);
+  }
+
+  /**
+   * @return the time in seconds the discovery of a failing cloud is paused before it is retried.
+   */
+  public long breakerOpenDuration() {
+    return config.getLong(DISCOVERY_BREAKER_OPEN_DURATION);
+  }
+
+  /**
+   * @return the maximum time in seconds the discovery of a failing cloud is paused.
+   */
+  public long breakerMaxOpenDuration() {
+    return config.getLong(DISCOVERY_BREAKER_MAX_OPEN_DURATION);
+  }
+
+  /**
+   * @return the maximum number of items held by each catalog cache across all tenants.
+   */
+  public long cacheMaxItems() {
+    return config.getLong(DISCOVERY_CACHE_MAX_ITEMS);
+  }
+
+  /**
+   * @return the time in seconds after which a cached catalog is reloaded from the database.
+   */
+  public long cacheExpiry() {
+    return config.getLong(DISCOVERY_CACHE_EXPIRY);
+  }
+
+  /**
+   * @return true if clouds sharing the same provider account are only listed once.
+   */
+  public boolean deduplicateAccounts() {
+    return config.getBoolean(DISCOVERY_DEDUPLICATE_ACCOUNTS);
+  }
+
+  /**
+   * @return true if the discovery is sharded across all running discovery agents.
+   */
+  public boolean shardEnabled() {
+    return config.getBoolean(DISCOVERY_SHARD_ENABLED);
+  }
+
+  /**
+   * @return the id of this agent within the shard, empty to use the host name. The id needs to be
+   * stable across restarts and unique among the running agents.
+   */
+  public String shardMemberId() {
+    return config.getString(DISCOVERY_SHARD_MEMBER_ID);
+  }
+
+  /**
+   * @return the interval in seconds in which this agent renews its lease.
+   */
+  public long shardHeartbeat() {
+    return config.getLong(DISCOVERY_SHARD_HEARTBEAT);
+  }
+
+  /**
+   * @return the time in seconds after which the lease of an agent expires.
+   */
+  public long shardLeaseDuration() {
+    return config.getLong(DISCOVERY_SHARD_LEASE_DURATION);
+  }
+
+  /**
+   * @return the file the discovery snapshot is written to, e.g. on a persistent volume, empty to
+   * disable snapshots.
+   */
+  public String snapshotFile() {
+    return config.getString(DISCOVERY_SNAPSHOT_FILE);
+  }
+
+  /**
+   * @return the interval in seconds in which the discovery snapshot is written.
+   */
+  public long snapshotInterval() {
+    return config.getLong(DISCOVERY_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * @return the maximum age in seconds of a discovery snapshot to be restored on startup.
+   */
+  public long snapshotMaxAge() {
+    return config.getLong(DISCOVERY_SNAPSHOT_MAX_AGE);
+  }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers a content fingerprint for every discovered item, per cloud and resource type.
+ *
+ * <p>Used by the discovery workers to only emit items that are new, have changed or are no
+ * longer offered by the provider.
+ *
+ * <p>Additionally, the store tracks the fingerprints of the items whose discovery was persisted,
+ * see {@link #commit(Discovery)}. Only those are visited by {@link
+ * #forEach(FingerprintVisitor)}, as emitted but not yet persisted items must be emitted again
+ * after a restart.
+ */
+@Singleton
+public class DiscoveryFingerprintStore {
+
+  public enum Delta {
+    NEW,
+    CHANGED,
+    UNCHANGED
+  }
+
+  /**
+   * Receives the fingerprints of the store, see {@link #forEach(FingerprintVisitor)}.
+   */
+  @FunctionalInterface
+  public interface FingerprintVisitor {
+
+    void visit(String cloudId, Class<?> type, String id, long hash);
+  }
+
+  //marks fingerprints that were restored and not yet seen in any run
+  private static final long RESTORED = 0;
+  //marks items whose removal could not be processed and needs to be reported again
+  private static final long TOMBSTONE = -1;
+
+  private static class Fingerprint {
+
+    private final long hash;
+    private final long lastSeen;
+
+    private Fingerprint(long hash, long lastSeen) {
+      this.hash = hash;
+      this.lastSeen = lastSeen;
+    }
+  }
+
+  //cloud id -> resource type -> item id -> fingerprint
+  private final Map<String, Map<Class<?>, Map<String, Fingerprint>>> fingerprints =
+      new ConcurrentHashMap<>();
+  //cloud id -> resource type -> item id -> hash of the persisted item
+  private final Map<String, Map<Class<?>, Map<String, Long>>> committed =
+      new ConcurrentHashMap<>();
+
+  private static <V> Map<String, V> scope(Map<String, Map<Class<?>, Map<String, V>>> map,
+      String cloudId, Class<?> type) {
+    return map.computeIfAbsent(cloudId, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+  }
+
+  private Map<String, Fingerprint> scope(String cloudId, Class<?> type) {
+    return scope(fingerprints, cloudId, type);
+  }
+
+  /**
+   * Records that the item was seen in the given run.
+   *
+   * @param cloudId the cloud the item belongs to
+   * @param type the resource type of the item
+   * @param id the id of the item
+   * @param hash the content hash of the item
+   * @param run the run in which the item was seen
+   * @return the delta to the previous state of the item
+   */
+  public Delta see(String cloudId, Class<?> type, String id, long hash, long run) {
+    checkNotNull(cloudId, "cloudId is null");
+    checkNotNull(type, "type is null");
+    checkNotNull(id, "id is null");
+
+    final Fingerprint previous = scope(cloudId, type).put(id, new Fingerprint(hash, run));
+    if (previous == null || previous.lastSeen == TOMBSTONE) {
+      return Delta.NEW;
+    }
+    if (previous.hash != hash) {
+      return Delta.CHANGED;
+    }
+    return Delta.UNCHANGED;
+  }
+
+  /**
+   * Removes all items of the cloud and type that were not seen in the given run.
+   *
+   * <p>Must only be called after a complete listing of the cloud, otherwise items that simply were
+   * not listed yet are reported as gone.
+   *
+   * @return the ids of the removed items
+   */
+  public Set<String> sweep(String cloudId, Class<?> type, long run) {
+    checkNotNull(cloudId, "cloudId is null");
+    checkNotNull(type, "type is null");
+
+    final Set<String> gone = new HashSet<>();
+    final Iterator<Entry<String, Fingerprint>> iterator = scope(cloudId, type).entrySet()
+        .iterator();
+    while (iterator.hasNext()) {
+      final Entry<String, Fingerprint> entry = iterator.next();
+      if (entry.getValue().lastSeen != run) {
+        gone.add(entry.getKey());
+        iterator.remove();
+      }
+    }
+    return gone;
+  }
+
+  /**
+   * Forgets the item, so that it is reported as new on its next discovery. Used if the item could
+   * not be processed.
+   */
+  public void invalidate(Class<?> type, String id) {
+    checkNotNull(type, "type is null");
+    checkNotNull(id, "id is null");
+
+    final Map<Class<?>, Map<String, Fingerprint>> byType = fingerprints
+        .get(IdScopedByClouds.from(id).cloudId());
+    if (byType == null) {
+      return;
+    }
+    byType.forEach((scopeType, scope) -> {
+      if (scopeType.isAssignableFrom(type)) {
+        scope.remove(id);
+      }
+    });
+  }
+
+  /**
+   * Re-inserts a removed item, so that its removal is reported again by the next sweep. Used if
+   * the removal could not be processed, as the sweep reporting it already forgot the item.
+   */
+  public void tombstone(Class<?> type, String id) {
+    checkNotNull(type, "type is null");
+    checkNotNull(id, "id is null");
+
+    scope(IdScopedByClouds.from(id).cloudId(), type).putIfAbsent(id,
+        new Fingerprint(0, TOMBSTONE));
+  }
+
+  /**
+   * Records that the discovery was persisted.
+   *
+   * @param discovery the persisted discovery
+   */
+  public void commit(Discovery discovery) {
+    checkNotNull(discovery, "discovery is null");
+
+    final Map<String, Long> scope = scope(committed,
+        IdScopedByClouds.from(discovery.id()).cloudId(), discovery.getType());
+    if (discovery.isRemoved()) {
+      scope.remove(discovery.id());
+    } else {
+      scope.put(discovery.id(), discovery.fingerprint());
+    }
+  }
+
+  /**
+   * Restores the fingerprint of a persisted item, e.g. from a snapshot.
+   *
+   * <p>The item is reported as unchanged if it is seen with the same hash. Fingerprints already
+   * recorded by a run take precedence.
+   */
+  public void restore(String cloudId, Class<?> type, String id, long hash) {
+    checkNotNull(cloudId, "cloudId is null");
+    checkNotNull(type, "type is null");
+    checkNotNull(id, "id is null");
+
+    scope(cloudId, type).putIfAbsent(id, new Fingerprint(hash, RESTORED));
+    scope(committed, cloudId, type).putIfAbsent(id, hash);
+  }
+
+  /**
+   * Visits the fingerprints of all persisted items. Concurrent modifications may or may not be
+   * visited.
+   */
+  public void forEach(FingerprintVisitor visitor) {
+    checkNotNull(visitor, "visitor is null");
+
+    committed.forEach((cloudId, byType) -> byType.forEach(
+        (type, scope) -> scope.forEach((id, hash) -> visitor.visit(cloudId, type, id, hash))));
+  }
+
+  /**
+   * Forgets all clouds that are not part of the given cloud ids.
+   */
+  public void retain(Collection<String> cloudIds) {
+    checkNotNull(cloudIds, "cloudIds is null");
+    fingerprints.keySet().retainAll(cloudIds);
+    committed.keySet().retainAll(cloudIds);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("clouds", fingerprints.keySet()).toString();
+  }
+}
@@ -18,6 +18,7 @@
 
 package io.github.cloudiator.iaas.discovery;
 
+import java.util.List;
 
 /**
  * Created by daniel on 01.06.17.
@@ -28,4 +29,22 @@ public interface DiscoveryListener {
 
   void handle(Object o);
 
+  /**
+   * Handles a batch of new or changed items within the transaction of the caller.
+   *
+   * <p>Listeners may persist the batch in bulk, by default the items are handled one by one.
+   *
+   * @param items the items, at most one per id
+   */
+  default void handleAll(List<Object> items) {
+    items.forEach(this::handle);
+  }
+
+  /**
+   * Called for an item that is no longer offered by the provider.
+   *
+   * @param id the id of the item
+   */
+  void remove(String id);
+
 }
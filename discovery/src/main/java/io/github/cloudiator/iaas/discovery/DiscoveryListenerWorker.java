@@ -18,26 +18,88 @@
 
 package io.github.cloudiator.iaas.discovery;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import com.google.inject.persist.UnitOfWork;
+import de.uniulm.omi.cloudiator.sword.domain.Location;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import io.github.cloudiator.persistance.AfterCommit;
+import io.github.cloudiator.persistance.MissingLocationException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Created by daniel on 01.06.17.
+ *
+ * <p>Distributes the discoveries onto lanes. All discoveries of one cloud are handled by the same
+ * single threaded lane in order, discoveries of different clouds in parallel. Within a batch,
+ * locations are handled before the hardware and images referring to them, parents before their
+ * children. Discoveries that still miss their location are retried later on the same lane.
+ *
+ * <p>Events and cache updates caused by a discovery are deferred until its transaction
+ * committed, so that a rolled back batch does not publish them before they are handled again
+ * one by one.
  */
 public class DiscoveryListenerWorker implements Runnable {
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(ImageDiscoveryListener.class);
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryListenerWorker.class);
+  private static final int MAX_RETRIES = 5;
+  private static final long RETRY_DELAY = 10;
   private final DiscoveryQueue discoveryQueue;
   private final Set<DiscoveryListener> discoveryListeners;
+  private final DiscoveryFingerprintStore discoveryFingerprintStore;
+  private final DiscoveryMetrics discoveryMetrics;
+  private final UnitOfWork unitOfWork;
+  private final AfterCommit afterCommit;
+  private final int batchSize;
+  private final long batchTimeout;
+  private final ScheduledExecutorService[] lanes;
+  private final Semaphore pendingBatches;
 
   @Inject
   public DiscoveryListenerWorker(DiscoveryQueue discoveryQueue,
-      Set<DiscoveryListener> discoveryListeners) {
+      Set<DiscoveryListener> discoveryListeners,
+      DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoveryMetrics discoveryMetrics,
+      UnitOfWork unitOfWork,
+      AfterCommit afterCommit,
+      DiscoveryContext discoveryContext) {
     this.discoveryQueue = discoveryQueue;
     this.discoveryListeners = discoveryListeners;
+    this.discoveryFingerprintStore = discoveryFingerprintStore;
+    this.discoveryMetrics = discoveryMetrics;
+    this.unitOfWork = unitOfWork;
+    this.afterCommit = afterCommit;
+    this.batchSize = discoveryContext.listenerBatchSize();
+    checkArgument(batchSize > 0, "batchSize needs to be positive");
+    this.batchTimeout = discoveryContext.listenerBatchTimeout();
+
+    final int laneCount = discoveryContext.listenerLanes();
+    this.lanes = new ScheduledExecutorService[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new LoggingScheduledThreadPoolExecutor(1);
+      MoreExecutors.addDelayedShutdownHook(lanes[i], 1, TimeUnit.MINUTES);
+    }
+    //limit the batches waiting for a lane, so that the bound of the discovery queue holds
+    this.pendingBatches = new Semaphore(2 * laneCount);
+
+    LOGGER.info(String.format("%s is using %s lanes.", this, laneCount));
   }
 
   private Set<DiscoveryListener> interestedIn(Discovery discovery) {
@@ -46,13 +108,184 @@ public class DiscoveryListenerWorker implements Runnable {
         .collect(Collectors.toSet());
   }
 
+  private static String cloudId(Discovery discovery) {
+    return IdScopedByClouds.from(discovery.id()).cloudId();
+  }
+
+  private static boolean isLocation(Discovery discovery) {
+    return Location.class.isAssignableFrom(discovery.getType());
+  }
+
+  private static int depth(Discovery discovery) {
+    if (discovery.isRemoved() || !isLocation(discovery)) {
+      return 0;
+    }
+    int depth = 0;
+    Optional<Location> parent = ((Location) discovery.discovery()).parent();
+    while (parent.isPresent()) {
+      depth++;
+      parent = parent.get().parent();
+    }
+    return depth;
+  }
+
+  private static final Comparator<Discovery> DEPENDENCY_ORDER = Comparator
+      .comparing((Discovery discovery) -> !isLocation(discovery))
+      .thenComparingInt(DiscoveryListenerWorker::depth);
+
+  private static void handle(DiscoveryListener discoveryListener, Discovery discovery) {
+    if (discovery.isRemoved()) {
+      discoveryListener.remove(discovery.id());
+    } else {
+      discoveryListener.handle(discovery.discovery());
+    }
+  }
+
+  private void rolledBack() {
+    afterCommit.rollback();
+    //the entity manager of a failed transaction is unusable, continue with a fresh one
+    unitOfWork.end();
+  }
+
+  private void dispatch(DiscoveryListener discoveryListener, Discovery discovery, int attempt) {
+    afterCommit.begin();
+    try {
+      final long start = System.nanoTime();
+      handle(discoveryListener, discovery);
+      afterCommit.commit();
+      discoveryFingerprintStore.commit(discovery);
+      discoveryMetrics.handled(discovery.getType(), System.nanoTime() - start, 1);
+    } catch (MissingLocationException e) {
+      rolledBack();
+      retryLater(discoveryListener, discovery, attempt, e);
+    } catch (Exception e) {
+      rolledBack();
+      discoveryMetrics.handleFailed(discovery.getType());
+      LOGGER.error(String.format(
+          "%s caught exception %s while handling discovery %s. Will retry with the next discovery run.",
+          this, e.getMessage(), discovery), e);
+      forget(discovery);
+    }
+  }
+
+  private void forget(Discovery discovery) {
+    if (discovery.isRemoved()) {
+      discoveryFingerprintStore.tombstone(discovery.getType(), discovery.id());
+    } else {
+      discoveryFingerprintStore.invalidate(discovery.getType(), discovery.id());
+    }
+  }
+
+  private void retryLater(DiscoveryListener discoveryListener, Discovery discovery, int attempt,
+      MissingLocationException e) {
+    if (attempt >= MAX_RETRIES) {
+      LOGGER.info(String.format(
+          "Skipping discovery %s as the assigned location is still missing after %s attempts. Will retry with the next discovery run.",
+          discovery, attempt + 1), e);
+      forget(discovery);
+      return;
+    }
+    LOGGER.debug(String.format(
+        "Deferring discovery %s as the assigned location seems to be missing. Retrying in %s seconds.",
+        discovery, RETRY_DELAY));
+    lane(cloudId(discovery)).schedule(
+        () -> dispatch(discoveryListener, discovery, attempt + 1), RETRY_DELAY, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Handles all discoveries of one listener in a single transaction. The transactions of the
+   * listener join this transaction. Removals are handled one by one, all other discoveries are
+   * passed to the listener as one batch.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void handleAll(DiscoveryListener discoveryListener, List<Discovery> discoveries) {
+    final List<Object> items = new ArrayList<>(discoveries.size());
+    for (Discovery discovery : discoveries) {
+      if (discovery.isRemoved()) {
+        discoveryListener.remove(discovery.id());
+      } else {
+        items.add(discovery.discovery());
+      }
+    }
+    if (!items.isEmpty()) {
+      discoveryListener.handleAll(items);
+    }
+  }
+
+  private void dispatchAll(DiscoveryListener discoveryListener, List<Discovery> discoveries) {
+    if (discoveries.size() == 1) {
+      dispatch(discoveryListener, discoveries.get(0), 0);
+      return;
+    }
+
+    afterCommit.begin();
+    try {
+      final long start = System.nanoTime();
+      handleAll(discoveryListener, discoveries);
+      afterCommit.commit();
+      discoveries.forEach(discoveryFingerprintStore::commit);
+      discoveryMetrics.handled(discoveries.get(0).getType(), System.nanoTime() - start,
+          discoveries.size());
+    } catch (Exception e) {
+      rolledBack();
+      LOGGER.debug(String.format(
+          "%s failed to handle batch of %s discoveries with listener %s. Falling back to handling them one by one.",
+          this, discoveries.size(), discoveryListener), e);
+      discoveries.forEach(discovery -> dispatch(discoveryListener, discovery, 0));
+    }
+  }
+
+  private void process(List<Discovery> discoveries) {
+    discoveries.sort(DEPENDENCY_ORDER);
+
+    //group consecutive discoveries of the same listener, so that the order is kept
+    DiscoveryListener current = null;
+    List<Discovery> group = new ArrayList<>();
+    for (Discovery discovery : discoveries) {
+      for (DiscoveryListener discoveryListener : interestedIn(discovery)) {
+        if (current != null && !current.equals(discoveryListener)) {
+          dispatchAll(current, group);
+          group = new ArrayList<>();
+        }
+        current = discoveryListener;
+        group.add(discovery);
+      }
+    }
+    if (current != null) {
+      dispatchAll(current, group);
+    }
+  }
+
+  private ScheduledExecutorService lane(String cloudId) {
+    return lanes[Math.floorMod(cloudId.hashCode(), lanes.length)];
+  }
+
   @Override
   public void run() {
     while (!Thread.currentThread().isInterrupted()) {
       try {
-        Discovery discovery = discoveryQueue.take();
-        interestedIn(discovery).forEach(
-            discoveryListener -> discoveryListener.handle(discovery.discovery()));
+        final List<Discovery> batch = discoveryQueue.drain(batchSize, batchTimeout);
+
+        final Map<String, List<Discovery>> byCloud = batch.stream().collect(
+            Collectors.groupingBy(DiscoveryListenerWorker::cloudId, LinkedHashMap::new,
+                Collectors.toList()));
+
+        for (Entry<String, List<Discovery>> entry : byCloud.entrySet()) {
+          pendingBatches.acquire();
+          try {
+            lane(entry.getKey()).execute(() -> {
+              try {
+                process(entry.getValue());
+              } finally {
+                pendingBatches.release();
+              }
+            });
+          } catch (RuntimeException e) {
+            pendingBatches.release();
+            throw e;
+          }
+        }
       } catch (InterruptedException e) {
         LOGGER.warn(String.format("%s got interrupted.", this), e);
         Thread.currentThread().interrupt();
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.util.execution.Schedulable;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.persistance.DiscoveryMemberDomainRepository;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shards the discovery of the clouds across all running discovery agents.
+ *
+ * <p>Every agent renews a lease (a heartbeat in the database) and builds a consistent hash ring
+ * over all agents with a live lease. An agent only discovers the clouds it owns on this ring. If
+ * agents join or leave, only the clouds of the affected ring segments move to another agent.
+ *
+ * <p>As the agents do not see membership changes at exactly the same time, a cloud moving to this
+ * agent from a live agent is only taken over after one lease duration, when the previous owner has
+ * noticed the change as well. Clouds whose previous owner is no longer alive are taken over
+ * immediately.
+ *
+ * <p>The member id is stable across restarts and the lease is released on shutdown, so that a
+ * restarted agent does not share the ring with its own expired lease.
+ */
+@Singleton
+public class DiscoveryMembership implements Schedulable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryMembership.class);
+  private static final int VIRTUAL_NODES = 64;
+
+  private final DiscoveryMemberDomainRepository discoveryMemberDomainRepository;
+  private final boolean enabled;
+  private final boolean deduplicateAccounts;
+  private final String memberId;
+  private final long heartbeat;
+  private final long leaseDuration;
+
+  private static class Ring {
+
+    private final List<String> members;
+    private final NavigableMap<Long, String> nodes = new TreeMap<>();
+
+    private Ring(List<String> members) {
+      this.members = members;
+      for (String member : members) {
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+          nodes.put(hash(member + "#" + i), member);
+        }
+      }
+    }
+
+    private String owner(String key) {
+      if (nodes.isEmpty()) {
+        return null;
+      }
+      final Map.Entry<Long, String> node = nodes.ceilingEntry(hash(key));
+      return node != null ? node.getValue() : nodes.firstEntry().getValue();
+    }
+  }
+
+  private volatile Ring current = new Ring(Collections.emptyList());
+  private volatile Ring previous = current;
+  private volatile long changed = 0;
+  private volatile long renewed = 0;
+
+  @Inject
+  public DiscoveryMembership(DiscoveryMemberDomainRepository discoveryMemberDomainRepository,
+      DiscoveryContext discoveryContext) {
+    checkNotNull(discoveryMemberDomainRepository, "discoveryMemberDomainRepository is null");
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    this.discoveryMemberDomainRepository = discoveryMemberDomainRepository;
+    this.enabled = discoveryContext.shardEnabled();
+    this.deduplicateAccounts = discoveryContext.deduplicateAccounts();
+    this.memberId = discoveryContext.shardMemberId().isEmpty() ? hostName()
+        : discoveryContext.shardMemberId();
+    this.heartbeat = discoveryContext.shardHeartbeat();
+    this.leaseDuration = discoveryContext.shardLeaseDuration();
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      LOGGER.warn("Could not resolve the host name, using a random member id.", e);
+      return UUID.randomUUID().toString();
+    }
+  }
+
+  private static long hash(String key) {
+    return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+  }
+
+  /**
+   * @return true if the discovery is sharded across multiple agents.
+   */
+  public boolean enabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks if this agent is responsible for discovering the cloud.
+   *
+   * <p>If clouds sharing a provider account are discovered together, they are sharded by their
+   * {@link ProviderAccount}, so that they always end up on the same agent.
+   *
+   * @param cloud the cloud
+   * @return true if this agent owns the cloud
+   */
+  public boolean owns(ExtendedCloud cloud) {
+    checkNotNull(cloud, "cloud is null");
+
+    if (!enabled) {
+      return true;
+    }
+    final long now = System.currentTimeMillis();
+    if (now - renewed >= TimeUnit.SECONDS.toMillis(leaseDuration)) {
+      //no view on the members yet or our own lease may have expired
+      return false;
+    }
+    final String key = deduplicateAccounts ? ProviderAccount.of(cloud) : cloud.id();
+    final String owner = current.owner(key);
+    if (!memberId.equals(owner)) {
+      return false;
+    }
+    //owned before the last change, the previous owner is gone, or it had the time to notice
+    //the change
+    final String previousOwner = previous.owner(key);
+    return memberId.equals(previousOwner)
+        || previousOwner == null
+        || !current.members.contains(previousOwner)
+        || now - changed >= TimeUnit.SECONDS.toMillis(leaseDuration);
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  List<String> renew(long now) {
+    discoveryMemberDomainRepository.heartbeat(memberId, now);
+    discoveryMemberDomainRepository.expire(now - TimeUnit.SECONDS.toMillis(leaseDuration));
+    return discoveryMemberDomainRepository.members(
+        now - TimeUnit.SECONDS.toMillis(leaseDuration));
+  }
+
+  /**
+   * Releases the lease of this agent, so that the other agents take over its clouds at once.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void leave() {
+    renewed = 0;
+    try {
+      discoveryMemberDomainRepository.leave(memberId);
+      LOGGER.info(String.format("%s released its lease.", this));
+    } catch (Exception e) {
+      LOGGER.error(String.format("%s could not release its lease.", this), e);
+    }
+  }
+
+  @Override
+  public long period() {
+    return heartbeat;
+  }
+
+  @Override
+  public long delay() {
+    return heartbeat;
+  }
+
+  @Override
+  public TimeUnit timeUnit() {
+    return TimeUnit.SECONDS;
+  }
+
+  @Override
+  public void run() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      final long now = System.currentTimeMillis();
+      final List<String> members = renew(now);
+      if (!members.equals(current.members)) {
+        LOGGER.info(String.format("%s noticed membership change from %s to %s.", this,
+            current.members, members));
+        final Ring ring = new Ring(members);
+        //on startup, the clouds were owned by the other live members before this agent joined
+        previous = current.members.isEmpty() ? new Ring(
+            members.stream().filter(member -> !member.equals(memberId))
+                .collect(Collectors.toList())) : current;
+        current = ring;
+        changed = now;
+      }
+      renewed = now;
+    } catch (Exception e) {
+      LOGGER.error(String.format("%s could not renew its lease.", this), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("memberId", memberId).toString();
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.iaas.discovery.DiscoveryFingerprintStore.Delta;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the telemetry of the discovery agent.
+ *
+ * <p>The discovery workers report list latency, items per run, new, changed and removed items
+ * and errors per cloud and resource. The listener worker reports its throughput and handling
+ * latency per resource type. All counters are lock free, so reporting never blocks the discovery.
+ *
+ * <p>The metrics are served through the discovery status request and registered as MXBean under
+ * {@link #OBJECT_NAME}, so that they can be scraped locally.
+ */
+@Singleton
+public class DiscoveryMetrics implements DiscoveryMetricsMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryMetrics.class);
+  public static final String OBJECT_NAME = "io.github.cloudiator.iaas.discovery:type=DiscoveryMetrics";
+
+  private static class ResourceMetrics {
+
+    private final LatencyHistogram listLatency = new LatencyHistogram();
+    private final LatencyHistogram itemsPerRun = new LatencyHistogram();
+    private final LongAdder added = new LongAdder();
+    private final LongAdder changed = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+  }
+
+  private static class ListenerMetrics {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+  }
+
+  private final DiscoveryQueue discoveryQueue;
+  //cloud id -> resource -> metrics
+  private final Map<String, Map<String, ResourceMetrics>> resources = new ConcurrentHashMap<>();
+  //resource type -> metrics
+  private final Map<String, ListenerMetrics> listeners = new ConcurrentHashMap<>();
+  private final LongAdder total = new LongAdder();
+
+  @Inject
+  public DiscoveryMetrics(DiscoveryQueue discoveryQueue) {
+    checkNotNull(discoveryQueue, "discoveryQueue is null");
+    this.discoveryQueue = discoveryQueue;
+  }
+
+  private ResourceMetrics resource(String cloudId, String resource) {
+    return resources.computeIfAbsent(cloudId, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(resource, k -> new ResourceMetrics());
+  }
+
+  private ListenerMetrics listener(Class<?> type) {
+    return listeners.computeIfAbsent(type.getSimpleName(), k -> new ListenerMetrics());
+  }
+
+  public void delta(String cloudId, String resource, Delta delta) {
+    final ResourceMetrics metrics = resource(cloudId, resource);
+    switch (delta) {
+      case NEW:
+        metrics.added.increment();
+        break;
+      case CHANGED:
+        metrics.changed.increment();
+        break;
+      default:
+        return;
+    }
+    total.increment();
+  }
+
+  public void removed(String cloudId, String resource, int count) {
+    resource(cloudId, resource).removed.add(count);
+    total.add(count);
+  }
+
+  public void listed(String cloudId, String resource, long nanos, long items) {
+    final ResourceMetrics metrics = resource(cloudId, resource);
+    metrics.listLatency.recordNanos(nanos);
+    metrics.itemsPerRun.record(items);
+  }
+
+  public void failed(String cloudId, String resource) {
+    resource(cloudId, resource).errors.increment();
+  }
+
+  public void handled(Class<?> type, long nanos, int count) {
+    final ListenerMetrics metrics = listener(type);
+    metrics.latency.recordNanos(nanos);
+    metrics.handled.add(count);
+  }
+
+  public void handleFailed(Class<?> type) {
+    listener(type).errors.increment();
+  }
+
+  /**
+   * Drops the metrics of all clouds not contained in the given collection.
+   *
+   * @param cloudIds the ids of all known clouds
+   */
+  public void retain(Collection<String> cloudIds) {
+    checkNotNull(cloudIds, "cloudIds is null");
+    resources.keySet().retainAll(cloudIds);
+  }
+
+  /**
+   * @return a point in time copy of all metrics, latencies are reported in milliseconds.
+   */
+  public Map<String, Long> snapshot() {
+    final Map<String, Long> snapshot = new TreeMap<>();
+    snapshot.put("total", total.sum());
+    snapshot.put("queue.depth", (long) discoveryQueue.depth());
+    snapshot.put("queue.added", discoveryQueue.added());
+    snapshot.put("queue.coalesced", discoveryQueue.coalesced());
+
+    for (Entry<String, Map<String, ResourceMetrics>> cloud : resources.entrySet()) {
+      for (Entry<String, ResourceMetrics> resource : cloud.getValue().entrySet()) {
+        final String prefix = "cloud." + cloud.getKey() + "." + resource.getKey();
+        final ResourceMetrics metrics = resource.getValue();
+        metrics.listLatency.writeTo(prefix + ".listLatency", snapshot);
+        metrics.itemsPerRun.writeTo(prefix + ".itemsPerRun", snapshot);
+        snapshot.put(prefix + ".new", metrics.added.sum());
+        snapshot.put(prefix + ".changed", metrics.changed.sum());
+        snapshot.put(prefix + ".removed", metrics.removed.sum());
+        snapshot.put(prefix + ".errors", metrics.errors.sum());
+      }
+    }
+
+    for (Entry<String, ListenerMetrics> listener : listeners.entrySet()) {
+      final String prefix = "listener." + listener.getKey();
+      final ListenerMetrics metrics = listener.getValue();
+      metrics.latency.writeTo(prefix + ".latency", snapshot);
+      snapshot.put(prefix + ".handled", metrics.handled.sum());
+      snapshot.put(prefix + ".errors", metrics.errors.sum());
+    }
+
+    return snapshot;
+  }
+
+  @Override
+  public Map<String, Long> getMetrics() {
+    return snapshot();
+  }
+
+  /**
+   * Registers this instance at the platform MBean server.
+   */
+  public void register() {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (!mBeanServer.isRegistered(objectName)) {
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (JMException e) {
+      LOGGER.warn(String.format("Could not register discovery metrics as %s.", OBJECT_NAME), e);
+    }
+  }
+
+}
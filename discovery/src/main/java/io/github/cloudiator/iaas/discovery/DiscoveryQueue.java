@@ -18,34 +18,179 @@
 
 package io.github.cloudiator.iaas.discovery;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.MoreObjects;
+import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.util.execution.SimpleBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Created by daniel on 25.01.17.
+ *
+ * <p>A bounded queue of discoveries that coalesces pending discoveries of the same item. If an
+ * item is added while an older discovery of it is still pending, the pending discovery is
+ * replaced (keeping its position). Producers block while the queue is full.
  */
 public class DiscoveryQueue implements SimpleBlockingQueue<Discovery> {
 
-  private final BlockingQueue<Discovery> blockingQueue;
+  private final int capacity;
+  private final Map<String, Discovery> pending = new LinkedHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final AtomicLong added = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  @Inject
+  public DiscoveryQueue(DiscoveryContext discoveryContext) {
+    this(discoveryContext.queueCapacity());
+  }
+
+  public DiscoveryQueue(int capacity) {
+    checkArgument(capacity > 0, "capacity needs to be positive");
+    this.capacity = capacity;
+  }
 
-  public DiscoveryQueue() {
-    this.blockingQueue = new LinkedBlockingQueue<>();
+  private static String key(Discovery discovery) {
+    return discovery.getType().getName() + "/" + discovery.id();
   }
 
+  /**
+   * Adds the discovery, replacing a pending discovery of the same item. Blocks while the queue is
+   * full.
+   *
+   * @throws IllegalStateException if the thread is interrupted while waiting for free capacity.
+   */
   @Override
   public void add(Discovery discovery) {
-    this.blockingQueue.add(discovery);
+    checkNotNull(discovery, "discovery is null");
+    final String key = key(discovery);
+
+    lock.lock();
+    try {
+      added.incrementAndGet();
+      if (pending.containsKey(key)) {
+        pending.put(key, discovery);
+        coalesced.incrementAndGet();
+        return;
+      }
+      while (pending.size() >= capacity) {
+        notFull.await();
+      }
+      pending.put(key, discovery);
+      notEmpty.signal();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          String.format("Interrupted while waiting to add discovery %s.", discovery), e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Discovery removeFirst() {
+    final Iterator<Discovery> iterator = pending.values().iterator();
+    final Discovery first = iterator.next();
+    iterator.remove();
+    notFull.signal();
+    return first;
   }
 
   @Override
   public Discovery take() throws InterruptedException {
-    return this.blockingQueue.take();
+    lock.lockInterruptibly();
+    try {
+      while (pending.isEmpty()) {
+        notEmpty.await();
+      }
+      return removeFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits for at least one discovery and then collects further discoveries until either
+   * maxElements are collected or the timeout has elapsed.
+   *
+   * @param maxElements the maximum number of discoveries to return
+   * @param timeout the time in milliseconds to wait for further discoveries
+   * @return the collected discoveries, never empty
+   */
+  public List<Discovery> drain(int maxElements, long timeout) throws InterruptedException {
+    checkArgument(maxElements > 0, "maxElements needs to be positive");
+    final List<Discovery> discoveries = new ArrayList<>(maxElements);
+    discoveries.add(take());
+
+    long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (discoveries.size() < maxElements) {
+        if (pending.isEmpty()) {
+          if (nanos <= 0) {
+            break;
+          }
+          nanos = notEmpty.awaitNanos(nanos);
+          continue;
+        }
+        discoveries.add(removeFirst());
+      }
+    } finally {
+      lock.unlock();
+    }
+    return discoveries;
+  }
+
+  /**
+   * @return the number of pending discoveries.
+   */
+  public int depth() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of discoveries added since start.
+   */
+  public long added() {
+    return added.get();
+  }
+
+  /**
+   * @return the number of added discoveries that replaced a pending discovery.
+   */
+  public long coalesced() {
+    return coalesced.get();
+  }
+
+  /**
+   * @return the fraction of added discoveries that replaced a pending discovery.
+   */
+  public double coalesceRate() {
+    final long total = added.get();
+    if (total == 0) {
+      return 0;
+    }
+    return (double) coalesced.get() / total;
   }
 
   @Override
   public String toString() {
-    return MoreObjects.toStringHelper(this).toString();
+    return MoreObjects.toStringHelper(this).add("capacity", capacity).add("depth", depth())
+        .add("added", added()).add("coalesced", coalesced()).toString();
   }
 }
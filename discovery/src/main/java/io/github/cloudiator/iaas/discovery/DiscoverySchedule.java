@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides when a resource type of a cloud is due for the next discovery.
+ *
+ * <p>Every cloud and resource type starts with the base interval of the resource type. The
+ * interval is doubled up to the maximum interval as long as a discovery does not report any
+ * changes and falls back to the base interval on the first change. Freshly added clouds are
+ * discovered with the initial interval until their catalog is stable.
+ *
+ * <p>The base and maximum interval can be overridden per cloud using the properties
+ * {@code discovery.schedule.<resource>.interval} and {@code discovery.schedule.<resource>.maxInterval}
+ * of the cloud configuration.
+ */
+@Singleton
+public class DiscoverySchedule {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoverySchedule.class);
+  private static final String PROPERTY_PREFIX = "discovery.schedule.";
+
+  private static class Entry {
+
+    private final long due;
+    private final long interval;
+    private final boolean fresh;
+
+    private Entry(long due, long interval, boolean fresh) {
+      this.due = due;
+      this.interval = interval;
+      this.fresh = fresh;
+    }
+  }
+
+  private final DiscoveryContext discoveryContext;
+  //cloud id -> resource -> entry
+  private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+  @Inject
+  public DiscoverySchedule(DiscoveryContext discoveryContext) {
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    this.discoveryContext = discoveryContext;
+  }
+
+  private static long now() {
+    return System.nanoTime();
+  }
+
+  private Map<String, Entry> scope(String cloudId) {
+    return entries.computeIfAbsent(cloudId, k -> new ConcurrentHashMap<>());
+  }
+
+  /**
+   * @return the period in seconds in which the workers check for due clouds.
+   */
+  public long tick() {
+    return discoveryContext.scheduleTick();
+  }
+
+  /**
+   * Checks if the resource of the cloud needs to be discovered.
+   *
+   * @param cloudId the id of the cloud
+   * @param resource the resource name, e.g. images
+   * @return true if the resource was never discovered or its interval elapsed
+   */
+  public boolean isDue(String cloudId, String resource) {
+    checkNotNull(cloudId, "cloudId is null");
+    checkNotNull(resource, "resource is null");
+
+    final Entry entry = scope(cloudId).get(resource);
+    return entry == null || now() - entry.due >= 0;
+  }
+
+  /**
+   * Reschedules the resource of the cloud after a discovery finished.
+   *
+   * @param cloud the discovered cloud
+   * @param resource the resource name, e.g. images
+   * @param changed whether the discovery found new, changed or removed items
+   */
+  public void completed(ExtendedCloud cloud, String resource, boolean changed) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(resource, "resource is null");
+
+    final long base = interval(cloud, resource, "interval",
+        discoveryContext.scheduleInterval(resource));
+    final long max = Math.max(base, interval(cloud, resource, "maxInterval",
+        discoveryContext.scheduleMaxInterval(resource)));
+
+    scope(cloud.id()).compute(resource, (k, previous) -> {
+      final long next;
+      final boolean fresh;
+      if (previous == null) {
+        next = base;
+        fresh = false;
+      } else if (previous.fresh) {
+        //stay fast while the catalog of a new cloud is still filling up
+        next = changed ? previous.interval : Math.min(previous.interval * 2, max);
+        fresh = next < base;
+      } else {
+        next = changed ? base : Math.min(previous.interval * 2, max);
+        fresh = false;
+      }
+      LOGGER.debug(String.format("Scheduling next discovery of %s for cloud %s in %s seconds.",
+          resource, cloud.id(), next));
+      return new Entry(now() + TimeUnit.SECONDS.toNanos(next), next, fresh);
+    });
+  }
+
+  /**
+   * Discovers all resources of a newly added cloud with the initial interval until no more
+   * changes are found.
+   *
+   * <p>The added cloud is discovered right away by the {@link TargetedDiscovery}, hence the
+   * resources are not due before the initial interval elapsed. Resources that were already
+   * discovered keep their schedule.
+   *
+   * @param cloudId the id of the added cloud
+   */
+  public void cloudAdded(String cloudId) {
+    checkNotNull(cloudId, "cloudId is null");
+
+    final long initial = discoveryContext.scheduleInitialInterval();
+    final Map<String, Entry> scope = scope(cloudId);
+    for (String resource : discoveryContext.scheduleResources()) {
+      scope.putIfAbsent(resource,
+          new Entry(now() + TimeUnit.SECONDS.toNanos(initial), initial, true));
+    }
+  }
+
+  /**
+   * Drops the schedule of all clouds not contained in the given collection.
+   *
+   * @param cloudIds the ids of all known clouds
+   */
+  public void retain(Collection<String> cloudIds) {
+    checkNotNull(cloudIds, "cloudIds is null");
+    entries.keySet().retainAll(cloudIds);
+  }
+
+  private long interval(ExtendedCloud cloud, String resource, String name, long defaultValue) {
+    final String key = PROPERTY_PREFIX + resource + "." + name;
+    final String value = cloud.configuration().properties().getProperties().get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Math.max(1, Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      LOGGER.warn(String.format("Ignoring illegal value %s of property %s of cloud %s.", value,
+          key, cloud.id()));
+      return defaultValue;
+    }
+  }
+
+}
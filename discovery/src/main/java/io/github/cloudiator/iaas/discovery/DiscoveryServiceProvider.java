@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.sword.multicloud.MultiCloudBuilder;
+import de.uniulm.omi.cloudiator.sword.multicloud.MultiCloudService;
+import de.uniulm.omi.cloudiator.sword.service.DiscoveryService;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.persistance.CloudDomainRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.cloudiator.meta.cloudharmony.config.CloudHarmonyMetaModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides a discovery service scoped to exactly one cloud.
+ *
+ * <p>Each cloud gets its own multi cloud service with only this cloud registered, so that
+ * listing resources of one cloud is independent of all other clouds. The ids of the discovered
+ * resources are scoped in the same way as with the shared multi cloud service.
+ */
+@Singleton
+public class DiscoveryServiceProvider {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryServiceProvider.class);
+  private final CloudDomainRepository cloudDomainRepository;
+  private final Map<String, MultiCloudService> services = new ConcurrentHashMap<>();
+
+  @Inject
+  public DiscoveryServiceProvider(CloudDomainRepository cloudDomainRepository) {
+    checkNotNull(cloudDomainRepository, "cloudDomainRepository is null");
+    this.cloudDomainRepository = cloudDomainRepository;
+  }
+
+  /**
+   * Returns all clouds that are currently eligible for discovery and releases the services of
+   * clouds that no longer exist.
+   *
+   * @return all clouds in state {@link CloudState#OK} or {@link CloudState#ERROR}, the latter
+   * are only discovered when their {@link CloudCircuitBreaker} allows a retry
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  List<ExtendedCloud> clouds() {
+    final List<ExtendedCloud> clouds = cloudDomainRepository.findAll().stream()
+        .filter(cloud -> CloudState.OK.equals(cloud.state()) || CloudState.ERROR
+            .equals(cloud.state())).collect(Collectors.toList());
+
+    final Set<String> ids = clouds.stream().map(ExtendedCloud::id).collect(Collectors.toSet());
+    services.keySet().removeIf(id -> {
+      if (!ids.contains(id)) {
+        LOGGER.debug(String.format("%s is releasing discovery service of cloud %s.", this, id));
+        return true;
+      }
+      return false;
+    });
+
+    return clouds;
+  }
+
+  public DiscoveryService forCloud(ExtendedCloud cloud) {
+    checkNotNull(cloud, "cloud is null");
+    return services.computeIfAbsent(cloud.id(), id -> {
+      LOGGER.debug(String.format("%s is creating discovery service for cloud %s.", this, cloud));
+      final MultiCloudService multiCloudService = MultiCloudBuilder.newBuilder()
+          .metaModule(new CloudHarmonyMetaModule()).build();
+      multiCloudService.cloudRegistry().register(cloud);
+      return multiCloudService;
+    }).computeService().discoveryService();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("clouds", services.keySet()).toString();
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.execution.Schedulable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically writes the fingerprints of all persisted items of the {@link
+ * DiscoveryFingerprintStore} to a memory-mapped snapshot file and restores them on startup.
+ *
+ * <p>A restored store allows the first discovery run after a restart to only emit the items that
+ * changed while the agent was down, instead of re-validating the whole catalog.
+ *
+ * <p>The file consists of a header (magic, version, creation time, number of scopes), one block
+ * per cloud and resource type holding the item ids and their content hashes, and a CRC32 checksum
+ * over everything before it.
+ */
+@Singleton
+public class DiscoverySnapshot implements Schedulable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiscoverySnapshot.class);
+
+  private static final int MAGIC = 0x44534e50;
+  private static final int VERSION = 1;
+  //magic, version, creation time, number of scopes
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+  private static final int CHECKSUM_SIZE = 8;
+
+  private final DiscoveryFingerprintStore discoveryFingerprintStore;
+  private final String file;
+  private final long interval;
+  private final long maxAge;
+
+  @Inject
+  public DiscoverySnapshot(DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoveryContext discoveryContext) {
+    checkNotNull(discoveryFingerprintStore, "discoveryFingerprintStore is null");
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    this.discoveryFingerprintStore = discoveryFingerprintStore;
+    this.file = discoveryContext.snapshotFile();
+    this.interval = discoveryContext.snapshotInterval();
+    this.maxAge = discoveryContext.snapshotMaxAge();
+  }
+
+  /**
+   * @return true if a snapshot file is configured.
+   */
+  public boolean enabled() {
+    return !file.isEmpty();
+  }
+
+  private Path path() {
+    return Paths.get(file);
+  }
+
+  /**
+   * Restores the fingerprint store from the snapshot file.
+   *
+   * <p>Missing, outdated or corrupt snapshots are ignored, the discovery then starts cold.
+   *
+   * @return the number of restored fingerprints
+   */
+  public long restore() {
+    if (!enabled() || !Files.isRegularFile(path())) {
+      return 0;
+    }
+
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(path(), StandardOpenOption.READ)) {
+      final long restored = read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+      LOGGER.info(String.format("%s restored %s fingerprints in %s ms.", this, restored,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+      return restored;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(String.format("%s could not restore snapshot %s. Starting without snapshot.",
+          this, file), e);
+      return 0;
+    }
+  }
+
+  private long read(ByteBuffer buffer) {
+    if (buffer.limit() < HEADER_SIZE + CHECKSUM_SIZE) {
+      throw new IllegalStateException("Snapshot is truncated.");
+    }
+
+    final ByteBuffer content = buffer.duplicate();
+    content.limit(buffer.limit() - CHECKSUM_SIZE);
+    final CRC32 crc = new CRC32();
+    crc.update(content);
+    if (crc.getValue() != buffer.getLong(buffer.limit() - CHECKSUM_SIZE)) {
+      throw new IllegalStateException("Snapshot checksum does not match.");
+    }
+
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IllegalStateException("Snapshot has an unknown format.");
+    }
+    final long age = System.currentTimeMillis() - buffer.getLong();
+    if (age > TimeUnit.SECONDS.toMillis(maxAge)) {
+      LOGGER.info(String.format("%s ignores snapshot %s as it is %s seconds old.", this, file,
+          TimeUnit.MILLISECONDS.toSeconds(age)));
+      return 0;
+    }
+
+    long restored = 0;
+    final int scopes = buffer.getInt();
+    for (int i = 0; i < scopes; i++) {
+      final String cloudId = readString(buffer);
+      final Class<?> type = type(readString(buffer));
+      final int items = buffer.getInt();
+      for (int j = 0; j < items; j++) {
+        final String id = readString(buffer);
+        final long hash = buffer.getLong();
+        if (type != null) {
+          discoveryFingerprintStore.restore(cloudId, type, id, hash);
+          restored++;
+        }
+      }
+    }
+    return restored;
+  }
+
+  private static Class<?> type(String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException e) {
+      LOGGER.warn(String.format("Skipping snapshot entries of unknown type %s.", name));
+      return null;
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  /**
+   * Writes the fingerprints of all persisted items to the snapshot file.
+   *
+   * <p>The snapshot is written to a temporary file first and then moved in place, so a crash
+   * never leaves a partially written snapshot behind.
+   */
+  public void write() throws IOException {
+    //cloud id and type name -> item ids and hashes
+    final Map<Entry<String, String>, List<Entry<byte[], Long>>> scopes = new HashMap<>();
+    discoveryFingerprintStore.forEach((cloudId, type, id, hash) -> scopes
+        .computeIfAbsent(new SimpleImmutableEntry<>(cloudId, type.getName()),
+            k -> new ArrayList<>())
+        .add(new SimpleImmutableEntry<>(id.getBytes(StandardCharsets.UTF_8), hash)));
+
+    long size = HEADER_SIZE + CHECKSUM_SIZE;
+    for (Entry<Entry<String, String>, List<Entry<byte[], Long>>> scope : scopes.entrySet()) {
+      size += 4 + scope.getKey().getKey().getBytes(StandardCharsets.UTF_8).length;
+      size += 4 + scope.getKey().getValue().getBytes(StandardCharsets.UTF_8).length;
+      size += 4;
+      for (Entry<byte[], Long> item : scope.getValue()) {
+        size += 4 + item.getKey().length + 8;
+      }
+    }
+
+    final Path target = path().toAbsolutePath();
+    final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel
+        .open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+      buffer.putInt(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putLong(System.currentTimeMillis());
+      buffer.putInt(scopes.size());
+      for (Entry<Entry<String, String>, List<Entry<byte[], Long>>> scope : scopes.entrySet()) {
+        writeString(buffer, scope.getKey().getKey().getBytes(StandardCharsets.UTF_8));
+        writeString(buffer, scope.getKey().getValue().getBytes(StandardCharsets.UTF_8));
+        buffer.putInt(scope.getValue().size());
+        for (Entry<byte[], Long> item : scope.getValue()) {
+          writeString(buffer, item.getKey());
+          buffer.putLong(item.getValue());
+        }
+      }
+
+      final ByteBuffer content = buffer.duplicate();
+      content.flip();
+      final CRC32 crc = new CRC32();
+      crc.update(content);
+      buffer.putLong(crc.getValue());
+      buffer.force();
+    }
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  @Override
+  public long period() {
+    return interval;
+  }
+
+  @Override
+  public long delay() {
+    return interval;
+  }
+
+  @Override
+  public TimeUnit timeUnit() {
+    return TimeUnit.SECONDS;
+  }
+
+  @Override
+  public void run() {
+    try {
+      write();
+      LOGGER.debug(String.format("%s wrote snapshot %s.", this, file));
+    } catch (Exception e) {
+      LOGGER.error(String.format("%s could not write snapshot %s.", this, file), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("file", file).toString();
+  }
+}
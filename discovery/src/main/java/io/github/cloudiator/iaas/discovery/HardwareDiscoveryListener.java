@@ -25,10 +25,17 @@ import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredHardware;
 import io.github.cloudiator.domain.DiscoveryItemState;
 import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.iaas.discovery.state.HardwareStateMachine;
+import io.github.cloudiator.messaging.HardwareMessageToHardwareConverter;
 import io.github.cloudiator.persistance.CloudDomainRepository;
 import io.github.cloudiator.persistance.HardwareDomainRepository;
-import io.github.cloudiator.persistance.MissingLocationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,15 +48,18 @@ public class HardwareDiscoveryListener implements DiscoveryListener {
   private final HardwareDomainRepository hardwareDomainRepository;
   private final CloudDomainRepository cloudDomainRepository;
   private final HardwareStateMachine hardwareStateMachine;
+  private final CatalogCache catalogCache;
 
   @Inject
   public HardwareDiscoveryListener(
       HardwareDomainRepository hardwareDomainRepository,
       CloudDomainRepository cloudDomainRepository,
-      HardwareStateMachine hardwareStateMachine) {
+      HardwareStateMachine hardwareStateMachine,
+      CatalogCache catalogCache) {
     this.hardwareDomainRepository = hardwareDomainRepository;
     this.cloudDomainRepository = cloudDomainRepository;
     this.hardwareStateMachine = hardwareStateMachine;
+    this.catalogCache = catalogCache;
   }
 
   @Override
@@ -66,10 +76,61 @@ public class HardwareDiscoveryListener implements DiscoveryListener {
     final DiscoveredHardware byId = hardwareDomainRepository.findById(hardwareFlavor.id());
 
     if (byId != null) {
-      LOGGER.trace(String.format("Skipping hardware %s. Already exists.", hardwareFlavor));
+      update(byId, hardwareFlavor);
       return;
     }
 
+    final ExtendedCloud cloud = cloud(hardwareFlavor);
+
+    DiscoveredHardware discoveredHardware = new DiscoveredHardware(hardwareFlavor,
+        DiscoveryItemState.NEW, cloud.userId());
+    hardwareDomainRepository.save(discoveredHardware);
+    hardwareStateMachine.apply(discoveredHardware, DiscoveryItemState.OK, new Object[0]);
+  }
+
+  /**
+   * Reads the existing hardwares of the batch with one query and saves the new and changed ones
+   * together. New hardwares are then moved to state OK one by one.
+   */
+  @Override
+  @Transactional
+  public void handleAll(List<Object> items) {
+
+    final Map<String, DiscoveredHardware> existing = hardwareDomainRepository.findAllById(
+        items.stream().map(o -> ((HardwareFlavor) o).id()).collect(Collectors.toList())).stream()
+        .collect(Collectors.toMap(DiscoveredHardware::id, Function.identity()));
+    final Map<String, ExtendedCloud> clouds = new HashMap<>();
+
+    final List<DiscoveredHardware> created = new ArrayList<>();
+    final List<DiscoveredHardware> updated = new ArrayList<>();
+    for (Object o : items) {
+      final HardwareFlavor hardwareFlavor = (HardwareFlavor) o;
+      final DiscoveredHardware byId = existing.get(hardwareFlavor.id());
+      if (byId == null) {
+        final ExtendedCloud cloud = clouds.computeIfAbsent(
+            IdScopedByClouds.from(hardwareFlavor.id()).cloudId(), k -> cloud(hardwareFlavor));
+        created.add(
+            new DiscoveredHardware(hardwareFlavor, DiscoveryItemState.NEW, cloud.userId()));
+      } else if (DiscoveryItemState.DISABLED.equals(byId.state())) {
+        update(byId, hardwareFlavor);
+      } else {
+        updated.add(new DiscoveredHardware(hardwareFlavor, byId.state(), byId.userId()));
+      }
+    }
+
+    final List<DiscoveredHardware> saved = new ArrayList<>(created);
+    saved.addAll(updated);
+    hardwareDomainRepository.saveAll(saved);
+    for (DiscoveredHardware discovered : updated) {
+      catalogCache.hardware().put(discovered.userId(),
+          HardwareMessageToHardwareConverter.INSTANCE.applyBack(discovered));
+    }
+    for (DiscoveredHardware discovered : created) {
+      hardwareStateMachine.apply(discovered, DiscoveryItemState.OK, new Object[0]);
+    }
+  }
+
+  private ExtendedCloud cloud(HardwareFlavor hardwareFlavor) {
     final ExtendedCloud cloud = cloudDomainRepository
         .findById(IdScopedByClouds.from(hardwareFlavor.id()).cloudId());
 
@@ -77,16 +138,38 @@ public class HardwareDiscoveryListener implements DiscoveryListener {
       throw new IllegalStateException(
           String.format("Cloud for hardware %s is not available", hardwareFlavor));
     }
+    return cloud;
+  }
 
-    DiscoveredHardware discoveredHardware = new DiscoveredHardware(hardwareFlavor,
-        DiscoveryItemState.NEW, cloud.userId());
-    try {
-      hardwareDomainRepository.save(discoveredHardware);
-      hardwareStateMachine.apply(discoveredHardware, DiscoveryItemState.OK, new Object[0]);
-    } catch (MissingLocationException e) {
-      LOGGER
-          .info("Skipping discovery of hardware %s as assigned location seems to be missing.", e);
+  private void update(DiscoveredHardware existing, HardwareFlavor hardwareFlavor) {
+
+    final DiscoveredHardware updated = new DiscoveredHardware(hardwareFlavor, existing.state(),
+        existing.userId());
+
+    if (DiscoveryItemState.DISABLED.equals(existing.state())) {
+      LOGGER.debug(String.format("Re-enabling hardware %s. It is offered again.", hardwareFlavor));
+      hardwareStateMachine.apply(updated, DiscoveryItemState.OK, new Object[0]);
+      return;
+    }
+
+    LOGGER.trace(String.format("Updating hardware %s. It already exists.", hardwareFlavor));
+    hardwareDomainRepository.save(updated);
+    catalogCache.hardware()
+        .put(updated.userId(), HardwareMessageToHardwareConverter.INSTANCE.applyBack(updated));
+  }
+
+  @Override
+  @Transactional
+  public void remove(String id) {
+
+    final DiscoveredHardware byId = hardwareDomainRepository.findById(id);
+
+    if (byId == null || !DiscoveryItemState.OK.equals(byId.state())) {
+      LOGGER.trace(String.format("Skipping removal of hardware %s. Not in state OK.", id));
+      return;
     }
 
+    LOGGER.debug(String.format("Disabling hardware %s. It is no longer offered.", id));
+    hardwareStateMachine.apply(byId, DiscoveryItemState.DISABLED, new Object[0]);
   }
 }
@@ -22,22 +22,23 @@ import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
 import de.uniulm.omi.cloudiator.sword.service.DiscoveryService;
 import io.github.cloudiator.iaas.discovery.error.DiscoveryErrorHandler;
-import io.github.cloudiator.persistance.HardwareDomainRepository;
-import java.util.function.Predicate;
 
 /**
  * Created by daniel on 01.06.17.
  */
 public class HardwareDiscoveryWorker extends AbstractDiscoveryWorker<HardwareFlavor> {
 
-  private final HardwareDomainRepository hardwareDomainRepository;
-
   @Inject
   public HardwareDiscoveryWorker(DiscoveryQueue discoveryQueue,
-      DiscoveryService discoveryService, DiscoveryErrorHandler discoveryErrorHandler,
-      HardwareDomainRepository hardwareDomainRepository) {
-    super(discoveryQueue, discoveryService, discoveryErrorHandler);
-    this.hardwareDomainRepository = hardwareDomainRepository;
+      DiscoveryServiceProvider discoveryServiceProvider,
+      CloudDiscoveryExecutor cloudDiscoveryExecutor, DiscoveryErrorHandler discoveryErrorHandler,
+      DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoverySchedule discoverySchedule, DiscoveryMetrics discoveryMetrics,
+      CloudCircuitBreaker cloudCircuitBreaker, DiscoveryMembership discoveryMembership,
+      DiscoveryContext discoveryContext) {
+    super(discoveryQueue, discoveryServiceProvider, cloudDiscoveryExecutor,
+        discoveryErrorHandler, discoveryFingerprintStore, discoverySchedule,
+        discoveryMetrics, cloudCircuitBreaker, discoveryMembership, discoveryContext);
   }
 
   @Override
@@ -46,13 +47,22 @@ public class HardwareDiscoveryWorker extends AbstractDiscoveryWorker<HardwareFla
   }
 
   @Override
-  protected Predicate<HardwareFlavor> filter() {
-
-    return new Predicate<HardwareFlavor>() {
-      @Override
-      public boolean test(HardwareFlavor hardwareFlavor) {
-        return hardwareDomainRepository.findById(hardwareFlavor.id()) == null;
-      }
-    };
+  protected Class<HardwareFlavor> type() {
+    return HardwareFlavor.class;
+  }
+
+  @Override
+  protected String id(HardwareFlavor hardwareFlavor) {
+    return hardwareFlavor.id();
+  }
+
+  @Override
+  protected HardwareFlavor rescope(HardwareFlavor hardwareFlavor, CloudRescoper rescoper) {
+    return rescoper.hardware(hardwareFlavor);
+  }
+
+  @Override
+  protected String resourceName() {
+    return "hardware";
   }
 }
@@ -25,11 +25,17 @@ import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredImage;
 import io.github.cloudiator.domain.DiscoveryItemState;
 import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.iaas.discovery.state.ImageStateMachine;
+import io.github.cloudiator.messaging.ImageMessageToImageConverter;
 import io.github.cloudiator.persistance.CloudDomainRepository;
 import io.github.cloudiator.persistance.ImageDomainRepository;
-import io.github.cloudiator.persistance.MissingLocationException;
-import java.util.concurrent.ExecutionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,15 +48,18 @@ public class ImageDiscoveryListener implements DiscoveryListener {
   private final ImageDomainRepository imageDomainRepository;
   private final CloudDomainRepository cloudDomainRepository;
   private final ImageStateMachine imageStateMachine;
+  private final CatalogCache catalogCache;
 
   @Inject
   public ImageDiscoveryListener(
       ImageDomainRepository imageDomainRepository,
       CloudDomainRepository cloudDomainRepository,
-      ImageStateMachine imageStateMachine) {
+      ImageStateMachine imageStateMachine,
+      CatalogCache catalogCache) {
     this.imageDomainRepository = imageDomainRepository;
     this.cloudDomainRepository = cloudDomainRepository;
     this.imageStateMachine = imageStateMachine;
+    this.catalogCache = catalogCache;
   }
 
   @Override
@@ -67,10 +76,61 @@ public class ImageDiscoveryListener implements DiscoveryListener {
     final DiscoveredImage byId = imageDomainRepository.findById(image.id());
 
     if (byId != null) {
-      LOGGER.trace(String.format("Skipping image %s. Already exists.", image));
+      update(byId, image);
       return;
     }
 
+    final ExtendedCloud cloud = cloud(image);
+
+    DiscoveredImage discoveredImage = new DiscoveredImage(image, DiscoveryItemState.NEW,
+        cloud.userId());
+
+    imageDomainRepository.save(discoveredImage);
+    imageStateMachine.apply(discoveredImage, DiscoveryItemState.OK, new Object[0]);
+  }
+
+  /**
+   * Reads the existing images of the batch with one query and saves the new and changed ones
+   * together. New images are then moved to state OK one by one.
+   */
+  @Override
+  @Transactional
+  public void handleAll(List<Object> items) {
+
+    final Map<String, DiscoveredImage> existing = imageDomainRepository.findAllById(
+        items.stream().map(o -> ((Image) o).id()).collect(Collectors.toList())).stream()
+        .collect(Collectors.toMap(DiscoveredImage::id, Function.identity()));
+    final Map<String, ExtendedCloud> clouds = new HashMap<>();
+
+    final List<DiscoveredImage> created = new ArrayList<>();
+    final List<DiscoveredImage> updated = new ArrayList<>();
+    for (Object o : items) {
+      final Image image = (Image) o;
+      final DiscoveredImage byId = existing.get(image.id());
+      if (byId == null) {
+        final ExtendedCloud cloud = clouds
+            .computeIfAbsent(IdScopedByClouds.from(image.id()).cloudId(), k -> cloud(image));
+        created.add(new DiscoveredImage(image, DiscoveryItemState.NEW, cloud.userId()));
+      } else if (DiscoveryItemState.DISABLED.equals(byId.state())) {
+        update(byId, image);
+      } else {
+        updated.add(new DiscoveredImage(image, byId.state(), byId.userId()));
+      }
+    }
+
+    final List<DiscoveredImage> saved = new ArrayList<>(created);
+    saved.addAll(updated);
+    imageDomainRepository.saveAll(saved);
+    for (DiscoveredImage discovered : updated) {
+      catalogCache.images()
+          .put(discovered.userId(), ImageMessageToImageConverter.INSTANCE.applyBack(discovered));
+    }
+    for (DiscoveredImage discovered : created) {
+      imageStateMachine.apply(discovered, DiscoveryItemState.OK, new Object[0]);
+    }
+  }
+
+  private ExtendedCloud cloud(Image image) {
     final ExtendedCloud cloud = cloudDomainRepository
         .findById(IdScopedByClouds.from(image.id()).cloudId());
 
@@ -78,15 +138,38 @@ public class ImageDiscoveryListener implements DiscoveryListener {
       throw new IllegalStateException(
           String.format("Cloud for image %s is not available", image));
     }
+    return cloud;
+  }
 
-    DiscoveredImage discoveredImage = new DiscoveredImage(image, DiscoveryItemState.NEW,
-        cloud.userId());
+  private void update(DiscoveredImage existing, Image image) {
+
+    final DiscoveredImage updated = new DiscoveredImage(image, existing.state(),
+        existing.userId());
 
-    try {
-      imageDomainRepository.save(discoveredImage);
-      imageStateMachine.apply(discoveredImage, DiscoveryItemState.OK, new Object[0]);
-    } catch (MissingLocationException e) {
-      LOGGER.info("Skipping discovery of image %s as assigned location seems to be missing.", e);
+    if (DiscoveryItemState.DISABLED.equals(existing.state())) {
+      LOGGER.debug(String.format("Re-enabling image %s. It is offered again.", image));
+      imageStateMachine.apply(updated, DiscoveryItemState.OK, new Object[0]);
+      return;
     }
+
+    LOGGER.trace(String.format("Updating image %s. It already exists.", image));
+    imageDomainRepository.save(updated);
+    catalogCache.images()
+        .put(updated.userId(), ImageMessageToImageConverter.INSTANCE.applyBack(updated));
+  }
+
+  @Override
+  @Transactional
+  public void remove(String id) {
+
+    final DiscoveredImage byId = imageDomainRepository.findById(id);
+
+    if (byId == null || !DiscoveryItemState.OK.equals(byId.state())) {
+      LOGGER.trace(String.format("Skipping removal of image %s. Not in state OK.", id));
+      return;
+    }
+
+    LOGGER.debug(String.format("Disabling image %s. It is no longer offered.", id));
+    imageStateMachine.apply(byId, DiscoveryItemState.DISABLED, new Object[0]);
   }
 }
@@ -21,8 +21,8 @@ package io.github.cloudiator.iaas.discovery;
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.domain.Image;
 import de.uniulm.omi.cloudiator.sword.service.DiscoveryService;
+import io.github.cloudiator.domain.ExtendedCloud;
 import io.github.cloudiator.iaas.discovery.error.DiscoveryErrorHandler;
-import io.github.cloudiator.persistance.ImageDomainRepository;
 import java.util.function.Predicate;
 
 /**
@@ -30,14 +30,17 @@ import java.util.function.Predicate;
  */
 public class ImageDiscoveryWorker extends AbstractDiscoveryWorker<Image> {
 
-  private final ImageDomainRepository imageDomainRepository;
-
   @Inject
   public ImageDiscoveryWorker(DiscoveryQueue discoveryQueue,
-      DiscoveryService discoveryService, DiscoveryErrorHandler discoveryErrorHandler,
-      ImageDomainRepository imageDomainRepository) {
-    super(discoveryQueue, discoveryService, discoveryErrorHandler);
-    this.imageDomainRepository = imageDomainRepository;
+      DiscoveryServiceProvider discoveryServiceProvider,
+      CloudDiscoveryExecutor cloudDiscoveryExecutor, DiscoveryErrorHandler discoveryErrorHandler,
+      DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoverySchedule discoverySchedule, DiscoveryMetrics discoveryMetrics,
+      CloudCircuitBreaker cloudCircuitBreaker, DiscoveryMembership discoveryMembership,
+      DiscoveryContext discoveryContext) {
+    super(discoveryQueue, discoveryServiceProvider, cloudDiscoveryExecutor,
+        discoveryErrorHandler, discoveryFingerprintStore, discoverySchedule,
+        discoveryMetrics, cloudCircuitBreaker, discoveryMembership, discoveryContext);
   }
 
   @Override
@@ -46,12 +49,27 @@ public class ImageDiscoveryWorker extends AbstractDiscoveryWorker<Image> {
   }
 
   @Override
-  protected Predicate<Image> filter() {
-    return new Predicate<Image>() {
-      @Override
-      public boolean test(Image image) {
-        return imageDomainRepository.findById(image.id()) == null;
-      }
-    };
+  protected Predicate<Image> filter(ExtendedCloud cloud) {
+    return ImageFilter.of(cloud);
+  }
+
+  @Override
+  protected Class<Image> type() {
+    return Image.class;
+  }
+
+  @Override
+  protected String id(Image image) {
+    return image.id();
+  }
+
+  @Override
+  protected Image rescope(Image image, CloudRescoper rescoper) {
+    return rescoper.image(image);
+  }
+
+  @Override
+  protected String resourceName() {
+    return "images";
   }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Splitter;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Restricts the images discovered for a cloud.
+ *
+ * <p>The filter is configured using the following properties of the cloud configuration, all of
+ * them are optional and combined with a logical and:
+ * <ul>
+ * <li>{@code discovery.images.name}: a regular expression the image name has to match</li>
+ * <li>{@code discovery.images.providerId}: a regular expression the provider id has to match,
+ * e.g. to restrict images to an owner if the provider encodes it in the id</li>
+ * <li>{@code discovery.images.osFamily}: a comma separated list of operating system
+ * families</li>
+ * </ul>
+ *
+ * <p>Images not matching the filter are dropped before they reach the {@link DiscoveryQueue} and
+ * are removed from the catalog if they were discovered before.
+ */
+final class ImageFilter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImageFilter.class);
+  private static final String PROPERTY_PREFIX = "discovery.images.";
+  private static final String NAME = PROPERTY_PREFIX + "name";
+  private static final String PROVIDER_ID = PROPERTY_PREFIX + "providerId";
+  private static final String OS_FAMILY = PROPERTY_PREFIX + "osFamily";
+
+  private ImageFilter() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  /**
+   * @param cloud the cloud
+   * @return the image filter configured for the cloud
+   */
+  static Predicate<Image> of(ExtendedCloud cloud) {
+    checkNotNull(cloud, "cloud is null");
+
+    final Map<String, String> properties = cloud.configuration().properties().getProperties();
+    Predicate<Image> filter = image -> true;
+
+    final Pattern name = pattern(cloud, NAME, properties.get(NAME));
+    if (name != null) {
+      filter = filter.and(image -> image.name() != null && name.matcher(image.name()).matches());
+    }
+
+    final Pattern providerId = pattern(cloud, PROVIDER_ID, properties.get(PROVIDER_ID));
+    if (providerId != null) {
+      filter = filter.and(image -> providerId.matcher(image.providerId()).matches());
+    }
+
+    final String osFamily = properties.get(OS_FAMILY);
+    if (osFamily != null && !osFamily.trim().isEmpty()) {
+      final Set<String> families = Splitter.on(',').trimResults().omitEmptyStrings()
+          .splitToList(osFamily).stream().map(String::toUpperCase).collect(Collectors.toSet());
+      filter = filter.and(image -> image.operatingSystem() != null && families
+          .contains(image.operatingSystem().operatingSystemFamily().name()));
+    }
+
+    return filter;
+  }
+
+  private static Pattern pattern(ExtendedCloud cloud, String key, String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return Pattern.compile(value.trim());
+    } catch (PatternSyntaxException e) {
+      LOGGER.warn(String.format("Ignoring illegal value %s of property %s of cloud %s.", value,
+          key, cloud.id()));
+      return null;
+    }
+  }
+
+}
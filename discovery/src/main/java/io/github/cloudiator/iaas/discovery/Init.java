@@ -23,6 +23,7 @@ import com.google.inject.persist.PersistService;
 import de.uniulm.omi.cloudiator.sword.multicloud.service.CloudRegistry;
 import de.uniulm.omi.cloudiator.util.execution.ExecutionService;
 import io.github.cloudiator.persistance.CloudDomainRepository;
+import io.github.cloudiator.persistance.SchemaMigrator;
 import java.util.Set;
 
 /**
@@ -31,38 +32,52 @@ import java.util.Set;
 public class Init {
 
   private final PersistService persistService;
+  private final SchemaMigrator schemaMigrator;
   private final ExecutionService executionService;
   private final Set<AbstractDiscoveryWorker> discoveryWorkerSet;
   private final DiscoveryListenerWorker discoveryListenerWorker;
   private final CloudRegistry cloudRegistry;
   private final CloudDomainRepository cloudDomainRepository;
+  private final DiscoverySnapshot discoverySnapshot;
+  private final DiscoveryMembership discoveryMembership;
 
   @Inject
   Init(PersistService persistService,
+      SchemaMigrator schemaMigrator,
       ExecutionService executionService,
       Set<AbstractDiscoveryWorker> discoveryWorkerSet,
       DiscoveryListenerWorker discoveryListenerWorker,
       CloudRegistry cloudRegistry,
-      CloudDomainRepository cloudDomainRepository) {
+      CloudDomainRepository cloudDomainRepository,
+      DiscoverySnapshot discoverySnapshot,
+      DiscoveryMembership discoveryMembership) {
     this.persistService = persistService;
+    this.schemaMigrator = schemaMigrator;
     this.executionService = executionService;
     this.discoveryWorkerSet = discoveryWorkerSet;
     this.discoveryListenerWorker = discoveryListenerWorker;
     this.cloudRegistry = cloudRegistry;
     this.cloudDomainRepository = cloudDomainRepository;
+    this.discoverySnapshot = discoverySnapshot;
+    this.discoveryMembership = discoveryMembership;
 
     run();
   }
 
   private void run() {
     startPersistService();
-    runDiscoveryWorkers();
-    runDiscoveryListenerWorker();
+    //the first discovery run needs the registered clouds and the known catalog
     restoreCloudRegistry();
+    restoreDiscoverySnapshot();
+    joinDiscoveryMembership();
+    runDiscoveryListenerWorker();
+    runDiscoveryWorkers();
+    runDiscoverySnapshot();
   }
 
   private void startPersistService() {
     persistService.start();
+    schemaMigrator.migrate();
   }
 
   private void runDiscoveryWorkers() {
@@ -78,5 +93,24 @@ public class Init {
     cloudDomainRepository.findAll().forEach(cloudRegistry::register);
   }
 
+  private void restoreDiscoverySnapshot() {
+    discoverySnapshot.restore();
+  }
+
+  private void joinDiscoveryMembership() {
+    if (discoveryMembership.enabled()) {
+      //join synchronously, so that the first discovery run knows which clouds it owns
+      discoveryMembership.run();
+      executionService.schedule(discoveryMembership);
+      Runtime.getRuntime().addShutdownHook(new Thread(discoveryMembership::leave));
+    }
+  }
+
+  private void runDiscoverySnapshot() {
+    if (discoverySnapshot.enabled()) {
+      executionService.schedule(discoverySnapshot);
+    }
+  }
+
 
 }
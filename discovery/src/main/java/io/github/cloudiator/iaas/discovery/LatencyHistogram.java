@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram using buckets of powers of two.
+ *
+ * <p>Percentiles are reported as the upper bound of the bucket they fall into and therefore
+ * overestimate by at most a factor of two.
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKETS = 64;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  private static int bucket(long value) {
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket == 0) {
+      return 0;
+    }
+    return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  /**
+   * @param value the value to record, negative values are recorded as zero
+   */
+  public void record(long value) {
+    final long v = Math.max(0, value);
+    buckets.incrementAndGet(bucket(v));
+    count.increment();
+    sum.add(v);
+    max.accumulate(v);
+  }
+
+  public void recordNanos(long nanos) {
+    record(TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long mean() {
+    final long c = count.sum();
+    return c == 0 ? 0 : sum.sum() / c;
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * @param percentile the percentile between 0 and 1
+   * @return the approximated value of the percentile
+   */
+  public long percentile(double percentile) {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += buckets.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = (long) Math.ceil(percentile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max());
+      }
+    }
+    return max();
+  }
+
+  /**
+   * Writes the summary of this histogram into the given map.
+   *
+   * @param prefix the prefix of all keys
+   * @param target the map to write to
+   */
+  public void writeTo(String prefix, Map<String, Long> target) {
+    target.put(prefix + ".count", count());
+    target.put(prefix + ".mean", mean());
+    target.put(prefix + ".p50", percentile(0.5));
+    target.put(prefix + ".p95", percentile(0.95));
+    target.put(prefix + ".p99", percentile(0.99));
+    target.put(prefix + ".max", max());
+  }
+
+}
@@ -25,10 +25,11 @@ import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredLocation;
 import io.github.cloudiator.domain.DiscoveryItemState;
 import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.iaas.discovery.state.LocationStateMachine;
+import io.github.cloudiator.messaging.LocationMessageToLocationConverter;
 import io.github.cloudiator.persistance.CloudDomainRepository;
 import io.github.cloudiator.persistance.LocationDomainRepository;
-import io.github.cloudiator.persistance.MissingLocationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,15 +42,18 @@ public class LocationDiscoveryListener implements DiscoveryListener {
   private final LocationDomainRepository locationDomainRepository;
   private final LocationStateMachine locationStateMachine;
   private final CloudDomainRepository cloudDomainRepository;
+  private final CatalogCache catalogCache;
 
   @Inject
   public LocationDiscoveryListener(
       LocationDomainRepository locationDomainRepository,
       LocationStateMachine locationStateMachine,
-      CloudDomainRepository cloudDomainRepository) {
+      CloudDomainRepository cloudDomainRepository,
+      CatalogCache catalogCache) {
     this.locationDomainRepository = locationDomainRepository;
     this.locationStateMachine = locationStateMachine;
     this.cloudDomainRepository = cloudDomainRepository;
+    this.catalogCache = catalogCache;
   }
 
   @Override
@@ -65,7 +69,7 @@ public class LocationDiscoveryListener implements DiscoveryListener {
     final DiscoveredLocation byId = locationDomainRepository.findById(location.id());
 
     if (byId != null) {
-      LOGGER.trace(String.format("Skipping location %s. Already exists.", location));
+      update(byId, location);
       return;
     }
 
@@ -80,13 +84,39 @@ public class LocationDiscoveryListener implements DiscoveryListener {
     DiscoveredLocation discoveredLocation = new DiscoveredLocation(location,
         DiscoveryItemState.NEW, cloud.userId());
 
-    try {
-      locationDomainRepository.save(discoveredLocation);
-      locationStateMachine.apply(discoveredLocation, DiscoveryItemState.OK, new Object[0]);
-    } catch (MissingLocationException e) {
-      LOGGER.info(String
-              .format("Skipping discovery of location %s as assigned parent seems to be missing.", o),
-          e);
+    locationDomainRepository.save(discoveredLocation);
+    locationStateMachine.apply(discoveredLocation, DiscoveryItemState.OK, new Object[0]);
+  }
+
+  private void update(DiscoveredLocation existing, Location location) {
+
+    final DiscoveredLocation updated = new DiscoveredLocation(location, existing.state(),
+        existing.userId());
+
+    if (DiscoveryItemState.DISABLED.equals(existing.state())) {
+      LOGGER.debug(String.format("Re-enabling location %s. It is offered again.", location));
+      locationStateMachine.apply(updated, DiscoveryItemState.OK, new Object[0]);
+      return;
     }
+
+    LOGGER.trace(String.format("Updating location %s. It already exists.", location));
+    locationDomainRepository.save(updated);
+    catalogCache.locations()
+        .put(updated.userId(), LocationMessageToLocationConverter.INSTANCE.applyBack(updated));
+  }
+
+  @Override
+  @Transactional
+  public void remove(String id) {
+
+    final DiscoveredLocation byId = locationDomainRepository.findById(id);
+
+    if (byId == null || !DiscoveryItemState.OK.equals(byId.state())) {
+      LOGGER.trace(String.format("Skipping removal of location %s. Not in state OK.", id));
+      return;
+    }
+
+    LOGGER.debug(String.format("Disabling location %s. It is no longer offered.", id));
+    locationStateMachine.apply(byId, DiscoveryItemState.DISABLED, new Object[0]);
   }
 }
@@ -22,22 +22,23 @@ import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.domain.Location;
 import de.uniulm.omi.cloudiator.sword.service.DiscoveryService;
 import io.github.cloudiator.iaas.discovery.error.DiscoveryErrorHandler;
-import io.github.cloudiator.persistance.LocationDomainRepository;
-import java.util.function.Predicate;
 
 /**
  * Created by daniel on 01.06.17.
  */
 public class LocationDiscoveryWorker extends AbstractDiscoveryWorker<Location> {
 
-  private final LocationDomainRepository locationDomainRepository;
-
   @Inject
   public LocationDiscoveryWorker(DiscoveryQueue discoveryQueue,
-      DiscoveryService discoveryService, DiscoveryErrorHandler discoveryErrorHandler,
-      LocationDomainRepository locationDomainRepository) {
-    super(discoveryQueue, discoveryService, discoveryErrorHandler);
-    this.locationDomainRepository = locationDomainRepository;
+      DiscoveryServiceProvider discoveryServiceProvider,
+      CloudDiscoveryExecutor cloudDiscoveryExecutor, DiscoveryErrorHandler discoveryErrorHandler,
+      DiscoveryFingerprintStore discoveryFingerprintStore,
+      DiscoverySchedule discoverySchedule, DiscoveryMetrics discoveryMetrics,
+      CloudCircuitBreaker cloudCircuitBreaker, DiscoveryMembership discoveryMembership,
+      DiscoveryContext discoveryContext) {
+    super(discoveryQueue, discoveryServiceProvider, cloudDiscoveryExecutor,
+        discoveryErrorHandler, discoveryFingerprintStore, discoverySchedule,
+        discoveryMetrics, cloudCircuitBreaker, discoveryMembership, discoveryContext);
   }
 
   @Override
@@ -46,12 +47,22 @@ public class LocationDiscoveryWorker extends AbstractDiscoveryWorker<Location> {
   }
 
   @Override
-  protected Predicate<Location> filter() {
-    return new Predicate<Location>() {
-      @Override
-      public boolean test(Location location) {
-        return locationDomainRepository.findById(location.id()) == null;
-      }
-    };
+  protected Class<Location> type() {
+    return Location.class;
+  }
+
+  @Override
+  protected String id(Location location) {
+    return location.id();
+  }
+
+  @Override
+  protected Location rescope(Location location, CloudRescoper rescoper) {
+    return rescoper.location(location);
+  }
+
+  @Override
+  protected String resourceName() {
+    return "locations";
   }
 }
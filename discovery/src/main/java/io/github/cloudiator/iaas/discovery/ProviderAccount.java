@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Identifies the provider account of a cloud.
+ *
+ * <p>Clouds registered with the same api, endpoint, credential and configuration list exactly the
+ * same resources, regardless of the tenant that registered them. The credential only enters the
+ * key as part of a hash, so the key can safely be logged.
+ */
+final class ProviderAccount {
+
+  private ProviderAccount() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  /**
+   * @param cloud the cloud
+   * @return a key that is equal for all clouds sharing the same provider account
+   */
+  static String of(ExtendedCloud cloud) {
+    checkNotNull(cloud, "cloud is null");
+
+    final Hasher hasher = Hashing.sha256().newHasher();
+    put(hasher, cloud.api().providerName());
+    put(hasher, cloud.endpoint().orElse(""));
+    put(hasher, cloud.credential().user());
+    put(hasher, cloud.credential().password());
+    put(hasher, cloud.configuration().nodeGroup());
+    final Map<String, String> properties = new TreeMap<>(
+        cloud.configuration().properties().getProperties());
+    properties.forEach((key, value) -> {
+      put(hasher, key);
+      put(hasher, value);
+    });
+    return hasher.hash().toString();
+  }
+
+  private static void put(Hasher hasher, String value) {
+    //length prefix keeps adjacent fields apart
+    final String nonNull = value == null ? "" : value;
+    hasher.putInt(nonNull.length()).putString(nonNull, StandardCharsets.UTF_8);
+  }
+
+}
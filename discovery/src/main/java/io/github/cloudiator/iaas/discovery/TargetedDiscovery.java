@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.sword.domain.Location;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Discovers a single cloud immediately, e.g. after it was added.
+ *
+ * <p>Locations are discovered first, as hardware and images refer to them. Afterwards, hardware
+ * and images are discovered in parallel. All discoveries run ahead of periodic discoveries.
+ */
+@Singleton
+public class TargetedDiscovery {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TargetedDiscovery.class);
+  private final List<AbstractDiscoveryWorker> locationWorkers;
+  private final List<AbstractDiscoveryWorker> otherWorkers;
+  private final DiscoveryMembership discoveryMembership;
+
+  @Inject
+  public TargetedDiscovery(Set<AbstractDiscoveryWorker> discoveryWorkers,
+      DiscoveryMembership discoveryMembership) {
+    checkNotNull(discoveryWorkers, "discoveryWorkers is null");
+    checkNotNull(discoveryMembership, "discoveryMembership is null");
+    this.discoveryMembership = discoveryMembership;
+    this.locationWorkers = discoveryWorkers.stream()
+        .filter(TargetedDiscovery::discoversLocations).collect(Collectors.toList());
+    this.otherWorkers = discoveryWorkers.stream()
+        .filter(worker -> !discoversLocations(worker)).collect(Collectors.toList());
+  }
+
+  private static boolean discoversLocations(AbstractDiscoveryWorker<?> worker) {
+    return Location.class.isAssignableFrom(worker.type());
+  }
+
+  /**
+   * Starts the discovery of the cloud.
+   *
+   * @param cloud the cloud to discover
+   */
+  public void discover(ExtendedCloud cloud) {
+    checkNotNull(cloud, "cloud is null");
+
+    if (!discoveryMembership.owns(cloud)) {
+      LOGGER.debug(String.format("%s leaves discovery of cloud %s to its owner.", this,
+          cloud.id()));
+      return;
+    }
+
+    LOGGER.info(String.format("%s is starting immediate discovery of cloud %s.", this,
+        cloud.id()));
+
+    discover(cloud, locationWorkers, () -> discover(cloud, otherWorkers, () -> {
+    }));
+  }
+
+  private void discover(ExtendedCloud cloud, List<AbstractDiscoveryWorker> workers,
+      Runnable then) {
+    if (workers.isEmpty()) {
+      then.run();
+      return;
+    }
+    //run the follow up once all workers of this stage are done
+    final CountDown countDown = new CountDown(workers.size(), then);
+    for (AbstractDiscoveryWorker<?> worker : workers) {
+      worker.discoverNow(cloud, countDown);
+    }
+  }
+
+  private static class CountDown implements Runnable {
+
+    private final Runnable then;
+    private int remaining;
+
+    private CountDown(int count, Runnable then) {
+      this.remaining = count;
+      this.then = then;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (--remaining != 0) {
+          return;
+        }
+      }
+      then.run();
+    }
+  }
+
+}
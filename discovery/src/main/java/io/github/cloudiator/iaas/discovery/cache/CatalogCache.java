@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.iaas.discovery.DiscoveryContext;
+import io.github.cloudiator.persistance.AfterCommit;
+import org.cloudiator.messages.entities.IaasEntities;
+
+/**
+ * Holds the already converted catalog messages served by the query subscribers.
+ *
+ * <p>The catalogs are filled on first access and kept up to date by the state machines and
+ * discovery listeners. Changes made within a transaction are applied once it committed, see
+ * {@link AfterCommit}.
+ */
+@Singleton
+public class CatalogCache {
+
+  private final TenantCatalogCache<IaasEntities.Image> images;
+  private final TenantCatalogCache<IaasEntities.HardwareFlavor> hardware;
+  private final TenantCatalogCache<IaasEntities.Location> locations;
+  private final TenantCatalogCache<IaasEntities.Cloud> clouds;
+
+  @Inject
+  public CatalogCache(DiscoveryContext discoveryContext, AfterCommit afterCommit) {
+    checkNotNull(discoveryContext, "discoveryContext is null");
+    checkNotNull(afterCommit, "afterCommit is null");
+    final long maxItems = discoveryContext.cacheMaxItems();
+    final long expiry = discoveryContext.cacheExpiry();
+    this.images = new TenantCatalogCache<>(IaasEntities.Image::getId, afterCommit, maxItems,
+        expiry);
+    this.hardware = new TenantCatalogCache<>(IaasEntities.HardwareFlavor::getId, afterCommit,
+        maxItems, expiry);
+    this.locations = new TenantCatalogCache<>(IaasEntities.Location::getId, afterCommit,
+        maxItems, expiry);
+    this.clouds = new TenantCatalogCache<>(IaasEntities.Cloud::getId, afterCommit, maxItems,
+        expiry);
+  }
+
+  public TenantCatalogCache<IaasEntities.Image> images() {
+    return images;
+  }
+
+  public TenantCatalogCache<IaasEntities.HardwareFlavor> hardware() {
+    return hardware;
+  }
+
+  public TenantCatalogCache<IaasEntities.Location> locations() {
+    return locations;
+  }
+
+  public TenantCatalogCache<IaasEntities.Cloud> clouds() {
+    return clouds;
+  }
+
+  /**
+   * Drops all resource catalogs of the tenant, e.g. because one of its clouds was removed.
+   *
+   * @param tenant the tenant
+   */
+  public void invalidateResources(String tenant) {
+    images.invalidate(tenant);
+    hardware.invalidate(tenant);
+    locations.invalidate(tenant);
+  }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.iaas.discovery.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache holding the catalog of each tenant, keyed by the id of the items.
+ *
+ * <p>The catalogs of all tenants share one size bound; the least recently used catalogs are
+ * evicted first. Changes of single items are applied in place to cached catalogs. Changes for
+ * tenants whose catalog is currently loading prevent the loaded (and potentially outdated)
+ * catalog from being cached.
+ *
+ * <p>Changes are applied using the given executor, e.g. only after the transaction causing them
+ * committed. The weight of a catalog is updated after every change.
+ *
+ * <p>A catalog expires a fixed time after it was loaded, independent of the changes applied to
+ * it since. This bounds how long changes made by other agents (which are not seen by this cache)
+ * are missing from the cached catalog.
+ *
+ * @param <T> the type of the cached items
+ */
+public class TenantCatalogCache<T> {
+
+  private final Cache<String, Catalog<T>> cache;
+  private final Function<T, String> idFunction;
+  private final Executor changes;
+  private final Ticker ticker;
+  private final long expiry;
+  //tenant -> number of changes that hit a missing catalog, guarded by itself
+  private final Map<String, Long> generations = new HashMap<>();
+
+  private static class Catalog<T> {
+
+    private final Map<String, T> items = new ConcurrentHashMap<>();
+    private final long loaded;
+
+    private Catalog(long loaded) {
+      this.loaded = loaded;
+    }
+  }
+
+  TenantCatalogCache(Function<T, String> idFunction, Executor changes, long maxItems,
+      long expiry) {
+    this(idFunction, changes, maxItems, expiry, Ticker.systemTicker());
+  }
+
+  TenantCatalogCache(Function<T, String> idFunction, Executor changes, long maxItems,
+      long expiry, Ticker ticker) {
+    checkNotNull(idFunction, "idFunction is null");
+    checkNotNull(changes, "changes is null");
+    checkNotNull(ticker, "ticker is null");
+    this.idFunction = idFunction;
+    this.changes = changes;
+    this.ticker = ticker;
+    this.expiry = TimeUnit.SECONDS.toNanos(expiry);
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxItems)
+        .weigher((String tenant, Catalog<T> catalog) -> catalog.items.size() + 1)
+        .build();
+  }
+
+  /**
+   * Returns the catalog of the tenant, loading it if it is not cached.
+   *
+   * @param tenant the tenant
+   * @param loader loads the complete catalog of the tenant
+   * @return an unmodifiable view of the catalog keyed by item id
+   */
+  public Map<String, T> get(String tenant, Supplier<Collection<T>> loader) {
+    checkNotNull(tenant, "tenant is null");
+    checkNotNull(loader, "loader is null");
+
+    final Catalog<T> cached = cache.getIfPresent(tenant);
+    if (cached != null && ticker.read() - cached.loaded < expiry) {
+      return Collections.unmodifiableMap(cached.items);
+    }
+
+    final long generation;
+    synchronized (generations) {
+      if (cached != null && cache.getIfPresent(tenant) == cached) {
+        //changes during the reload have to hit a missing catalog
+        cache.invalidate(tenant);
+      }
+      generation = generations.getOrDefault(tenant, 0L);
+    }
+
+    final Catalog<T> loaded = new Catalog<>(ticker.read());
+    for (T item : loader.get()) {
+      loaded.items.put(idFunction.apply(item), item);
+    }
+
+    synchronized (generations) {
+      if (generation == generations.getOrDefault(tenant, 0L)) {
+        cache.put(tenant, loaded);
+      }
+    }
+    return Collections.unmodifiableMap(loaded.items);
+  }
+
+  /**
+   * Adds or replaces the item in the catalog of the tenant.
+   */
+  public void put(String tenant, T item) {
+    checkNotNull(tenant, "tenant is null");
+    checkNotNull(item, "item is null");
+    changes.execute(() -> modify(tenant, catalog -> catalog.put(idFunction.apply(item), item)));
+  }
+
+  /**
+   * Removes the item with the given id from the catalog of the tenant.
+   */
+  public void remove(String tenant, String id) {
+    checkNotNull(tenant, "tenant is null");
+    checkNotNull(id, "id is null");
+    changes.execute(() -> modify(tenant, catalog -> catalog.remove(id)));
+  }
+
+  /**
+   * Drops the catalog of the tenant, it is reloaded on the next access.
+   */
+  public void invalidate(String tenant) {
+    checkNotNull(tenant, "tenant is null");
+    changes.execute(() -> {
+      synchronized (generations) {
+        generations.merge(tenant, 1L, Long::sum);
+        cache.invalidate(tenant);
+      }
+    });
+  }
+
+  private void modify(String tenant, Consumer<Map<String, T>> modification) {
+    synchronized (generations) {
+      final Catalog<T> cached = cache.getIfPresent(tenant);
+      if (cached == null) {
+        generations.merge(tenant, 1L, Long::sum);
+      } else {
+        modification.accept(cached.items);
+        //the weight is only computed on put, evicts catalogs that outgrew the bound. The expiry
+        //is kept, as it is based on the time the catalog was loaded.
+        cache.put(tenant, cached);
+      }
+    }
+  }
+
+}
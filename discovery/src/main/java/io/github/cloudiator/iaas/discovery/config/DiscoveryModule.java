@@ -30,6 +30,7 @@ import de.uniulm.omi.cloudiator.util.execution.ExecutionService;
 import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
 import de.uniulm.omi.cloudiator.util.execution.ScheduledThreadPoolExecutorExecutionService;
 import io.github.cloudiator.iaas.discovery.AbstractDiscoveryWorker;
+import io.github.cloudiator.iaas.discovery.DiscoveryContext;
 import io.github.cloudiator.iaas.discovery.DiscoveryListener;
 import io.github.cloudiator.iaas.discovery.DiscoveryQueue;
 import io.github.cloudiator.iaas.discovery.HardwareDiscoveryListener;
@@ -48,6 +49,12 @@ import org.cloudiator.meta.cloudharmony.config.CloudHarmonyMetaModule;
  */
 public class DiscoveryModule extends AbstractModule {
 
+  private final DiscoveryContext discoveryContext;
+
+  public DiscoveryModule(DiscoveryContext discoveryContext) {
+    this.discoveryContext = discoveryContext;
+  }
+
   @Override
   protected void configure() {
     final MultiCloudService multiCloudService = MultiCloudBuilder.newBuilder()
@@ -58,6 +65,7 @@ public class DiscoveryModule extends AbstractModule {
     bind(ExecutionService.class).toInstance(
         new ScheduledThreadPoolExecutorExecutionService(
             new LoggingScheduledThreadPoolExecutor(10)));
+    bind(DiscoveryContext.class).toInstance(discoveryContext);
     bind(Init.class).asEagerSingleton();
     bind(DiscoveryQueue.class).in(Singleton.class);
     bind(DiscoveryErrorHandler.class).to(DiscoveryErrorHandlerImpl.class);
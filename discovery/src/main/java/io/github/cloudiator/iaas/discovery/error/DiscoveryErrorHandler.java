@@ -26,5 +26,7 @@ public interface DiscoveryErrorHandler {
 
   void report(String cloudId, Exception e);
 
+  void recovered(String cloudId);
+
 
 }
@@ -15,23 +15,38 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package io.github.cloudiator.iaas.discovery.error;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
 import de.uniulm.omi.cloudiator.sword.multicloud.exception.MultiCloudException;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
+import io.github.cloudiator.domain.CloudState;
 import io.github.cloudiator.domain.ExtendedCloud;
 import io.github.cloudiator.domain.ExtendedCloudBuilder;
 import io.github.cloudiator.iaas.discovery.CloudStateMachine;
 import io.github.cloudiator.persistance.CloudDomainRepository;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Moves clouds into and out of the error state.
+ *
+ * <p>Reports are handled asynchronously on a single thread, so that the discovery threads never
+ * wait for the database or the state machine.
+ */
+@Singleton
 public class DiscoveryErrorHandlerImpl implements DiscoveryErrorHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryErrorHandlerImpl.class);
   private final CloudDomainRepository cloudDomainRepository;
   private final CloudStateMachine cloudStateMachine;
+  private final ExecutorService executorService;
 
   @Inject
   public DiscoveryErrorHandlerImpl(
@@ -39,6 +54,15 @@ public class DiscoveryErrorHandlerImpl implements DiscoveryErrorHandler {
       CloudStateMachine cloudStateMachine) {
     this.cloudDomainRepository = cloudDomainRepository;
     this.cloudStateMachine = cloudStateMachine;
+    this.executorService = new LoggingThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>());
+    MoreExecutors.addDelayedShutdownHook(executorService, 1, TimeUnit.MINUTES);
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  ExtendedCloud findCloud(String cloudId) {
+    return cloudDomainRepository.findById(cloudId);
   }
 
   @Override
@@ -54,7 +78,20 @@ public class DiscoveryErrorHandlerImpl implements DiscoveryErrorHandler {
             String.format("%s received exception %s for cloud %s", this, e.getMessage(), cloudId),
             e);
 
-    final ExtendedCloud cloud = cloudDomainRepository.findById(cloudId);
+    executorService.execute(() -> fail(cloudId, e));
+  }
+
+  @Override
+  public void recovered(String cloudId) {
+
+    LOGGER.debug(String.format("%s received recovery of cloud %s", this, cloudId));
+
+    executorService.execute(() -> recover(cloudId));
+  }
+
+  private void fail(String cloudId, Exception e) {
+
+    final ExtendedCloud cloud = findCloud(cloudId);
 
     if (cloud == null) {
       LOGGER.warn(String
@@ -72,4 +109,21 @@ public class DiscoveryErrorHandlerImpl implements DiscoveryErrorHandler {
             e.getMessage()), e);
     cloudStateMachine.fail(cloudWithError, new Object[0], e);
   }
+
+  private void recover(String cloudId) {
+
+    final ExtendedCloud cloud = findCloud(cloudId);
+
+    if (cloud == null || !CloudState.ERROR.equals(cloud.state())) {
+      LOGGER.debug(String
+          .format("Ignoring recovery of cloud with id %s as it is no longer in error state.",
+              cloudId));
+      return;
+    }
+
+    LOGGER.info(String
+        .format("%s is setting cloud with id %s back to ok state as its discovery succeeded.",
+            this, cloudId));
+    cloudStateMachine.apply(cloud, CloudState.OK, new Object[0]);
+  }
 }
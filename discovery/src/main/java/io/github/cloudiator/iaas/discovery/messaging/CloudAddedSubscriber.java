@@ -23,6 +23,7 @@ import com.google.inject.persist.Transactional;
 import io.github.cloudiator.domain.CloudState;
 import io.github.cloudiator.domain.ExtendedCloud;
 import io.github.cloudiator.iaas.discovery.CloudStateMachine;
+import io.github.cloudiator.iaas.discovery.DiscoverySchedule;
 import io.github.cloudiator.messaging.CloudMessageToCloudConverter;
 import io.github.cloudiator.messaging.InitializeCloudFromNewCloud;
 import io.github.cloudiator.persistance.CloudDomainRepository;
@@ -45,14 +46,17 @@ public class CloudAddedSubscriber implements Runnable {
   private final MessageInterface messageInterface;
   private final CloudDomainRepository cloudDomainRepository;
   private final CloudStateMachine cloudStateMachine;
+  private final DiscoverySchedule discoverySchedule;
 
   @Inject
   public CloudAddedSubscriber(MessageInterface messageInterface,
       CloudDomainRepository cloudDomainRepository,
-      CloudStateMachine cloudStateMachine) {
+      CloudStateMachine cloudStateMachine,
+      DiscoverySchedule discoverySchedule) {
     this.messageInterface = messageInterface;
     this.cloudDomainRepository = cloudDomainRepository;
     this.cloudStateMachine = cloudStateMachine;
+    this.discoverySchedule = discoverySchedule;
   }
 
   @Override
@@ -78,6 +82,9 @@ public class CloudAddedSubscriber implements Runnable {
         return;
       }
 
+      //seed the schedule first, the state machine starts the targeted discovery of the cloud
+      discoverySchedule.cloudAdded(cloudToBeCreated.id());
+
       final ExtendedCloud createdCloud = cloudStateMachine
           .apply(cloudToBeCreated, CloudState.OK, new Object[0]);
 
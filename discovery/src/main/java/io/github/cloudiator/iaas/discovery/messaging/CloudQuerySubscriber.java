@@ -21,14 +21,17 @@ package io.github.cloudiator.iaas.discovery.messaging;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.inject.persist.Transactional;
-import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.CloudMessageToCloudConverter;
 import io.github.cloudiator.persistance.CloudDomainRepository;
+import java.util.Collection;
+import java.util.Map;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.cloudiator.messages.Cloud.CloudQueryRequest;
 import org.cloudiator.messages.Cloud.CloudQueryResponse;
 import org.cloudiator.messages.General.Error;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.MessageInterface;
 import org.cloudiator.messaging.Subscription;
 import org.slf4j.Logger;
@@ -43,14 +46,17 @@ public class CloudQuerySubscriber implements Runnable {
   private static final CloudMessageToCloudConverter CLOUD_CONVERTER = CloudMessageToCloudConverter.INSTANCE;
   private final MessageInterface messageInterface;
   private final CloudDomainRepository cloudDomainRepository;
+  private final CatalogCache catalogCache;
 
   @Inject
   public CloudQuerySubscriber(MessageInterface messageInterface,
-      CloudDomainRepository cloudDomainRepository) {
+      CloudDomainRepository cloudDomainRepository, CatalogCache catalogCache) {
     checkNotNull(cloudDomainRepository, "cloudDomainRepository is null");
     this.cloudDomainRepository = cloudDomainRepository;
     checkNotNull(messageInterface, "messageInterface is null");
     this.messageInterface = messageInterface;
+    checkNotNull(catalogCache, "catalogCache is null");
+    this.catalogCache = catalogCache;
   }
 
   @Override
@@ -90,9 +96,17 @@ public class CloudQuerySubscriber implements Runnable {
 
   @SuppressWarnings("WeakerAccess")
   @Transactional
-  void replyForUserIdAndCloudId(String requestId, String userId, String cloudId) {
-    final ExtendedCloud cloud = cloudDomainRepository
-        .findByUserAndId(userId, cloudId);
+  Collection<IaasEntities.Cloud> load(String userId) {
+    return cloudDomainRepository.findAll(userId).stream().map(CLOUD_CONVERTER::applyBack)
+        .collect(Collectors.toList());
+  }
+
+  private Map<String, IaasEntities.Cloud> catalog(String userId) {
+    return catalogCache.clouds().get(userId, () -> load(userId));
+  }
+
+  private void replyForUserIdAndCloudId(String requestId, String userId, String cloudId) {
+    final IaasEntities.Cloud cloud = catalog(userId).get(cloudId);
     if (cloud == null) {
       messageInterface.reply(CloudQueryResponse.class, requestId,
           Error.newBuilder().setCode(404)
@@ -100,18 +114,15 @@ public class CloudQuerySubscriber implements Runnable {
               .build());
     } else {
       CloudQueryResponse cloudQueryResponse = CloudQueryResponse.newBuilder()
-          .addClouds(CLOUD_CONVERTER.applyBack(cloud)).build();
+          .addClouds(cloud).build();
       messageInterface.reply(requestId, cloudQueryResponse);
     }
 
   }
 
-  @SuppressWarnings("WeakerAccess")
-  @Transactional
-  void replyForUserId(String requestId, String userId) {
+  private void replyForUserId(String requestId, String userId) {
     CloudQueryResponse cloudQueryResponse = CloudQueryResponse.newBuilder()
-        .addAllClouds(cloudDomainRepository.findAll(userId).stream().map(
-            CLOUD_CONVERTER::applyBack).collect(Collectors.toList())).build();
+        .addAllClouds(catalog(userId).values()).build();
     messageInterface.reply(requestId, cloudQueryResponse);
   }
 
@@ -18,8 +18,10 @@
 
 package io.github.cloudiator.iaas.discovery.messaging;
 
+import com.google.common.primitives.Ints;
 import com.google.inject.Inject;
-import io.github.cloudiator.iaas.discovery.AbstractDiscoveryWorker;
+import io.github.cloudiator.iaas.discovery.DiscoveryMetrics;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.cloudiator.messages.Discovery.DiscoverStatusResponse;
 import org.cloudiator.messages.Discovery.DiscoveryStatusRequest;
@@ -31,10 +33,13 @@ import org.cloudiator.messaging.Subscription;
 public class DiscoveryStatusSubscriber implements Runnable {
 
   private final MessageInterface messageInterface;
+  private final DiscoveryMetrics discoveryMetrics;
 
   @Inject
-  public DiscoveryStatusSubscriber(MessageInterface messageInterface) {
+  public DiscoveryStatusSubscriber(MessageInterface messageInterface,
+      DiscoveryMetrics discoveryMetrics) {
     this.messageInterface = messageInterface;
+    this.discoveryMetrics = discoveryMetrics;
   }
 
   @Override
@@ -44,7 +49,9 @@ public class DiscoveryStatusSubscriber implements Runnable {
             (requestId, discoveryStatusRequest) -> {
 
               try {
-                Map<String, Integer> status = AbstractDiscoveryWorker.DISCOVERY_STATUS;
+                Map<String, Integer> status = new LinkedHashMap<>();
+                discoveryMetrics.snapshot()
+                    .forEach((key, value) -> status.put(key, Ints.saturatedCast(value)));
 
                 final DiscoverStatusResponse discoverStatusResponse = DiscoverStatusResponse
                     .newBuilder()
@@ -18,15 +18,21 @@
 
 package io.github.cloudiator.iaas.discovery.messaging;
 
-import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
-import io.github.cloudiator.domain.DiscoveredHardware;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.HardwareMessageToHardwareConverter;
 import io.github.cloudiator.persistance.HardwareDomainRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.Hardware.HardwareQueryRequest;
 import org.cloudiator.messages.Hardware.HardwareQueryResponse;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.MessageInterface;
 import org.cloudiator.messaging.Subscription;
 import org.slf4j.Logger;
@@ -41,12 +47,15 @@ public class HardwareQuerySubscriber implements Runnable {
   private static final HardwareMessageToHardwareConverter HARDWARE_CONVERTER = HardwareMessageToHardwareConverter.INSTANCE;
   private final MessageInterface messageInterface;
   private final HardwareDomainRepository hardwareDomainRepository;
+  private final CatalogCache catalogCache;
 
   @Inject
   public HardwareQuerySubscriber(MessageInterface messageInterface,
-      HardwareDomainRepository hardwareDomainRepository) {
+      HardwareDomainRepository hardwareDomainRepository,
+      CatalogCache catalogCache) {
     this.messageInterface = messageInterface;
     this.hardwareDomainRepository = hardwareDomainRepository;
+    this.catalogCache = catalogCache;
   }
 
 
@@ -88,15 +97,26 @@ public class HardwareQuerySubscriber implements Runnable {
   }
 
 
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  Collection<IaasEntities.HardwareFlavor> load(String userId) {
+    final List<IaasEntities.HardwareFlavor> catalog = new ArrayList<>();
+    hardwareDomainRepository
+        .streamAll(userId, item -> catalog.add(HARDWARE_CONVERTER.applyBack(item)));
+    return catalog;
+  }
+
+  private Map<String, IaasEntities.HardwareFlavor> catalog(String userId) {
+    return catalogCache.hardware().get(userId, () -> load(userId));
+  }
+
   private void replyForUserIdAndHardwareId(String requestId, String userId, String hardwareId) {
-    final DiscoveredHardware hardwareFlavor = hardwareDomainRepository
-        .findByTenantAndId(userId, hardwareId);
+    final IaasEntities.HardwareFlavor hardwareFlavor = catalog(userId).get(hardwareId);
     if (hardwareFlavor == null) {
-
       messageInterface.reply(requestId, HardwareQueryResponse.newBuilder().build());
     } else {
       HardwareQueryResponse hardwareQueryResponse = HardwareQueryResponse.newBuilder()
-          .addHardwareFlavors(HARDWARE_CONVERTER.applyBack(hardwareFlavor)).build();
+          .addHardwareFlavors(hardwareFlavor).build();
       messageInterface.reply(requestId, hardwareQueryResponse);
     }
 
@@ -105,15 +125,15 @@ public class HardwareQuerySubscriber implements Runnable {
   private void replyForUserIdAndCloudId(String requestId, String userId, String cloudId) {
     HardwareQueryResponse hardwareQueryResponse = HardwareQueryResponse.newBuilder()
         .addAllHardwareFlavors(
-            hardwareDomainRepository.findByTenantAndCloud(userId, cloudId).stream().map(
-                HARDWARE_CONVERTER::applyBack).collect(Collectors.toList())).build();
+            catalog(userId).values().stream().filter(
+                hardware -> IdScopedByClouds.from(hardware.getId()).cloudId().equals(cloudId))
+                .collect(Collectors.toList())).build();
     messageInterface.reply(requestId, hardwareQueryResponse);
   }
 
   private void replyForUserId(String requestId, String userId) {
     HardwareQueryResponse hardwareQueryResponse = HardwareQueryResponse.newBuilder()
-        .addAllHardwareFlavors(hardwareDomainRepository.findAll(userId).stream().map(
-            HARDWARE_CONVERTER::applyBack).collect(Collectors.toList())).build();
+        .addAllHardwareFlavors(catalog(userId).values()).build();
     messageInterface.reply(requestId, hardwareQueryResponse);
   }
 
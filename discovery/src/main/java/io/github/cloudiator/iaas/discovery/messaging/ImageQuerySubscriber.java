@@ -19,14 +19,20 @@
 package io.github.cloudiator.iaas.discovery.messaging;
 
 import com.google.inject.Inject;
-import de.uniulm.omi.cloudiator.sword.domain.Image;
-import io.github.cloudiator.domain.DiscoveredImage;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.ImageMessageToImageConverter;
 import io.github.cloudiator.persistance.ImageDomainRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.Image.ImageQueryRequest;
 import org.cloudiator.messages.Image.ImageQueryResponse;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.MessageInterface;
 import org.cloudiator.messaging.Subscription;
 import org.slf4j.Logger;
@@ -41,12 +47,15 @@ public class ImageQuerySubscriber implements Runnable {
   private static final ImageMessageToImageConverter IMAGE_CONVERTER = ImageMessageToImageConverter.INSTANCE;
   private final MessageInterface messageInterface;
   private final ImageDomainRepository imageDomainRepository;
+  private final CatalogCache catalogCache;
 
   @Inject
   public ImageQuerySubscriber(MessageInterface messageInterface,
-      ImageDomainRepository imageDomainRepository) {
+      ImageDomainRepository imageDomainRepository,
+      CatalogCache catalogCache) {
     this.messageInterface = messageInterface;
     this.imageDomainRepository = imageDomainRepository;
+    this.catalogCache = catalogCache;
   }
 
   @Override
@@ -88,14 +97,26 @@ public class ImageQuerySubscriber implements Runnable {
   }
 
 
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  Collection<IaasEntities.Image> load(String userId) {
+    final List<IaasEntities.Image> catalog = new ArrayList<>();
+    imageDomainRepository
+        .streamAll(userId, item -> catalog.add(IMAGE_CONVERTER.applyBack(item)));
+    return catalog;
+  }
+
+  private Map<String, IaasEntities.Image> catalog(String userId) {
+    return catalogCache.images().get(userId, () -> load(userId));
+  }
+
   private void replyForUserIdAndImageId(String requestId, String userId, String imageId) {
-    final DiscoveredImage image = imageDomainRepository
-        .findByTenantAndId(userId, imageId);
+    final IaasEntities.Image image = catalog(userId).get(imageId);
     if (image == null) {
       messageInterface.reply(requestId, ImageQueryResponse.newBuilder().build());
     } else {
       ImageQueryResponse imageQueryResponse = ImageQueryResponse.newBuilder()
-          .addImages(IMAGE_CONVERTER.applyBack(image)).build();
+          .addImages(image).build();
       messageInterface.reply(requestId, imageQueryResponse);
     }
 
@@ -104,15 +125,15 @@ public class ImageQuerySubscriber implements Runnable {
   private void replyForUserIdAndCloudId(String requestId, String userId, String cloudId) {
     ImageQueryResponse imageQueryResponse = ImageQueryResponse.newBuilder()
         .addAllImages(
-            imageDomainRepository.findByTenantAndCloud(userId, cloudId).stream().map(
-                IMAGE_CONVERTER::applyBack).collect(Collectors.toList())).build();
+            catalog(userId).values().stream().filter(
+                image -> IdScopedByClouds.from(image.getId()).cloudId().equals(cloudId))
+                .collect(Collectors.toList())).build();
     messageInterface.reply(requestId, imageQueryResponse);
   }
 
   private void replyForUserId(String requestId, String userId) {
     ImageQueryResponse imageQueryResponse = ImageQueryResponse.newBuilder()
-        .addAllImages(imageDomainRepository.findAll(userId).stream().map(
-            IMAGE_CONVERTER::applyBack).collect(Collectors.toList())).build();
+        .addAllImages(catalog(userId).values()).build();
     messageInterface.reply(requestId, imageQueryResponse);
   }
 }
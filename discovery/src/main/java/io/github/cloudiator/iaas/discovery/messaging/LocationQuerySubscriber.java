@@ -19,13 +19,20 @@
 package io.github.cloudiator.iaas.discovery.messaging;
 
 import com.google.inject.Inject;
-import io.github.cloudiator.domain.DiscoveredLocation;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.LocationMessageToLocationConverter;
 import io.github.cloudiator.persistance.LocationDomainRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.Location.LocationQueryRequest;
 import org.cloudiator.messages.Location.LocationQueryResponse;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.MessageInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,12 +46,15 @@ public class LocationQuerySubscriber implements Runnable {
   private static final LocationMessageToLocationConverter LOCATION_CONVERTER = LocationMessageToLocationConverter.INSTANCE;
   private final MessageInterface messageInterface;
   private final LocationDomainRepository locationDomainRepository;
+  private final CatalogCache catalogCache;
 
   @Inject
   public LocationQuerySubscriber(MessageInterface messageInterface,
-      LocationDomainRepository locationDomainRepository) {
+      LocationDomainRepository locationDomainRepository,
+      CatalogCache catalogCache) {
     this.messageInterface = messageInterface;
     this.locationDomainRepository = locationDomainRepository;
+    this.catalogCache = catalogCache;
   }
 
 
@@ -87,14 +97,26 @@ public class LocationQuerySubscriber implements Runnable {
   }
 
 
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  Collection<IaasEntities.Location> load(String userId) {
+    final List<IaasEntities.Location> catalog = new ArrayList<>();
+    locationDomainRepository
+        .streamAll(userId, item -> catalog.add(LOCATION_CONVERTER.applyBack(item)));
+    return catalog;
+  }
+
+  private Map<String, IaasEntities.Location> catalog(String userId) {
+    return catalogCache.locations().get(userId, () -> load(userId));
+  }
+
   private void replyForUserIdAndLocationId(String requestId, String userId, String locationId) {
-    final DiscoveredLocation location = locationDomainRepository
-        .findByTenantAndId(userId, locationId);
+    final IaasEntities.Location location = catalog(userId).get(locationId);
     if (location == null) {
       messageInterface.reply(requestId, LocationQueryResponse.newBuilder().build());
     } else {
       LocationQueryResponse locationQueryResponse = LocationQueryResponse.newBuilder()
-          .addLocations(LOCATION_CONVERTER.applyBack(location)).build();
+          .addLocations(location).build();
       messageInterface.reply(requestId, locationQueryResponse);
     }
 
@@ -103,15 +125,15 @@ public class LocationQuerySubscriber implements Runnable {
   private void replyForUserIdAndCloudId(String requestId, String userId, String cloudId) {
     LocationQueryResponse locationQueryResponse = LocationQueryResponse.newBuilder()
         .addAllLocations(
-            locationDomainRepository.findByTenantAndCloud(userId, cloudId).stream().map(
-                LOCATION_CONVERTER::applyBack).collect(Collectors.toList())).build();
+            catalog(userId).values().stream().filter(
+                location -> IdScopedByClouds.from(location.getId()).cloudId().equals(cloudId))
+                .collect(Collectors.toList())).build();
     messageInterface.reply(requestId, locationQueryResponse);
   }
 
   private void replyForUserId(String requestId, String userId) {
     LocationQueryResponse locationQueryResponse = LocationQueryResponse.newBuilder()
-        .addAllLocations(locationDomainRepository.findAll(userId).stream().map(
-            LOCATION_CONVERTER::applyBack).collect(Collectors.toList())).build();
+        .addAllLocations(catalog(userId).values()).build();
     messageInterface.reply(requestId, locationQueryResponse);
   }
 }
@@ -29,10 +29,14 @@ import de.uniulm.omi.cloudiator.util.stateMachine.Transition.TransitionAction;
 import de.uniulm.omi.cloudiator.util.stateMachine.Transitions;
 import io.github.cloudiator.domain.DiscoveredHardware;
 import io.github.cloudiator.domain.DiscoveryItemState;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.DiscoveryItemStateConverter;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.messaging.HardwareMessageToHardwareConverter;
+import io.github.cloudiator.persistance.AfterCommit;
 import io.github.cloudiator.persistance.HardwareDomainRepository;
 import org.cloudiator.messages.Discovery.DiscoveryEvent;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.services.CloudService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,7 +52,10 @@ public class HardwareStateMachine implements
   @Inject
   public HardwareStateMachine(
       HardwareDomainRepository hardwareDomainRepository,
-      CloudService cloudService) {
+      CloudService cloudService,
+      EventPublisher eventPublisher,
+      AfterCommit afterCommit,
+      CatalogCache catalogCache) {
     this.hardwareDomainRepository = hardwareDomainRepository;
 
     //noinspection unchecked
@@ -56,7 +63,15 @@ public class HardwareStateMachine implements
         .addTransition(
             Transitions.<DiscoveredHardware, DiscoveryItemState>transitionBuilder()
                 .from(DiscoveryItemState.NEW)
-                .to(DiscoveryItemState.OK).action(newToOk()).build())
+                .to(DiscoveryItemState.OK).action(toOk()).build())
+        .addTransition(
+            Transitions.<DiscoveredHardware, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.OK)
+                .to(DiscoveryItemState.DISABLED).action(disable()).build())
+        .addTransition(
+            Transitions.<DiscoveredHardware, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.DISABLED)
+                .to(DiscoveryItemState.OK).action(toOk()).build())
         .errorTransition(
             Transitions.<DiscoveredHardware, DiscoveryItemState>errorTransitionBuilder()
                 .errorState(DiscoveryItemState.DISABLED)
@@ -69,12 +84,18 @@ public class HardwareStateMachine implements
 
           @Override
           public void post(DiscoveryItemState from, DiscoveredHardware object) {
-            cloudService.announceEvent(DiscoveryEvent.newBuilder().setFrom(
+            final IaasEntities.HardwareFlavor hardware =
+                HardwareMessageToHardwareConverter.INSTANCE.applyBack(object);
+            catalogCache.hardware().put(object.userId(), hardware);
+            final DiscoveryEvent discoveryEvent = DiscoveryEvent.newBuilder().setFrom(
                 DiscoveryItemStateConverter.INSTANCE.applyBack(from))
                 .setTo(DiscoveryItemStateConverter.INSTANCE.applyBack(object.state()))
-                .setHardwareFlavor(HardwareMessageToHardwareConverter.INSTANCE.applyBack(object))
+                .setHardwareFlavor(hardware)
                 .setUserId(object.userId())
-                .build());
+                .build();
+            //only announce the transition once it is committed
+            afterCommit.execute(() -> eventPublisher
+                .publish(object.id(), discoveryEvent, cloudService::announceEvent));
           }
         })
         .build();
@@ -87,7 +108,7 @@ public class HardwareStateMachine implements
     return discoveredHardware;
   }
 
-  private TransitionAction<DiscoveredHardware> newToOk() {
+  private TransitionAction<DiscoveredHardware> toOk() {
 
     return (o, arguments) -> {
       o.setState(DiscoveryItemState.OK);
@@ -96,6 +117,15 @@ public class HardwareStateMachine implements
     };
   }
 
+  private TransitionAction<DiscoveredHardware> disable() {
+
+    return (o, arguments) -> {
+      o.setState(DiscoveryItemState.DISABLED);
+      save(o);
+      return o;
+    };
+  }
+
   private ErrorTransitionAction<DiscoveredHardware> toDisabled() {
     return (o, arguments, t) -> {
       o.setState(DiscoveryItemState.DISABLED);
@@ -29,10 +29,14 @@ import de.uniulm.omi.cloudiator.util.stateMachine.Transition.TransitionAction;
 import de.uniulm.omi.cloudiator.util.stateMachine.Transitions;
 import io.github.cloudiator.domain.DiscoveredImage;
 import io.github.cloudiator.domain.DiscoveryItemState;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.DiscoveryItemStateConverter;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.messaging.ImageMessageToImageConverter;
+import io.github.cloudiator.persistance.AfterCommit;
 import io.github.cloudiator.persistance.ImageDomainRepository;
 import org.cloudiator.messages.Discovery.DiscoveryEvent;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.services.CloudService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,7 +52,10 @@ public class ImageStateMachine implements
   @Inject
   public ImageStateMachine(
       ImageDomainRepository imageDomainRepository,
-      CloudService cloudService) {
+      CloudService cloudService,
+      EventPublisher eventPublisher,
+      AfterCommit afterCommit,
+      CatalogCache catalogCache) {
     this.imageDomainRepository = imageDomainRepository;
 
     //noinspection unchecked
@@ -56,7 +63,15 @@ public class ImageStateMachine implements
         .addTransition(
             Transitions.<DiscoveredImage, DiscoveryItemState>transitionBuilder()
                 .from(DiscoveryItemState.NEW)
-                .to(DiscoveryItemState.OK).action(newToOk()).build())
+                .to(DiscoveryItemState.OK).action(toOk()).build())
+        .addTransition(
+            Transitions.<DiscoveredImage, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.OK)
+                .to(DiscoveryItemState.DISABLED).action(disable()).build())
+        .addTransition(
+            Transitions.<DiscoveredImage, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.DISABLED)
+                .to(DiscoveryItemState.OK).action(toOk()).build())
         .errorTransition(
             Transitions.<DiscoveredImage, DiscoveryItemState>errorTransitionBuilder()
                 .errorState(DiscoveryItemState.DISABLED)
@@ -69,12 +84,18 @@ public class ImageStateMachine implements
 
           @Override
           public void post(DiscoveryItemState from, DiscoveredImage object) {
-            cloudService.announceEvent(DiscoveryEvent.newBuilder().setFrom(
+            final IaasEntities.Image image = ImageMessageToImageConverter.INSTANCE
+                .applyBack(object);
+            catalogCache.images().put(object.userId(), image);
+            final DiscoveryEvent discoveryEvent = DiscoveryEvent.newBuilder().setFrom(
                 DiscoveryItemStateConverter.INSTANCE.applyBack(from))
                 .setTo(DiscoveryItemStateConverter.INSTANCE.applyBack(object.state()))
-                .setImage(ImageMessageToImageConverter.INSTANCE.applyBack(object))
+                .setImage(image)
                 .setUserId(object.userId())
-                .build());
+                .build();
+            //only announce the transition once it is committed
+            afterCommit.execute(() -> eventPublisher
+                .publish(object.id(), discoveryEvent, cloudService::announceEvent));
           }
         })
         .build();
@@ -87,7 +108,7 @@ public class ImageStateMachine implements
     return DiscoveredImage;
   }
 
-  private TransitionAction<DiscoveredImage> newToOk() {
+  private TransitionAction<DiscoveredImage> toOk() {
 
     return (o, arguments) -> {
       o.setState(DiscoveryItemState.OK);
@@ -96,6 +117,15 @@ public class ImageStateMachine implements
     };
   }
 
+  private TransitionAction<DiscoveredImage> disable() {
+
+    return (o, arguments) -> {
+      o.setState(DiscoveryItemState.DISABLED);
+      save(o);
+      return o;
+    };
+  }
+
   private ErrorTransitionAction<DiscoveredImage> toDisabled() {
     return (o, arguments, t) -> {
       o.setState(DiscoveryItemState.DISABLED);
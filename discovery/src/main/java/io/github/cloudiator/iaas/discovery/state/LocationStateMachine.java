@@ -29,10 +29,14 @@ import de.uniulm.omi.cloudiator.util.stateMachine.Transition.TransitionAction;
 import de.uniulm.omi.cloudiator.util.stateMachine.Transitions;
 import io.github.cloudiator.domain.DiscoveredLocation;
 import io.github.cloudiator.domain.DiscoveryItemState;
+import io.github.cloudiator.iaas.discovery.cache.CatalogCache;
 import io.github.cloudiator.messaging.DiscoveryItemStateConverter;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.messaging.LocationMessageToLocationConverter;
+import io.github.cloudiator.persistance.AfterCommit;
 import io.github.cloudiator.persistance.LocationDomainRepository;
 import org.cloudiator.messages.Discovery.DiscoveryEvent;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.services.CloudService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,7 +53,10 @@ public class LocationStateMachine implements
   @Inject
   public LocationStateMachine(
       LocationDomainRepository locationDomainRepository,
-      CloudService cloudService) {
+      CloudService cloudService,
+      EventPublisher eventPublisher,
+      AfterCommit afterCommit,
+      CatalogCache catalogCache) {
     this.locationDomainRepository = locationDomainRepository;
     this.cloudService = cloudService;
 
@@ -58,7 +65,15 @@ public class LocationStateMachine implements
         .addTransition(
             Transitions.<DiscoveredLocation, DiscoveryItemState>transitionBuilder()
                 .from(DiscoveryItemState.NEW)
-                .to(DiscoveryItemState.OK).action(newToOk()).build())
+                .to(DiscoveryItemState.OK).action(toOk()).build())
+        .addTransition(
+            Transitions.<DiscoveredLocation, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.OK)
+                .to(DiscoveryItemState.DISABLED).action(disable()).build())
+        .addTransition(
+            Transitions.<DiscoveredLocation, DiscoveryItemState>transitionBuilder()
+                .from(DiscoveryItemState.DISABLED)
+                .to(DiscoveryItemState.OK).action(toOk()).build())
         .errorTransition(
             Transitions.<DiscoveredLocation, DiscoveryItemState>errorTransitionBuilder()
                 .errorState(DiscoveryItemState.DISABLED)
@@ -71,12 +86,18 @@ public class LocationStateMachine implements
 
           @Override
           public void post(DiscoveryItemState from, DiscoveredLocation object) {
-            cloudService.announceEvent(DiscoveryEvent.newBuilder().setFrom(
+            final IaasEntities.Location location = LocationMessageToLocationConverter.INSTANCE
+                .applyBack(object);
+            catalogCache.locations().put(object.userId(), location);
+            final DiscoveryEvent discoveryEvent = DiscoveryEvent.newBuilder().setFrom(
                 DiscoveryItemStateConverter.INSTANCE.applyBack(from))
                 .setTo(DiscoveryItemStateConverter.INSTANCE.applyBack(object.state()))
-                .setLocation(LocationMessageToLocationConverter.INSTANCE.applyBack(object))
+                .setLocation(location)
                 .setUserId(object.userId())
-                .build());
+                .build();
+            //only announce the transition once it is committed
+            afterCommit.execute(() -> eventPublisher
+                .publish(object.id(), discoveryEvent, cloudService::announceEvent));
           }
         })
         .build();
@@ -89,7 +110,7 @@ public class LocationStateMachine implements
     return discoveredLocation;
   }
 
-  private TransitionAction<DiscoveredLocation> newToOk() {
+  private TransitionAction<DiscoveredLocation> toOk() {
 
     return (o, arguments) -> {
       o.setState(DiscoveryItemState.OK);
@@ -98,6 +119,15 @@ public class LocationStateMachine implements
     };
   }
 
+  private TransitionAction<DiscoveredLocation> disable() {
+
+    return (o, arguments) -> {
+      o.setState(DiscoveryItemState.DISABLED);
+      save(o);
+      return o;
+    };
+  }
+
   private ErrorTransitionAction<DiscoveredLocation> toDisabled() {
     return (o, arguments, t) -> {
       o.setState(DiscoveryItemState.DISABLED);
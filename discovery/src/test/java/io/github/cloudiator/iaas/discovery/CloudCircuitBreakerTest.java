@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import org.junit.Test;
+
+public class CloudCircuitBreakerTest {
+
+  private static final String IMAGES = "images";
+  private static final String HARDWARE = "hardware";
+
+  private final CloudCircuitBreaker breaker = new CloudCircuitBreaker(new DiscoveryContext(
+      ConfigFactory.parseMap(ImmutableMap.of(
+          "discovery.breaker.failureThreshold", 2,
+          "discovery.breaker.openDuration", 1,
+          "discovery.breaker.maxOpenDuration", 2))
+          .withFallback(ConfigFactory.defaultReference())));
+  private final ExtendedCloud cloud = Clouds.cloud("user");
+
+  private static void sleep(long seconds) throws InterruptedException {
+    Thread.sleep(seconds * 1000 + 100);
+  }
+
+  private void trip(ExtendedCloud cloud, String resource) {
+    assertThat(breaker.failure(cloud, resource), equalTo(false));
+    assertThat(breaker.failure(cloud, resource), equalTo(true));
+  }
+
+  @Test
+  public void opensAfterThreshold() {
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+    trip(cloud, IMAGES);
+
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(false));
+    //a tripped breaker is only reported once
+    assertThat(breaker.failure(cloud, IMAGES), equalTo(false));
+  }
+
+  @Test
+  public void successResetsFailures() {
+    breaker.failure(cloud, IMAGES);
+    assertThat(breaker.success(cloud, IMAGES), equalTo(false));
+    assertThat(breaker.failure(cloud, IMAGES), equalTo(false));
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void halfOpenAllowsSingleTrial() throws InterruptedException {
+    trip(cloud, IMAGES);
+    sleep(1);
+
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(false));
+    assertThat(breaker.success(cloud, IMAGES), equalTo(true));
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void failedTrialDoublesOpenDuration() throws InterruptedException {
+    trip(cloud, IMAGES);
+    sleep(1);
+
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+    assertThat(breaker.failure(cloud, IMAGES), equalTo(false));
+    sleep(1);
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(false));
+    sleep(1);
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void resourcesAreIsolated() {
+    trip(cloud, IMAGES);
+
+    assertThat(breaker.allow(cloud, HARDWARE), equalTo(true));
+    assertThat(breaker.allow(cloud, IMAGES), equalTo(false));
+  }
+
+  @Test
+  public void cloudInErrorStartsHalfOpen() {
+    final ExtendedCloud failed = Clouds.cloud("failed", CloudState.ERROR);
+
+    assertThat(breaker.allow(failed, IMAGES), equalTo(true));
+    assertThat(breaker.allow(failed, IMAGES), equalTo(false));
+    assertThat(breaker.allow(failed, HARDWARE), equalTo(true));
+
+    //recovered once all resources succeeded
+    assertThat(breaker.success(failed, IMAGES), equalTo(false));
+    assertThat(breaker.success(failed, HARDWARE), equalTo(true));
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import de.uniulm.omi.cloudiator.domain.LocationScope;
+import de.uniulm.omi.cloudiator.domain.OperatingSystems;
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavorBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import de.uniulm.omi.cloudiator.sword.domain.ImageBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.Location;
+import de.uniulm.omi.cloudiator.sword.domain.LocationBuilder;
+import org.junit.Test;
+
+public class CloudRescoperTest {
+
+  private static final String FROM = "from";
+  private static final String TO = "to";
+
+  private final CloudRescoper rescoper = new CloudRescoper(FROM, TO);
+
+  private static Location location(String id, Location parent) {
+    return LocationBuilder.newBuilder().id(FROM + "/" + id).providerId(id).name(id)
+        .scope(parent == null ? LocationScope.REGION : LocationScope.ZONE).assignable(true)
+        .parent(parent).build();
+  }
+
+  @Test
+  public void rescopesId() {
+    assertThat(rescoper.id("from/image"), equalTo("to/image"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectsIdOfOtherCloud() {
+    rescoper.id("fromage/image");
+  }
+
+  @Test
+  public void rescopesLocationAndParents() {
+    final Location zone = rescoper.location(location("zone", location("region", null)));
+
+    assertThat(zone.id(), equalTo("to/zone"));
+    assertThat(zone.providerId(), equalTo("zone"));
+    assertThat(zone.locationScope(), equalTo(LocationScope.ZONE));
+    assertThat(zone.parent().get().id(), equalTo("to/region"));
+  }
+
+  @Test
+  public void rescopesImage() {
+    final Image image = rescoper.image(ImageBuilder.newBuilder().id("from/image")
+        .providerId("image").name("ubuntu").os(OperatingSystems.unknown())
+        .location(location("region", null)).build());
+
+    assertThat(image.id(), equalTo("to/image"));
+    assertThat(image.providerId(), equalTo("image"));
+    assertThat(image.name(), equalTo("ubuntu"));
+    assertThat(image.location().get().id(), equalTo("to/region"));
+  }
+
+  @Test
+  public void rescopesHardware() {
+    final HardwareFlavor hardware = rescoper.hardware(HardwareFlavorBuilder.newBuilder()
+        .id("from/small").providerId("small").name("small").cores(2).mbRam(2048).gbDisk(20d)
+        .build());
+
+    assertThat(hardware.id(), equalTo("to/small"));
+    assertThat(hardware.numberOfCores(), equalTo(2));
+    assertThat(hardware.mbRam(), equalTo(2048L));
+    assertThat(hardware.gbDisk().get(), equalTo(20d));
+    assertThat(hardware.location().isPresent(), equalTo(false));
+  }
+}
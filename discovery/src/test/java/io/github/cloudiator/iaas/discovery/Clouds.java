@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import de.uniulm.omi.cloudiator.sword.domain.ApiBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.CloudType;
+import de.uniulm.omi.cloudiator.sword.domain.ConfigurationBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.CredentialsBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.PropertiesBuilder;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.domain.ExtendedCloudBuilder;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Builds clouds for tests.
+ */
+final class Clouds {
+
+  private Clouds() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  static ExtendedCloud cloud(String user) {
+    return cloud(user, "tenant", CloudState.OK, Collections.emptyMap());
+  }
+
+  static ExtendedCloud cloud(String user, CloudState state) {
+    return cloud(user, "tenant", state, Collections.emptyMap());
+  }
+
+  static ExtendedCloud cloud(String user, String tenant, CloudState state,
+      Map<String, String> properties) {
+    final PropertiesBuilder propertiesBuilder = PropertiesBuilder.newBuilder();
+    properties.forEach(propertiesBuilder::putProperty);
+    return ExtendedCloudBuilder.newBuilder()
+        .api(ApiBuilder.newBuilder().providerName("openstack4j").build())
+        .endpoint("https://cloud.example.com:5000/v2.0")
+        .credentials(CredentialsBuilder.newBuilder().user(user).password("secret").build())
+        .configuration(ConfigurationBuilder.newBuilder().nodeGroup("cloudiator")
+            .properties(propertiesBuilder.build()).build())
+        .cloudType(CloudType.PRIVATE).state(state).userId(tenant).build();
+  }
+
+}
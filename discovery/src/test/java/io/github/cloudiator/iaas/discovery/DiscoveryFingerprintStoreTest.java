@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import io.github.cloudiator.iaas.discovery.DiscoveryFingerprintStore.Delta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class DiscoveryFingerprintStoreTest {
+
+  private static final String CLOUD = "cloud";
+  private static final String IMAGE = CLOUD + "/image";
+  private static final String OTHER_IMAGE = CLOUD + "/other";
+
+  private final DiscoveryFingerprintStore store = new DiscoveryFingerprintStore();
+
+  @Test
+  public void seeReportsDelta() {
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 1, 1), equalTo(Delta.NEW));
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 1, 2), equalTo(Delta.UNCHANGED));
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 2, 3), equalTo(Delta.CHANGED));
+    //scopes are separated by type
+    assertThat(store.see(CLOUD, HardwareFlavor.class, IMAGE, 2, 3), equalTo(Delta.NEW));
+  }
+
+  @Test
+  public void sweepRemovesItemsNotSeen() {
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    store.see(CLOUD, Image.class, OTHER_IMAGE, 1, 1);
+    store.see(CLOUD, Image.class, IMAGE, 1, 2);
+
+    assertThat(store.sweep(CLOUD, Image.class, 2), contains(OTHER_IMAGE));
+    assertThat(store.sweep(CLOUD, Image.class, 2), empty());
+    assertThat(store.see(CLOUD, Image.class, OTHER_IMAGE, 1, 3), equalTo(Delta.NEW));
+  }
+
+  @Test
+  public void invalidateReportsItemAsNew() {
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    store.invalidate(Image.class, IMAGE);
+
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 1, 2), equalTo(Delta.NEW));
+  }
+
+  @Test
+  public void tombstoneReportsRemovalAgain() {
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    assertThat(store.sweep(CLOUD, Image.class, 2), contains(IMAGE));
+
+    store.tombstone(Image.class, IMAGE);
+    assertThat(store.sweep(CLOUD, Image.class, 3), contains(IMAGE));
+    assertThat(store.sweep(CLOUD, Image.class, 4), empty());
+  }
+
+  @Test
+  public void tombstoneOfReappearedItemReportsItemAsNew() {
+    store.tombstone(Image.class, IMAGE);
+
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 0, 1), equalTo(Delta.NEW));
+    assertThat(store.sweep(CLOUD, Image.class, 1), empty());
+  }
+
+  @Test
+  public void restoredItemIsUnchangedButSweptIfGone() {
+    store.restore(CLOUD, Image.class, IMAGE, 1);
+    store.restore(CLOUD, Image.class, OTHER_IMAGE, 1);
+
+    assertThat(store.see(CLOUD, Image.class, IMAGE, 1, 1), equalTo(Delta.UNCHANGED));
+    assertThat(store.sweep(CLOUD, Image.class, 1), contains(OTHER_IMAGE));
+  }
+
+  @Test
+  public void forEachVisitsCommittedItemsOnly() {
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    store.see(CLOUD, Image.class, OTHER_IMAGE, 2, 1);
+    store.commit(Discovery.of(Image.class, IMAGE, "image", 1));
+
+    final List<String> visited = new ArrayList<>();
+    store.forEach((cloudId, type, id, hash) -> visited.add(id));
+    assertThat(visited, contains(IMAGE));
+  }
+
+  @Test
+  public void committedRemovalIsNotVisited() {
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    store.commit(Discovery.of(Image.class, IMAGE, "image", 1));
+    store.commit(Discovery.removed(Image.class, IMAGE));
+
+    final List<String> visited = new ArrayList<>();
+    store.forEach((cloudId, type, id, hash) -> visited.add(id));
+    assertThat(visited, empty());
+  }
+
+  @Test
+  public void forEachVisitsRestoredItems() {
+    store.restore(CLOUD, Image.class, IMAGE, 1);
+
+    final List<Long> visited = new ArrayList<>();
+    store.forEach((cloudId, type, id, hash) -> visited.add(hash));
+    assertThat(visited, contains(1L));
+  }
+
+  @Test
+  public void retainForgetsOtherClouds() {
+    store.restore(CLOUD, Image.class, IMAGE, 1);
+    store.restore("other", Image.class, "other/image", 1);
+    store.retain(Collections.singleton(CLOUD));
+
+    final List<String> visited = new ArrayList<>();
+    store.forEach((cloudId, type, id, hash) -> visited.add(cloudId));
+    assertThat(visited, containsInAnyOrder(CLOUD));
+  }
+}
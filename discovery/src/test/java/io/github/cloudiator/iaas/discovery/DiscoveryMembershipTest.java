@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.persistance.DiscoveryMemberDomainRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class DiscoveryMembershipTest {
+
+  private static final List<ExtendedCloud> CLOUDS = new ArrayList<>();
+
+  static {
+    for (int i = 0; i < 100; i++) {
+      CLOUDS.add(Clouds.cloud("user" + i));
+    }
+  }
+
+  /**
+   * Reports a fixed list of live members instead of reading the heartbeats from the database.
+   */
+  private static class Members extends DiscoveryMemberDomainRepository {
+
+    private volatile List<String> alive = ImmutableList.of();
+
+    private Members() {
+      super(null);
+    }
+
+    @Override
+    public void heartbeat(String memberId, long now) {
+    }
+
+    @Override
+    public int expire(long before) {
+      return 0;
+    }
+
+    @Override
+    public void leave(String memberId) {
+      alive = alive.stream().filter(member -> !member.equals(memberId))
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> members(long since) {
+      return alive;
+    }
+  }
+
+  private final Members members = new Members();
+
+  private DiscoveryMembership member(String memberId, boolean enabled) {
+    return new DiscoveryMembership(members, new DiscoveryContext(
+        ConfigFactory.parseMap(ImmutableMap.of(
+            "discovery.shard.enabled", enabled,
+            "discovery.shard.memberId", memberId,
+            "discovery.shard.leaseDuration", 1))
+            .withFallback(ConfigFactory.defaultReference())));
+  }
+
+  private static int owned(DiscoveryMembership member) {
+    return (int) CLOUDS.stream().filter(member::owns).count();
+  }
+
+  private static void sleep() throws InterruptedException {
+    Thread.sleep(1100);
+  }
+
+  @Test
+  public void ownsEverythingIfDisabled() {
+    assertThat(owned(member("a", false)), equalTo(CLOUDS.size()));
+  }
+
+  @Test
+  public void disabledByDefault() {
+    assertThat(new DiscoveryContext(ConfigFactory.defaultReference()).shardEnabled(),
+        equalTo(false));
+  }
+
+  @Test
+  public void ownsNothingWithoutLease() {
+    assertThat(owned(member("a", true)), equalTo(0));
+  }
+
+  @Test
+  public void singleMemberOwnsEverythingOnStartup() {
+    final DiscoveryMembership a = member("a", true);
+    members.alive = ImmutableList.of("a");
+    a.run();
+
+    assertThat(owned(a), equalTo(CLOUDS.size()));
+  }
+
+  @Test
+  public void expiredLeaseOwnsNothing() throws InterruptedException {
+    final DiscoveryMembership a = member("a", true);
+    members.alive = ImmutableList.of("a");
+    a.run();
+    sleep();
+
+    assertThat(owned(a), equalTo(0));
+  }
+
+  @Test
+  public void rebalancesOnJoin() throws InterruptedException {
+    final DiscoveryMembership a = member("a", true);
+    members.alive = ImmutableList.of("a");
+    a.run();
+
+    final DiscoveryMembership b = member("b", true);
+    members.alive = ImmutableList.of("a", "b");
+    a.run();
+    b.run();
+
+    //a hands over immediately, b waits until a noticed the change
+    final int keptByA = owned(a);
+    assertThat(keptByA > 0 && keptByA < CLOUDS.size(), equalTo(true));
+    assertThat(owned(b), equalTo(0));
+
+    sleep();
+    a.run();
+    b.run();
+    for (ExtendedCloud cloud : CLOUDS) {
+      assertThat(a.owns(cloud) ^ b.owns(cloud), equalTo(true));
+    }
+    assertThat(owned(a), equalTo(keptByA));
+  }
+
+  @Test
+  public void onlyMovesCloudsOfJoiningMember() throws InterruptedException {
+    final DiscoveryMembership a = member("a", true);
+    final DiscoveryMembership b = member("b", true);
+    final DiscoveryMembership c = member("c", true);
+    members.alive = ImmutableList.of("a", "b");
+    a.run();
+    b.run();
+    sleep();
+    a.run();
+    b.run();
+    final List<ExtendedCloud> ownedByA = new ArrayList<>();
+    CLOUDS.stream().filter(a::owns).forEach(ownedByA::add);
+
+    members.alive = ImmutableList.of("a", "b", "c");
+    a.run();
+    b.run();
+    c.run();
+    sleep();
+    a.run();
+    b.run();
+    c.run();
+    for (ExtendedCloud cloud : CLOUDS) {
+      if (a.owns(cloud)) {
+        assertThat(ownedByA.contains(cloud), equalTo(true));
+      }
+      if (ownedByA.contains(cloud)) {
+        assertThat(a.owns(cloud) || c.owns(cloud), equalTo(true));
+      }
+    }
+  }
+
+  @Test
+  public void takesOverCloudsOfLeftMemberImmediately() throws InterruptedException {
+    final DiscoveryMembership a = member("a", true);
+    final DiscoveryMembership b = member("b", true);
+    members.alive = ImmutableList.of("a", "b");
+    a.run();
+    b.run();
+    sleep();
+    a.run();
+    b.run();
+
+    b.leave();
+    assertThat(owned(b), equalTo(0));
+    a.run();
+    assertThat(owned(a), equalTo(CLOUDS.size()));
+  }
+
+  @Test
+  public void ownsCloudsOfExpiredMemberImmediately() {
+    //the lease of a member which did not shut down cleanly is still alive on startup
+    final DiscoveryMembership a = member("a", true);
+    members.alive = ImmutableList.of("a", "ghost");
+    a.run();
+    assertThat(owned(a), equalTo(0));
+
+    members.alive = ImmutableList.of("a");
+    a.run();
+    assertThat(owned(a), equalTo(CLOUDS.size()));
+  }
+}
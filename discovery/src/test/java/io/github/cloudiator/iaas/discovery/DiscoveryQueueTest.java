@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+import de.uniulm.omi.cloudiator.sword.domain.HardwareFlavor;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class DiscoveryQueueTest {
+
+  private static List<String> ids(List<Discovery> discoveries) {
+    return discoveries.stream().map(Discovery::id).collect(Collectors.toList());
+  }
+
+  @Test
+  public void coalescesPendingDiscoveriesOfSameItem() throws InterruptedException {
+    final DiscoveryQueue queue = new DiscoveryQueue(10);
+    final Discovery first = Discovery.of(Image.class, "a", "first", 1);
+    final Discovery second = Discovery.of(Image.class, "b", "second", 2);
+    final Discovery replacement = Discovery.removed(Image.class, "a");
+
+    queue.add(first);
+    queue.add(second);
+    queue.add(replacement);
+
+    assertThat(queue.depth(), equalTo(2));
+    assertThat(queue.added(), equalTo(3L));
+    assertThat(queue.coalesced(), equalTo(1L));
+    assertThat(queue.coalesceRate(), equalTo(1d / 3));
+    //the replacement keeps the position of the replaced discovery
+    assertThat(queue.take(), sameInstance(replacement));
+    assertThat(queue.take(), sameInstance(second));
+  }
+
+  @Test
+  public void doesNotCoalesceDifferentTypes() {
+    final DiscoveryQueue queue = new DiscoveryQueue(10);
+    queue.add(Discovery.removed(Image.class, "a"));
+    queue.add(Discovery.removed(HardwareFlavor.class, "a"));
+
+    assertThat(queue.depth(), equalTo(2));
+    assertThat(queue.coalesced(), equalTo(0L));
+  }
+
+  @Test
+  public void drainRespectsMaxElementsAndTimeout() throws InterruptedException {
+    final DiscoveryQueue queue = new DiscoveryQueue(10);
+    queue.add(Discovery.removed(Image.class, "a"));
+    queue.add(Discovery.removed(Image.class, "b"));
+    queue.add(Discovery.removed(Image.class, "c"));
+
+    assertThat(ids(queue.drain(2, 0)), contains("a", "b"));
+    assertThat(ids(queue.drain(2, 10)), contains("c"));
+    assertThat(queue.depth(), equalTo(0));
+  }
+
+  @Test(timeout = 5000)
+  public void addBlocksWhileFull() throws InterruptedException {
+    final DiscoveryQueue queue = new DiscoveryQueue(1);
+    queue.add(Discovery.removed(Image.class, "a"));
+    //coalescing does not need capacity
+    queue.add(Discovery.removed(Image.class, "a"));
+
+    final CountDownLatch added = new CountDownLatch(1);
+    final Thread producer = new Thread(() -> {
+      queue.add(Discovery.removed(Image.class, "b"));
+      added.countDown();
+    });
+    producer.start();
+
+    assertThat(added.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+    assertThat(queue.take().id(), equalTo("a"));
+    assertThat(added.await(5, TimeUnit.SECONDS), equalTo(true));
+    assertThat(ids(queue.drain(10, 0)), contains("b"));
+    assertThat(queue.depth(), equalTo(0));
+    producer.join();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void capacityNeedsToBePositive() {
+    new DiscoveryQueue(0);
+  }
+
+  @Test
+  public void drainReturnsAtLeastOneDiscovery() throws InterruptedException {
+    final DiscoveryQueue queue = new DiscoveryQueue(10);
+    new Thread(() -> queue.add(Discovery.removed(Image.class, "a"))).start();
+
+    assertThat(queue.drain(10, 0), hasSize(1));
+  }
+}
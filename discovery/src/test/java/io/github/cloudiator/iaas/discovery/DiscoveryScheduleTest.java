@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import java.util.Collections;
+import org.junit.Test;
+
+public class DiscoveryScheduleTest {
+
+  private static final String IMAGES = "images";
+
+  private final DiscoverySchedule schedule = new DiscoverySchedule(new DiscoveryContext(
+      ConfigFactory.parseMap(ImmutableMap.of(
+          "discovery.schedule.initialInterval", 1,
+          "discovery.schedule.images.interval", 1,
+          "discovery.schedule.images.maxInterval", 4))
+          .withFallback(ConfigFactory.defaultReference())));
+  private final ExtendedCloud cloud = Clouds.cloud("user");
+
+  private static void sleep(long seconds) throws InterruptedException {
+    Thread.sleep(seconds * 1000 + 100);
+  }
+
+  @Test
+  public void unknownResourceIsDue() {
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void backsOffWhileUnchanged() throws InterruptedException {
+    schedule.completed(cloud, IMAGES, true);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(false));
+    sleep(1);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+
+    //doubled to two seconds
+    schedule.completed(cloud, IMAGES, false);
+    sleep(1);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(false));
+    sleep(1);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+
+    //a change falls back to the base interval
+    schedule.completed(cloud, IMAGES, true);
+    sleep(1);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void cloudPropertiesOverrideInterval() {
+    final ExtendedCloud slow = Clouds.cloud("slow", "tenant", CloudState.OK,
+        ImmutableMap.of("discovery.schedule.images.interval", "3600"));
+    schedule.completed(slow, IMAGES, true);
+
+    assertThat(schedule.isDue(slow.id(), IMAGES), equalTo(false));
+  }
+
+  @Test
+  public void addedCloudIsNotDueBeforeInitialInterval() throws InterruptedException {
+    schedule.cloudAdded(cloud.id());
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(false));
+    sleep(1);
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+  }
+
+  @Test
+  public void addedCloudKeepsCompletedSchedule() {
+    schedule.completed(cloud, IMAGES, true);
+    schedule.cloudAdded(cloud.id());
+    schedule.completed(cloud, IMAGES, false);
+
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(false));
+  }
+
+  @Test
+  public void retainForgetsOtherClouds() {
+    schedule.completed(cloud, IMAGES, true);
+    schedule.retain(Collections.emptySet());
+
+    assertThat(schedule.isDue(cloud.id(), IMAGES), equalTo(true));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigFactory;
+import de.uniulm.omi.cloudiator.sword.domain.Image;
+import io.github.cloudiator.iaas.discovery.DiscoveryFingerprintStore.Delta;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiscoverySnapshotTest {
+
+  private static final String CLOUD = "cloud";
+  private static final String IMAGE = CLOUD + "/image";
+  private static final String OTHER_IMAGE = CLOUD + "/other";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File file;
+
+  @Before
+  public void setUp() {
+    file = new File(folder.getRoot(), "discovery.snapshot");
+  }
+
+  private DiscoveryContext context(long maxAge) {
+    return new DiscoveryContext(ConfigFactory.parseMap(ImmutableMap.of(
+        "discovery.snapshot.file", file.getAbsolutePath(),
+        "discovery.snapshot.maxAge", maxAge))
+        .withFallback(ConfigFactory.defaultReference()));
+  }
+
+  private static DiscoveryFingerprintStore committedStore() {
+    final DiscoveryFingerprintStore store = new DiscoveryFingerprintStore();
+    store.see(CLOUD, Image.class, IMAGE, 1, 1);
+    store.see(CLOUD, Image.class, OTHER_IMAGE, 2, 1);
+    store.commit(Discovery.of(Image.class, IMAGE, "image", 1));
+    return store;
+  }
+
+  @Test
+  public void disabledByDefault() {
+    assertThat(new DiscoverySnapshot(new DiscoveryFingerprintStore(),
+        new DiscoveryContext(ConfigFactory.defaultReference())).enabled(), equalTo(false));
+  }
+
+  @Test
+  public void restoresCommittedFingerprints() throws IOException {
+    new DiscoverySnapshot(committedStore(), context(3600)).write();
+
+    final DiscoveryFingerprintStore restored = new DiscoveryFingerprintStore();
+    assertThat(new DiscoverySnapshot(restored, context(3600)).restore(), equalTo(1L));
+
+    final List<String> visited = new ArrayList<>();
+    restored.forEach((cloudId, type, id, hash) -> visited.add(id));
+    assertThat(visited, contains(IMAGE));
+    assertThat(restored.see(CLOUD, Image.class, IMAGE, 1, 1), equalTo(Delta.UNCHANGED));
+    //emitted but never persisted, hence emitted again
+    assertThat(restored.see(CLOUD, Image.class, OTHER_IMAGE, 2, 1), equalTo(Delta.NEW));
+  }
+
+  @Test
+  public void ignoresCorruptSnapshot() throws IOException {
+    new DiscoverySnapshot(committedStore(), context(3600)).write();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(raf.length() / 2);
+      final int value = raf.read();
+      raf.seek(raf.length() / 2);
+      raf.write(value ^ 0xFF);
+    }
+
+    final DiscoveryFingerprintStore restored = new DiscoveryFingerprintStore();
+    assertThat(new DiscoverySnapshot(restored, context(3600)).restore(), equalTo(0L));
+
+    final List<String> visited = new ArrayList<>();
+    restored.forEach((cloudId, type, id, hash) -> visited.add(id));
+    assertThat(visited, empty());
+  }
+
+  @Test
+  public void ignoresOutdatedSnapshot() throws IOException, InterruptedException {
+    new DiscoverySnapshot(committedStore(), context(0)).write();
+    Thread.sleep(10);
+
+    assertThat(new DiscoverySnapshot(new DiscoveryFingerprintStore(), context(0)).restore(),
+        equalTo(0L));
+  }
+
+  @Test
+  public void ignoresMissingSnapshot() {
+    assertThat(new DiscoverySnapshot(new DiscoveryFingerprintStore(), context(3600)).restore(),
+        equalTo(0L));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void emptyHistogramReportsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThat(histogram.count(), equalTo(0L));
+    assertThat(histogram.mean(), equalTo(0L));
+    assertThat(histogram.percentile(0.99), equalTo(0L));
+  }
+
+  @Test
+  public void percentilesAreUpperBoundsOfTheirBucket() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+
+    assertThat(histogram.count(), equalTo(100L));
+    assertThat(histogram.mean(), equalTo(50L));
+    assertThat(histogram.max(), equalTo(100L));
+    assertThat(histogram.percentile(0.01), equalTo(1L));
+    assertThat(histogram.percentile(0.5), equalTo(63L));
+    //capped by the maximum instead of the bucket bound 127
+    assertThat(histogram.percentile(0.95), equalTo(100L));
+  }
+
+  @Test
+  public void negativeValuesAreRecordedAsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    assertThat(histogram.count(), equalTo(1L));
+    assertThat(histogram.max(), equalTo(0L));
+    assertThat(histogram.percentile(1), equalTo(0L));
+  }
+
+  @Test
+  public void recordNanosRecordsMillis() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(5));
+
+    assertThat(histogram.max(), equalTo(5L));
+  }
+
+  @Test
+  public void writeToUsesPrefix() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(3);
+    final Map<String, Long> summary = new HashMap<>();
+    histogram.writeTo("handle", summary);
+
+    assertThat(summary, hasEntry("handle.count", 1L));
+    assertThat(summary, hasEntry("handle.p99", 3L));
+    assertThat(summary, hasEntry("handle.max", 3L));
+  }
+}
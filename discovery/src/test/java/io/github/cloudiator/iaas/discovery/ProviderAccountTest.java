@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.StringContains.containsString;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.cloudiator.domain.CloudState;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ProviderAccountTest {
+
+  @Test
+  public void ignoresTenantAndState() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user")),
+        equalTo(ProviderAccount.of(Clouds.cloud("user", "other", CloudState.ERROR,
+            Collections.emptyMap()))));
+  }
+
+  @Test
+  public void distinguishesCredentials() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user")),
+        not(equalTo(ProviderAccount.of(Clouds.cloud("other")))));
+  }
+
+  @Test
+  public void distinguishesConfiguration() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user")),
+        not(equalTo(ProviderAccount.of(Clouds.cloud("user", "tenant", CloudState.OK,
+            ImmutableMap.of("region", "eu"))))));
+  }
+
+  @Test
+  public void ignoresPropertyOrder() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user", "tenant", CloudState.OK,
+        ImmutableMap.of("a", "1", "b", "2"))),
+        equalTo(ProviderAccount.of(Clouds.cloud("user", "tenant", CloudState.OK,
+            ImmutableMap.of("b", "2", "a", "1")))));
+  }
+
+  @Test
+  public void keepsAdjacentFieldsApart() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user", "tenant", CloudState.OK,
+        ImmutableMap.of("ab", "c"))),
+        not(equalTo(ProviderAccount.of(Clouds.cloud("user", "tenant", CloudState.OK,
+            ImmutableMap.of("a", "bc"))))));
+  }
+
+  @Test
+  public void doesNotContainCredential() {
+    assertThat(ProviderAccount.of(Clouds.cloud("user")), not(containsString("secret")));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.iaas.discovery.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class TenantCatalogCacheTest {
+
+  private static final String TENANT = "tenant";
+
+  @Test
+  public void catalogIsLoadedOnce() {
+    final TenantCatalogCache<String> cache = new TenantCatalogCache<>(Function.identity(),
+        Runnable::run, 100, 600);
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(TENANT, () -> {
+      loads.incrementAndGet();
+      return Collections.singletonList("a");
+    });
+    cache.put(TENANT, "b");
+
+    assertThat(cache.get(TENANT, Collections::emptyList).keySet().size(), equalTo(2));
+    assertThat(loads.get(), equalTo(1));
+  }
+
+  @Test
+  public void catalogGrowingBeyondBoundIsEvicted() {
+    final TenantCatalogCache<String> cache = new TenantCatalogCache<>(Function.identity(),
+        Runnable::run, 10, 600);
+    cache.get(TENANT, () -> Collections.singletonList("a"));
+    for (int i = 0; i < 20; i++) {
+      cache.put(TENANT, "item" + i);
+    }
+
+    assertThat(cache.get(TENANT, Collections::emptyList).isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void changesAreAppliedByExecutor() {
+    final List<Runnable> deferred = new ArrayList<>();
+    final TenantCatalogCache<String> cache = new TenantCatalogCache<>(Function.identity(),
+        deferred::add, 100, 600);
+    cache.get(TENANT, () -> Collections.singletonList("a"));
+
+    cache.put(TENANT, "b");
+    cache.remove(TENANT, "a");
+    assertThat(cache.get(TENANT, Collections::emptyList), hasKey("a"));
+    assertThat(cache.get(TENANT, Collections::emptyList), not(hasKey("b")));
+
+    deferred.forEach(Runnable::run);
+    assertThat(cache.get(TENANT, Collections::emptyList), not(hasKey("a")));
+    assertThat(cache.get(TENANT, Collections::emptyList), hasKey("b"));
+  }
+
+  @Test
+  public void changeDuringLoadPreventsCaching() {
+    final TenantCatalogCache<String> cache = new TenantCatalogCache<>(Function.identity(),
+        Runnable::run, 100, 600);
+
+    cache.get(TENANT, () -> {
+      cache.put(TENANT, "b");
+      return Collections.singletonList("a");
+    });
+
+    assertThat(cache.get(TENANT, Collections::emptyList).isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void catalogExpiresAfterLoadDespiteChanges() {
+    final AtomicLong now = new AtomicLong();
+    final TenantCatalogCache<String> cache = new TenantCatalogCache<>(Function.identity(),
+        Runnable::run, 100, 600, new Ticker() {
+      @Override
+      public long read() {
+        return now.get();
+      }
+    });
+    final AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      cache.get(TENANT, () -> {
+        loads.incrementAndGet();
+        return Collections.singletonList("a");
+      });
+      now.addAndGet(TimeUnit.SECONDS.toNanos(300));
+      cache.put(TENANT, "item" + i);
+    }
+
+    assertThat(loads.get(), equalTo(2));
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.messaging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes events asynchronously, off the thread executing the state transition.
+ *
+ * <p>Events are distributed to a fixed number of lanes by their key, each lane is published by
+ * exactly one thread in the order the events were queued. Hence, all events of the same entity
+ * are published in order. A lane publishes all events queued while it was busy in one go, up to a
+ * batch size, instead of waking up for every single event.
+ *
+ * <p>If a lane is full, the caller is blocked until the lane has space again. On shutdown, the
+ * queued events are published for a short grace period.
+ */
+@Singleton
+public class EventPublisher implements EventPublisherMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventPublisher.class);
+  public static final String OBJECT_NAME = "io.github.cloudiator.messaging:type=EventPublisher";
+
+  private static final int DEFAULT_LANES = 4;
+  private static final int DEFAULT_CAPACITY = 10000;
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final long SHUTDOWN_GRACE_PERIOD = 10;
+
+  private static class Event {
+
+    private final String key;
+    private final Runnable publication;
+    private final long queued;
+
+    private Event(String key, Runnable publication) {
+      this.key = key;
+      this.publication = publication;
+      this.queued = System.nanoTime();
+    }
+  }
+
+  private final List<BlockingQueue<Event>> lanes;
+  private final int batchSize;
+  private final AtomicLong pending = new AtomicLong();
+  private final LongAdder published = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder latency = new LongAdder();
+  private final AtomicLong maxLatency = new AtomicLong();
+
+  @Inject
+  public EventPublisher() {
+    this(DEFAULT_LANES, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+  }
+
+  public EventPublisher(int lanes, int capacity, int batchSize) {
+    checkArgument(lanes > 0, "lanes must be positive");
+    checkArgument(capacity > 0, "capacity must be positive");
+    checkArgument(batchSize > 0, "batchSize must be positive");
+    this.batchSize = batchSize;
+    this.lanes = new ArrayList<>(lanes);
+
+    final ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true)
+        .setNameFormat("event-publisher-%d").build();
+    for (int i = 0; i < lanes; i++) {
+      final BlockingQueue<Event> lane = new LinkedBlockingQueue<>(capacity);
+      this.lanes.add(lane);
+      threadFactory.newThread(() -> drain(lane)).start();
+    }
+
+    Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "event-publisher-shutdown"));
+  }
+
+  /**
+   * Queues the event for publishing.
+   *
+   * @param key the key of the entity the event belongs to, events with the same key are published
+   * in order
+   * @param event the event
+   * @param announcer publishes the event, e.g. a method of a message service
+   * @param <E> the type of the event
+   */
+  public <E> void publish(String key, E event, Consumer<E> announcer) {
+    checkNotNull(key, "key is null");
+    checkNotNull(event, "event is null");
+    checkNotNull(announcer, "announcer is null");
+
+    final Event queued = new Event(key, () -> announcer.accept(event));
+    pending.incrementAndGet();
+    //an interrupted caller still queues the event, publishing it directly would overtake the
+    //queued events of the same entity. The interrupt flag is restored afterwards.
+    Uninterruptibles
+        .putUninterruptibly(lanes.get(Math.floorMod(key.hashCode(), lanes.size())), queued);
+  }
+
+  private void drain(BlockingQueue<Event> lane) {
+    final List<Event> batch = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(lane.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      lane.drainTo(batch, batchSize - 1);
+      batch.forEach(this::publish);
+      batch.clear();
+    }
+  }
+
+  private void publish(Event event) {
+    try {
+      event.publication.run();
+      published.increment();
+    } catch (Exception e) {
+      failed.increment();
+      LOGGER.error(String.format("%s failed to publish event for %s.", this, event.key), e);
+    } finally {
+      pending.decrementAndGet();
+      final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - event.queued);
+      latency.add(millis);
+      maxLatency.accumulateAndGet(millis, Math::max);
+    }
+  }
+
+  private void flush() {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_GRACE_PERIOD);
+    while (pending.get() > 0 && System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (pending.get() > 0) {
+      LOGGER.warn(String.format("%s is shutting down with %s unpublished events.", this,
+          pending.get()));
+    }
+  }
+
+  @Override
+  public long getQueueDepth() {
+    return pending.get();
+  }
+
+  @Override
+  public long getPublished() {
+    return published.sum();
+  }
+
+  @Override
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  @Override
+  public double getMeanPublishLatency() {
+    final long count = published.sum() + failed.sum();
+    return count == 0 ? 0 : (double) latency.sum() / count;
+  }
+
+  @Override
+  public long getMaxPublishLatency() {
+    return maxLatency.get();
+  }
+
+  /**
+   * Registers the publisher as MXBean under {@link #OBJECT_NAME}.
+   */
+  public void register() {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (!mBeanServer.isRegistered(objectName)) {
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (JMException e) {
+      LOGGER.warn(String.format("Could not register event publisher as %s.", OBJECT_NAME), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("lanes", lanes.size())
+        .add("pending", pending.get()).toString();
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.messaging;
+
+/**
+ * Exposes the metrics of the {@link EventPublisher} via JMX.
+ */
+public interface EventPublisherMXBean {
+
+  /**
+   * @return the number of events that were queued but not yet published.
+   */
+  long getQueueDepth();
+
+  long getPublished();
+
+  long getFailed();
+
+  /**
+   * @return the mean time in milliseconds from queueing an event until it was published.
+   */
+  double getMeanPublishLatency();
+
+  /**
+   * @return the maximum time in milliseconds from queueing an event until it was published.
+   */
+  long getMaxPublishLatency();
+
+}
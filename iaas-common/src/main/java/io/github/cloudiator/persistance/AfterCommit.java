@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Defers side effects of a transaction, e.g. events or cache updates, until it committed.
+ *
+ * <p>The owner of the outermost transaction opens a scope on its thread with {@link #begin()}
+ * and closes it with {@link #commit()} once the transaction committed or with {@link
+ * #rollback()} if it rolled back. All actions executed on the thread in between are run on
+ * commit or discarded on rollback. Actions executed outside of a scope are run immediately.
+ */
+@Singleton
+public class AfterCommit implements Executor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AfterCommit.class);
+
+  private final ThreadLocal<List<Runnable>> deferred = new ThreadLocal<>();
+
+  /**
+   * Opens a scope on the current thread.
+   */
+  public void begin() {
+    checkState(deferred.get() == null, "scope is already open");
+    deferred.set(new ArrayList<>());
+  }
+
+  @Override
+  public void execute(Runnable action) {
+    checkNotNull(action, "action is null");
+
+    final List<Runnable> actions = deferred.get();
+    if (actions == null) {
+      action.run();
+    } else {
+      actions.add(action);
+    }
+  }
+
+  /**
+   * Closes the scope of the current thread and runs its deferred actions in order.
+   */
+  public void commit() {
+    for (Runnable action : close()) {
+      try {
+        action.run();
+      } catch (Exception e) {
+        LOGGER.error(String.format("%s failed to run action %s after commit.", this, action), e);
+      }
+    }
+  }
+
+  /**
+   * Closes the scope of the current thread and discards its deferred actions.
+   */
+  public void rollback() {
+    final List<Runnable> discarded = close();
+    LOGGER.debug(String.format("%s discarded %s actions after rollback.", this,
+        discarded.size()));
+  }
+
+  private List<Runnable> close() {
+    final List<Runnable> actions = deferred.get();
+    checkState(actions != null, "no scope is open");
+    deferred.remove();
+    return actions;
+  }
+
+}
@@ -18,11 +18,17 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -35,6 +41,11 @@ import javax.persistence.Query;
 class BaseResourceRepositoryJpa<T extends ResourceModel>
     extends BaseModelRepositoryJpa<T> implements ResourceRepository<T> {
 
+  /**
+   * Maximum number of ids passed to a single in clause.
+   */
+  private static final int IN_CLAUSE_SIZE = 500;
+
   @Inject
   public BaseResourceRepositoryJpa(Provider<EntityManager> entityManager, TypeLiteral<T> type) {
     super(entityManager, type);
@@ -45,8 +56,11 @@ class BaseResourceRepositoryJpa<T extends ResourceModel>
   public T findByCloudUniqueId(String cloudUniqueId) {
     checkNotNull(cloudUniqueId, "cloudUniqueId is null");
     String queryString = String
-        .format("from %s where cloudUniqueId=:cloudUniqueId", type.getName());
-    Query query = em().createQuery(queryString).setParameter("cloudUniqueId", cloudUniqueId);
+        .format("from %s where cloudUniqueIdHash=:hash and cloudUniqueId=:cloudUniqueId",
+            type.getName());
+    Query query = em().createQuery(queryString)
+        .setParameter("hash", CloudUniqueIds.hash(cloudUniqueId))
+        .setParameter("cloudUniqueId", cloudUniqueId);
     try {
       //noinspection unchecked
       return (T) query.getSingleResult();
@@ -55,6 +69,24 @@ class BaseResourceRepositoryJpa<T extends ResourceModel>
     }
   }
 
+  @Override
+  public List<T> findByCloudUniqueIds(Collection<String> cloudUniqueIds) {
+    checkNotNull(cloudUniqueIds, "cloudUniqueIds is null");
+    String queryString = String
+        .format("from %s where cloudUniqueIdHash in :hashes and cloudUniqueId in :cloudUniqueIds",
+            type.getName());
+    final List<T> resources = new ArrayList<>(cloudUniqueIds.size());
+    for (List<String> chunk : Iterables.partition(cloudUniqueIds, IN_CLAUSE_SIZE)) {
+      Query query = em().createQuery(queryString)
+          .setParameter("hashes",
+              chunk.stream().map(CloudUniqueIds::hash).collect(Collectors.toSet()))
+          .setParameter("cloudUniqueIds", chunk);
+      //noinspection unchecked
+      resources.addAll((List<T>) query.getResultList());
+    }
+    return resources;
+  }
+
   @Override
   public List<T> findByTenant(String tenant) {
     checkNotNull(tenant, "tenant is null");
@@ -66,14 +98,41 @@ class BaseResourceRepositoryJpa<T extends ResourceModel>
     return (List<T>) query.getResultList();
   }
 
+  @Override
+  public void streamByTenant(String tenant, int pageSize, Consumer<T> consumer) {
+    checkNotNull(tenant, "tenant is null");
+    checkArgument(pageSize > 0, "pageSize needs to be positive");
+    checkNotNull(consumer, "consumer is null");
+    String queryString = String.format(
+        "select resource.id, resource from %s resource inner join resource.cloudModel cloud inner join cloud.tenantModel ct where ct.userId=:tenant and resource.id > :after order by resource.id",
+        type.getName());
+
+    long after = -1;
+    List<Object[]> page;
+    do {
+      Query query = em().createQuery(queryString).setParameter("tenant", tenant)
+          .setParameter("after", after).setMaxResults(pageSize);
+      //noinspection unchecked
+      page = (List<Object[]>) query.getResultList();
+      for (Object[] row : page) {
+        after = ((Number) row[0]).longValue();
+        //noinspection unchecked
+        final T resource = (T) row[1];
+        consumer.accept(resource);
+        em().detach(resource);
+      }
+    } while (page.size() == pageSize);
+  }
+
   @Override
   public T findByCloudUniqueIdAndTenant(String tenant, String cloudUniqueId) {
     checkNotNull(tenant, "tenant is null");
     checkNotNull(cloudUniqueId, "id is null");
     String queryString = String.format(
-        "select resource from %s resource inner join resource.cloudModel cloud inner join cloud.tenantModel ct where ct.userId=:tenant and resource.cloudUniqueId = :id",
+        "select resource from %s resource inner join resource.cloudModel cloud inner join cloud.tenantModel ct where ct.userId=:tenant and resource.cloudUniqueIdHash = :hash and resource.cloudUniqueId = :id",
         type.getName());
     Query query = em().createQuery(queryString).setParameter("tenant", tenant)
+        .setParameter("hash", CloudUniqueIds.hash(cloudUniqueId))
         .setParameter("id", cloudUniqueId);
     //noinspection unchecked
     try {
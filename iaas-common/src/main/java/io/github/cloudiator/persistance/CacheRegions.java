@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+/**
+ * Names of the query cache regions, configured in {@code hibernate-ehcache.xml}.
+ */
+final class CacheRegions {
+
+  /**
+   * Lookups of tenants.
+   */
+  static final String TENANT_QUERIES = "query.tenant";
+
+  private CacheRegions() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+}
@@ -23,17 +23,23 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 class CloudConfigurationModel extends Model {
 
   @Column(nullable = false, updatable = false)
   private String nodeGroup;
   @OneToMany(cascade = CascadeType.ALL, mappedBy = "cloudConfigurationModel")
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   private List<PropertyModel> properties;
 
   /**
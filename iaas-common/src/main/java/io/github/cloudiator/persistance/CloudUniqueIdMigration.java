@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static io.github.cloudiator.persistance.SchemaIndex.unique;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Migrates existing cloud unique ids to bounded, hash-indexed columns.
+ *
+ * <p>Cloud unique ids used to be stored as lobs. The schema update adds the hash columns, this
+ * migration fills the hash of all existing rows and creates the unique index on the hash. On
+ * MySQL and MariaDB, it additionally converts the remaining lob columns to bounded varchar
+ * columns, so that they can be compared and indexed efficiently.
+ */
+class CloudUniqueIdMigration implements SchemaMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudUniqueIdMigration.class);
+  private static final int BATCH_SIZE = 500;
+  private static final Map<Class<?>, SchemaIndex> INDEXES = ImmutableMap.of(
+      ImageModel.class, unique("uk_image_id_hash", "cloudUniqueIdHash"),
+      HardwareModel.class, unique("uk_hardware_id_hash", "cloudUniqueIdHash"),
+      LocationModel.class, unique("uk_location_id_hash", "cloudUniqueIdHash"),
+      VirtualMachineModel.class, unique("uk_vm_id_hash", "cloudUniqueIdHash"));
+
+  private final Provider<EntityManager> entityManager;
+  private final Schema schema;
+
+  @Inject
+  CloudUniqueIdMigration(Provider<EntityManager> entityManager, Schema schema) {
+    this.entityManager = entityManager;
+    this.schema = schema;
+  }
+
+  private EntityManager em() {
+    return entityManager.get();
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public String description() {
+    return "hash-indexed cloud unique ids";
+  }
+
+  @Override
+  public Set<Class<?>> entities() {
+    return INDEXES.keySet();
+  }
+
+  @Override
+  public List<SchemaIndex> indexes(Class<?> entity) {
+    return ImmutableList.of(INDEXES.get(entity));
+  }
+
+  @Override
+  public void apply(Class<?> entity) {
+    if (schema.mysql()) {
+      widen(entity, "cloudUniqueId", "varchar(" + CloudUniqueIds.MAX_LENGTH + ") not null");
+      if (VirtualMachineModel.class.equals(entity)) {
+        widen(entity, "cloudId", "varchar(255) not null");
+      }
+    }
+    long migrated = 0;
+    int batch;
+    do {
+      batch = hashBatch(entity);
+      migrated += batch;
+    } while (batch == BATCH_SIZE);
+    if (migrated > 0) {
+      LOGGER.info(String
+          .format("Migrated cloud unique ids of %s rows of %s.", migrated,
+              entity.getSimpleName()));
+    }
+    final SchemaIndex index = INDEXES.get(entity);
+    if (!schema.covers(entity, index)) {
+      schema.createIndex(entity, index);
+    }
+  }
+
+  private void widen(Class<?> entity, String column, String definition) {
+    final String type = schema.columnType(entity, column);
+    if (type == null || !type.toLowerCase().endsWith("text")) {
+      return;
+    }
+    LOGGER.info(String.format("Converting column %s of %s to %s.", column,
+        entity.getSimpleName(), definition));
+    schema.execute(String
+        .format("alter table %s modify %s %s", Schema.table(entity), column, definition));
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  int hashBatch(Class<?> entity) {
+    //noinspection unchecked
+    final List<Object[]> rows = em().createQuery(String.format(
+        "select e.id, e.cloudUniqueId from %s e where e.cloudUniqueIdHash is null order by e.id",
+        entity.getName())).setMaxResults(BATCH_SIZE).getResultList();
+    for (Object[] row : rows) {
+      em().createQuery(String
+          .format("update %s e set e.cloudUniqueIdHash = :hash where e.id = :id",
+              entity.getName()))
+          .setParameter("hash", CloudUniqueIds.hash((String) row[1]))
+          .setParameter("id", row[0]).executeUpdate();
+    }
+    return rows.size();
+  }
+
+}
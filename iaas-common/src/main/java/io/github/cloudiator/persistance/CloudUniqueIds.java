@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers for storing cloud unique ids.
+ *
+ * <p>Cloud unique ids are stored in bounded columns, but may still be too long to be indexed by
+ * every database. Lookups therefore use a fixed-width hash of the id, which is indexed, and
+ * compare the full id only for the matching rows.
+ */
+final class CloudUniqueIds {
+
+  /**
+   * The maximum length of a cloud unique id.
+   */
+  static final int MAX_LENGTH = 2048;
+
+  /**
+   * The length of the hex encoded hash of a cloud unique id.
+   */
+  static final int HASH_LENGTH = 64;
+
+  private CloudUniqueIds() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  static String hash(String cloudUniqueId) {
+    checkNotNull(cloudUniqueId, "cloudUniqueId is null");
+    return Hashing.sha256().hashString(cloudUniqueId, StandardCharsets.UTF_8).toString();
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.typesafe.config.Config;
+
+/**
+ * Configuration of the JDBC connection pool of an agent.
+ */
+public class ConnectionPoolContext {
+
+  private static final String JPA_POOL_SIZE = "jpa.pool.size";
+  private static final String JPA_POOL_MIN_IDLE = "jpa.pool.minIdle";
+  private static final String JPA_POOL_CONNECTION_TIMEOUT = "jpa.pool.connectionTimeout";
+  private static final String JPA_POOL_LEAK_DETECTION_THRESHOLD =
+      "jpa.pool.leakDetectionThreshold";
+  private static final String JPA_POOL_STATEMENT_CACHE_SIZE = "jpa.pool.statementCacheSize";
+
+  /**
+   * Connections in addition to the parallel requests, used by listeners and scheduled tasks.
+   */
+  private static final int HEADROOM = 5;
+
+  private final Config config;
+  private final int parallelism;
+
+  /**
+   * @param config the configuration
+   * @param parallelism the number of requests the agent processes in parallel, used to size the
+   * pool unless a size is configured
+   */
+  public ConnectionPoolContext(Config config, int parallelism) {
+    checkNotNull(config, "config is null");
+    checkArgument(parallelism >= 0, "parallelism must not be negative");
+    this.config = config;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return the maximum number of connections, either configured or derived from the parallelism
+   * of the agent
+   */
+  public int maximumPoolSize() {
+    final int size = config.getInt(JPA_POOL_SIZE);
+    if (size > 0) {
+      return size;
+    }
+    return parallelism + HEADROOM;
+  }
+
+  /**
+   * @return the minimum number of idle connections kept open
+   */
+  public int minimumIdle() {
+    return Math.min(config.getInt(JPA_POOL_MIN_IDLE), maximumPoolSize());
+  }
+
+  /**
+   * @return the maximum time in milliseconds to wait for a connection
+   */
+  public long connectionTimeout() {
+    return config.getLong(JPA_POOL_CONNECTION_TIMEOUT);
+  }
+
+  /**
+   * @return the time in milliseconds a connection may be borrowed before it is reported as a
+   * possible leak, 0 disables leak detection
+   */
+  public long leakDetectionThreshold() {
+    return config.getLong(JPA_POOL_LEAK_DETECTION_THRESHOLD);
+  }
+
+  /**
+   * @return the number of prepared statements cached per connection, 0 disables the cache
+   */
+  public int statementCacheSize() {
+    return config.getInt(JPA_POOL_STATEMENT_CACHE_SIZE);
+  }
+
+}
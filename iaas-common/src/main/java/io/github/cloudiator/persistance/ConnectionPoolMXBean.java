@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+/**
+ * Exposes the metrics of the JDBC connection pool via JMX.
+ */
+public interface ConnectionPoolMXBean {
+
+  int getActiveConnections();
+
+  int getIdleConnections();
+
+  int getTotalConnections();
+
+  int getMaxConnections();
+
+  /**
+   * @return the number of threads currently waiting for a connection
+   */
+  int getPendingThreads();
+
+  long getAcquired();
+
+  /**
+   * @return the number of requests that timed out waiting for a connection
+   */
+  long getTimeouts();
+
+  /**
+   * @return the mean time in milliseconds waited for a connection
+   */
+  double getMeanWaitTime();
+
+  /**
+   * @return the maximum time in milliseconds waited for a connection
+   */
+  double getMaxWaitTime();
+
+  /**
+   * @return the mean time in milliseconds a connection was borrowed
+   */
+  double getMeanUsageTime();
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the metrics of a connection pool and registers them via JMX once the pool was started.
+ */
+class ConnectionPoolMetrics implements MetricsTrackerFactory, ConnectionPoolMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolMetrics.class);
+  private static final String OBJECT_NAME =
+      "io.github.cloudiator.persistance:type=ConnectionPool,name=%s";
+
+  private volatile PoolStats poolStats;
+  private final LongAdder acquired = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder used = new LongAdder();
+  private final LongAdder usageMillis = new LongAdder();
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    this.poolStats = poolStats;
+    register(poolName);
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquired.increment();
+        waitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+      }
+
+      @Override
+      public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        used.increment();
+        usageMillis.add(elapsedBorrowedMillis);
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.increment();
+      }
+    };
+  }
+
+  private void register(String poolName) {
+    final String name = String.format(OBJECT_NAME, ObjectName.quote(poolName));
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = new ObjectName(name);
+      if (!mBeanServer.isRegistered(objectName)) {
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (JMException e) {
+      LOGGER.warn(String.format("Could not register connection pool metrics as %s.", name), e);
+    }
+  }
+
+  private static double millis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public int getActiveConnections() {
+    return poolStats == null ? 0 : poolStats.getActiveConnections();
+  }
+
+  @Override
+  public int getIdleConnections() {
+    return poolStats == null ? 0 : poolStats.getIdleConnections();
+  }
+
+  @Override
+  public int getTotalConnections() {
+    return poolStats == null ? 0 : poolStats.getTotalConnections();
+  }
+
+  @Override
+  public int getMaxConnections() {
+    return poolStats == null ? 0 : poolStats.getMaxConnections();
+  }
+
+  @Override
+  public int getPendingThreads() {
+    return poolStats == null ? 0 : poolStats.getPendingThreads();
+  }
+
+  @Override
+  public long getAcquired() {
+    return acquired.sum();
+  }
+
+  @Override
+  public long getTimeouts() {
+    return timeouts.sum();
+  }
+
+  @Override
+  public double getMeanWaitTime() {
+    final long count = acquired.sum();
+    return count == 0 ? 0 : millis(waitNanos.sum()) / count;
+  }
+
+  @Override
+  public double getMaxWaitTime() {
+    return millis(maxWaitNanos.get());
+  }
+
+  @Override
+  public double getMeanUsageTime() {
+    final long count = used.sum();
+    return count == 0 ? 0 : (double) usageMillis.sum() / count;
+  }
+
+}
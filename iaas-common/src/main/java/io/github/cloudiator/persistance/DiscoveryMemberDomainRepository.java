@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of the discovery agents sharing the discovery of all clouds.
+ *
+ * <p>Heartbeats are plain timestamps in milliseconds, the clocks of the agents are expected to be
+ * roughly synchronized compared to the lease duration.
+ */
+public class DiscoveryMemberDomainRepository {
+
+  private final DiscoveryMemberModelRepository discoveryMemberModelRepository;
+
+  @Inject
+  public DiscoveryMemberDomainRepository(
+      DiscoveryMemberModelRepository discoveryMemberModelRepository) {
+    this.discoveryMemberModelRepository = discoveryMemberModelRepository;
+  }
+
+  /**
+   * Renews the heartbeat of the member, registering it if it is not yet known.
+   *
+   * @param memberId the id of the member
+   * @param now the current time in milliseconds
+   */
+  public void heartbeat(String memberId, long now) {
+    checkNotNull(memberId, "memberId is null");
+    DiscoveryMemberModel model = discoveryMemberModelRepository.findByMemberId(memberId);
+    if (model == null) {
+      model = new DiscoveryMemberModel(memberId, now);
+    } else {
+      model.setHeartbeat(now);
+    }
+    discoveryMemberModelRepository.save(model);
+  }
+
+  /**
+   * Removes the lease of the member, e.g. when it shuts down, so that its clouds are taken over
+   * without waiting for the lease to expire.
+   *
+   * @param memberId the id of the member
+   */
+  public void leave(String memberId) {
+    checkNotNull(memberId, "memberId is null");
+    final DiscoveryMemberModel model = discoveryMemberModelRepository.findByMemberId(memberId);
+    if (model != null) {
+      discoveryMemberModelRepository.delete(model);
+    }
+  }
+
+  /**
+   * Removes all members whose heartbeat is older than the given time.
+   *
+   * @return the number of removed members
+   */
+  public int expire(long before) {
+    return discoveryMemberModelRepository.deleteExpired(before);
+  }
+
+  /**
+   * @param since the oldest heartbeat of a live member in milliseconds
+   * @return the ids of all live members, ordered by id
+   */
+  public List<String> members(long since) {
+    return discoveryMemberModelRepository.findAlive(since).stream()
+        .map(DiscoveryMemberModel::getMemberId).collect(Collectors.toList());
+  }
+
+}
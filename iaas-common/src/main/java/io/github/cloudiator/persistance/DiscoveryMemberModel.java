@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects.ToStringHelper;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+/**
+ * A discovery agent taking part in the sharded discovery. The agent is considered alive as long
+ * as it renews its heartbeat.
+ */
+@Entity
+class DiscoveryMemberModel extends Model {
+
+  @Column(nullable = false, unique = true, updatable = false)
+  private String memberId;
+
+  @Column(nullable = false)
+  private long heartbeat;
+
+  /**
+   * Empty constructor for hibernate.
+   */
+  protected DiscoveryMemberModel() {
+  }
+
+  public DiscoveryMemberModel(String memberId, long heartbeat) {
+    checkNotNull(memberId, "memberId is null");
+    checkArgument(!memberId.isEmpty(), "memberId is empty");
+    this.memberId = memberId;
+    this.heartbeat = heartbeat;
+  }
+
+  public String getMemberId() {
+    return memberId;
+  }
+
+  public long getHeartbeat() {
+    return heartbeat;
+  }
+
+  public void setHeartbeat(long heartbeat) {
+    this.heartbeat = heartbeat;
+  }
+
+  @Override
+  protected ToStringHelper stringHelper() {
+    return super.stringHelper().add("memberId", memberId).add("heartbeat", heartbeat);
+  }
+}
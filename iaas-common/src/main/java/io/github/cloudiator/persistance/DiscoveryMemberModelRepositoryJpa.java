@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+
+class DiscoveryMemberModelRepositoryJpa extends
+    BaseModelRepositoryJpa<DiscoveryMemberModel> implements DiscoveryMemberModelRepository {
+
+  @Inject
+  protected DiscoveryMemberModelRepositoryJpa(
+      Provider<EntityManager> entityManager,
+      TypeLiteral<DiscoveryMemberModel> type) {
+    super(entityManager, type);
+  }
+
+  @Override
+  @Nullable
+  public DiscoveryMemberModel findByMemberId(String memberId) {
+    checkNotNull(memberId, "memberId is null");
+    String query = String.format("from %s where memberId=:memberId", type.getName());
+    @SuppressWarnings("unchecked") List<DiscoveryMemberModel> models = em().createQuery(query)
+        .setParameter("memberId", memberId).getResultList();
+    if (models.isEmpty()) {
+      return null;
+    }
+    return models.get(0);
+  }
+
+  @Override
+  public List<DiscoveryMemberModel> findAlive(long since) {
+    String query = String
+        .format("from %s where heartbeat >= :since order by memberId", type.getName());
+    //noinspection unchecked
+    return em().createQuery(query).setParameter("since", since).getResultList();
+  }
+
+  @Override
+  public int deleteExpired(long before) {
+    String query = String.format("delete from %s where heartbeat < :before", type.getName());
+    return em().createQuery(query).setParameter("before", before).executeUpdate();
+  }
+}
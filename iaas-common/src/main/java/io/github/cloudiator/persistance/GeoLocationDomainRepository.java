@@ -18,6 +18,8 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import de.uniulm.omi.cloudiator.sword.domain.GeoLocation;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,26 +29,30 @@ public class GeoLocationDomainRepository {
 
   private static final GeoLocationConverter GEO_LOCATION_CONVERTER = new GeoLocationConverter();
   private final GeoLocationModelRepository geoLocationModelRepository;
+  private final ValueInterner valueInterner;
 
   @Inject
   public GeoLocationDomainRepository(
-      GeoLocationModelRepository geoLocationModelRepository) {
+      GeoLocationModelRepository geoLocationModelRepository,
+      ValueInterner valueInterner) {
     this.geoLocationModelRepository = geoLocationModelRepository;
+    this.valueInterner = valueInterner;
   }
 
   public void save(GeoLocation domain) {
     saveAndGet(domain);
   }
 
+  /**
+   * Returns the shared row of the geo location, creating it if it does not exist yet.
+   */
   GeoLocationModel saveAndGet(GeoLocation domain) {
-    final GeoLocationModel model = createModel(domain);
-    geoLocationModelRepository.save(model);
-    return model;
-  }
-
-  void update(GeoLocation domain, GeoLocationModel model) {
-    updateModel(domain, model);
-    geoLocationModelRepository.save(model);
+    checkNotNull(domain, "domain is null");
+    final String naturalKey = GeoLocationModel.naturalKey(domain.city().orElse(null),
+        domain.country().orElse(null), domain.latitude().orElse(null),
+        domain.longitude().orElse(null));
+    return valueInterner.intern(GeoLocationModel.class, naturalKey,
+        geoLocationModelRepository::findByNaturalKey, () -> createModel(domain));
   }
 
   private GeoLocationModel createModel(GeoLocation domain) {
@@ -61,12 +67,4 @@ public class GeoLocationDomainRepository {
         Collectors.toList());
   }
 
-
-  private void updateModel(GeoLocation domain, GeoLocationModel model) {
-    model.setCity(domain.city().orElse(null));
-    model.setCountry(domain.country().orElse(null));
-    model.setLocationLatitude(domain.latitude().orElse(null));
-    model.setLocationLongitude(domain.longitude().orElse(null));
-
-  }
 }
@@ -20,13 +20,23 @@ package io.github.cloudiator.persistance;
 
 import java.math.BigDecimal;
 import javax.annotation.Nullable;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
- * @todo we should probably normalize this table?
+ * A geo location, shared by all locations and nodes at the same place.
  */
 @Entity
-class GeoLocationModel extends Model {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+class GeoLocationModel extends Model implements ValueModel {
+
+  @Nullable
+  @Column(updatable = false, length = NaturalKeys.LENGTH)
+  private String naturalKey;
 
   @Nullable
   private String city;
@@ -52,6 +62,17 @@ class GeoLocationModel extends Model {
     this.country = country;
     this.locationLatitude = locationLatitude;
     this.locationLongitude = locationLongitude;
+    this.naturalKey = deriveNaturalKey();
+  }
+
+  static String naturalKey(@Nullable String city, @Nullable String country,
+      @Nullable BigDecimal locationLatitude, @Nullable BigDecimal locationLongitude) {
+    return NaturalKeys.of(city, country, locationLatitude, locationLongitude);
+  }
+
+  @Override
+  public String deriveNaturalKey() {
+    return naturalKey(city, country, locationLatitude, locationLongitude);
   }
 
   @Nullable
@@ -59,37 +80,17 @@ class GeoLocationModel extends Model {
     return city;
   }
 
-  public GeoLocationModel setCity(@Nullable String city) {
-    this.city = city;
-    return this;
-  }
-
   @Nullable
   public String getCountry() {
     return country;
   }
 
-  public GeoLocationModel setCountry(@Nullable String country) {
-    this.country = country;
-    return this;
-  }
-
   @Nullable
   public BigDecimal getLocationLatitude() {
     return locationLatitude;
   }
 
-  public GeoLocationModel setLocationLatitude(BigDecimal locationLatitude) {
-    this.locationLatitude = locationLatitude;
-    return this;
-  }
-
   public BigDecimal getLocationLongitude() {
     return locationLongitude;
   }
-
-  public GeoLocationModel setLocationLongitude(BigDecimal locationLongitude) {
-    this.locationLongitude = locationLongitude;
-    return this;
-  }
 }
@@ -18,7 +18,10 @@
 
 package io.github.cloudiator.persistance;
 
-interface GeoLocationModelRepository extends ModelRepository<GeoLocationModel> {
+import javax.annotation.Nullable;
 
+interface GeoLocationModelRepository extends ModelRepository<GeoLocationModel> {
 
+  @Nullable
+  GeoLocationModel findByNaturalKey(String naturalKey);
 }
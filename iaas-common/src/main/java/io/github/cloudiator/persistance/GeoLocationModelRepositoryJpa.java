@@ -18,10 +18,15 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.Query;
 
 class GeoLocationModelRepositoryJpa extends BaseModelRepositoryJpa<GeoLocationModel> implements
     GeoLocationModelRepository {
@@ -32,4 +37,18 @@ class GeoLocationModelRepositoryJpa extends BaseModelRepositoryJpa<GeoLocationMo
       TypeLiteral<GeoLocationModel> type) {
     super(entityManager, type);
   }
+
+  @Override
+  @Nullable
+  public GeoLocationModel findByNaturalKey(String naturalKey) {
+    checkNotNull(naturalKey, "naturalKey is null");
+    String queryString = String.format("from %s where naturalKey=:naturalKey", type.getName());
+    Query query = em().createQuery(queryString).setParameter("naturalKey", naturalKey);
+    try {
+      //noinspection unchecked
+      return (GeoLocationModel) query.getSingleResult();
+    } catch (NoResultException e) {
+      return null;
+    }
+  }
 }
@@ -18,12 +18,18 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredHardware;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -33,11 +39,13 @@ import javax.annotation.Nullable;
 public class HardwareDomainRepository {
 
   private static final HardwareConverter HARDWARE_CONVERTER = new HardwareConverter();
+  private static final int STREAM_PAGE_SIZE = 500;
   private final ResourceRepository<HardwareModel> hardwareModelRepository;
   private final CloudDomainRepository cloudDomainRepository;
   private final LocationDomainRepository locationDomainRepository;
   private final HardwareOfferModelRepository hardwareOfferModelRepository;
   private final LocationModelRepository locationModelRepository;
+  private final ValueInterner valueInterner;
 
   @Inject
   public HardwareDomainRepository(
@@ -45,12 +53,14 @@ public class HardwareDomainRepository {
       CloudDomainRepository cloudDomainRepository,
       LocationDomainRepository locationDomainRepository,
       HardwareOfferModelRepository hardwareOfferModelRepository,
-      LocationModelRepository locationModelRepository) {
+      LocationModelRepository locationModelRepository,
+      ValueInterner valueInterner) {
     this.hardwareModelRepository = hardwareModelRepository;
     this.cloudDomainRepository = cloudDomainRepository;
     this.locationDomainRepository = locationDomainRepository;
     this.hardwareOfferModelRepository = hardwareOfferModelRepository;
     this.locationModelRepository = locationModelRepository;
+    this.valueInterner = valueInterner;
   }
 
 
@@ -63,6 +73,16 @@ public class HardwareDomainRepository {
         .apply(hardwareModelRepository.findByCloudUniqueIdAndTenant(userId, hardwareId));
   }
 
+  /**
+   * @param ids the ids of the hardware flavors
+   * @return all existing hardware flavors with one of the given ids
+   */
+  public List<DiscoveredHardware> findAllById(Collection<String> ids) {
+    checkNotNull(ids, "ids is null");
+    return hardwareModelRepository.findByCloudUniqueIds(ids).stream()
+        .map(HARDWARE_CONVERTER::apply).collect(Collectors.toList());
+  }
+
   public List<DiscoveredHardware> findByTenantAndCloud(String tenantId, String cloudId) {
     return hardwareModelRepository.findByTenantAndCloud(tenantId, cloudId).stream()
         .map(HARDWARE_CONVERTER::apply).collect(Collectors.toList());
@@ -72,6 +92,36 @@ public class HardwareDomainRepository {
     saveAndGet(domain);
   }
 
+  /**
+   * Saves all hardware flavors within the current transaction.
+   *
+   * <p>The existing hardware flavors are read with one query, and their clouds are resolved once
+   * per cloud. This replaces one lookup per hardware flavor. The inserts and updates are sent in
+   * JDBC batches when the transaction is flushed.
+   *
+   * @param domains the hardware flavors to save
+   */
+  public void saveAll(Collection<DiscoveredHardware> domains) {
+    checkNotNull(domains, "domains is null");
+
+    final Map<String, HardwareModel> models = hardwareModelRepository.findByCloudUniqueIds(
+        domains.stream().map(DiscoveredHardware::id).collect(Collectors.toSet())).stream()
+        .collect(Collectors.toMap(HardwareModel::getCloudUniqueId, Function.identity()));
+    final Map<String, CloudModel> cloudModels = new HashMap<>();
+    for (DiscoveredHardware domain : domains) {
+      HardwareModel model = models.get(domain.id());
+      if (model == null) {
+        model = createModel(domain, cloudModels
+            .computeIfAbsent(IdScopedByClouds.from(domain.id()).cloudId(),
+                cloudDomainRepository::findModelById));
+        models.put(domain.id(), model);
+      } else {
+        updateModel(domain, model);
+      }
+      hardwareModelRepository.save(model);
+    }
+  }
+
   HardwareModel saveAndGet(DiscoveredHardware domain) {
 
     HardwareModel hardwareModel = hardwareModelRepository.findByCloudUniqueId(domain.id());
@@ -87,9 +137,11 @@ public class HardwareDomainRepository {
   }
 
   private HardwareModel createModel(DiscoveredHardware domain) {
-
     //get corresponding cloudModel
-    final CloudModel cloudModel = getCloudModel(domain.id());
+    return createModel(domain, getCloudModel(domain.id()));
+  }
+
+  private HardwareModel createModel(DiscoveredHardware domain, @Nullable CloudModel cloudModel) {
     checkState(cloudModel != null, String
         .format("Can not save hardwareFlavor %s as related cloudModel is missing.",
             domain));
@@ -117,17 +169,12 @@ public class HardwareDomainRepository {
   }
 
   private HardwareOfferModel getOrCreateHardwareOffer(DiscoveredHardware domain) {
-    //generate hardware offer
-    HardwareOfferModel hardwareOfferModel = hardwareOfferModelRepository
-        .findByCpuRamDisk(domain.numberOfCores(), domain.mbRam(),
-            domain.gbDisk().orElse(null));
-    if (hardwareOfferModel == null) {
-      hardwareOfferModel = new HardwareOfferModel(domain.numberOfCores(),
-          domain.mbRam(),
-          domain.gbDisk().orElse(null));
-    }
-    hardwareOfferModelRepository.save(hardwareOfferModel);
-    return hardwareOfferModel;
+    final String naturalKey = HardwareOfferModel.naturalKey(domain.numberOfCores(),
+        domain.mbRam(), domain.gbDisk().orElse(null));
+    return valueInterner.intern(HardwareOfferModel.class, naturalKey,
+        hardwareOfferModelRepository::findByNaturalKey,
+        () -> new HardwareOfferModel(domain.numberOfCores(), domain.mbRam(),
+            domain.gbDisk().orElse(null)));
   }
 
 
@@ -164,4 +211,18 @@ public class HardwareDomainRepository {
         HARDWARE_CONVERTER::apply).collect(Collectors.toList());
   }
 
+  /**
+   * Passes all hardware flavors of the user to the consumer, reading them in pages from the
+   * database.
+   *
+   * @param userId the user
+   * @param consumer the consumer of the hardware flavors
+   */
+  public void streamAll(String userId, Consumer<DiscoveredHardware> consumer) {
+    checkNotNull(userId, "userId is null");
+    checkNotNull(consumer, "consumer is null");
+    hardwareModelRepository.streamByTenant(userId, STREAM_PAGE_SIZE,
+        model -> consumer.accept(HARDWARE_CONVERTER.apply(model)));
+  }
+
 }
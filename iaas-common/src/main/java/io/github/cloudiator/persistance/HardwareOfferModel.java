@@ -20,14 +20,23 @@ package io.github.cloudiator.persistance;
 
 import java.util.List;
 import javax.annotation.Nullable;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 @Entity
-class HardwareOfferModel extends Model {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+class HardwareOfferModel extends Model implements ValueModel {
+
+  @Nullable
+  @Column(updatable = false, length = NaturalKeys.LENGTH)
+  private String naturalKey;
 
   @Column(nullable = false, updatable = false)
   private Integer numberOfCores;
@@ -49,6 +58,16 @@ class HardwareOfferModel extends Model {
     this.numberOfCores = numberOfCores;
     this.mbOfRam = mbOfRam;
     this.diskSpace = diskSpace;
+    this.naturalKey = deriveNaturalKey();
+  }
+
+  static String naturalKey(Integer numberOfCores, Long mbOfRam, @Nullable Double diskSpace) {
+    return NaturalKeys.of(numberOfCores, mbOfRam, diskSpace);
+  }
+
+  @Override
+  public String deriveNaturalKey() {
+    return naturalKey(numberOfCores, mbOfRam, diskSpace);
   }
 
   public Integer getNumberOfCores() {
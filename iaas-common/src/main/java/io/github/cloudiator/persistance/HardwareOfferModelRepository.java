@@ -25,7 +25,6 @@ import javax.annotation.Nullable;
  */
 interface HardwareOfferModelRepository extends ModelRepository<HardwareOfferModel> {
 
-  HardwareOfferModel findByCpuRamDisk(int numberOfCores, long mbOfRam, @Nullable Double diskSpace);
-
-
+  @Nullable
+  HardwareOfferModel findByNaturalKey(String naturalKey);
 }
@@ -18,6 +18,8 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
@@ -40,35 +42,16 @@ class HardwareOfferModelRepositoryJpa extends BaseModelRepositoryJpa<HardwareOff
   }
 
   @Override
-  public HardwareOfferModel findByCpuRamDisk(int numberOfCores, long mbOfRam,
-      @Nullable Double diskSpace) {
-    //todo: check correctness of query
-    String queryStringWithDiskSpace = String
-        .format(
-            "from %s where numberOfCores=:numberOfCores and mbOfRam=:mbOfRam and diskSpace=:diskSpace",
-            type.getName());
-    String queryStringWithOutDiskSpace = String
-        .format(
-            "from %s where numberOfCores=:numberOfCores and mbOfRam=:mbOfRam and diskSpace is null",
-            type.getName());
-
-    Query query;
-    if (diskSpace == null) {
-      query = em().createQuery(queryStringWithOutDiskSpace);
-    } else {
-      query = em().createQuery(queryStringWithDiskSpace);
-      query.setParameter("diskSpace", diskSpace);
-    }
-
-    query
-        .setParameter("numberOfCores", numberOfCores)
-        .setParameter("mbOfRam", mbOfRam);
+  @Nullable
+  public HardwareOfferModel findByNaturalKey(String naturalKey) {
+    checkNotNull(naturalKey, "naturalKey is null");
+    String queryString = String.format("from %s where naturalKey=:naturalKey", type.getName());
+    Query query = em().createQuery(queryString).setParameter("naturalKey", naturalKey);
     try {
       //noinspection unchecked
       return (HardwareOfferModel) query.getSingleResult();
     } catch (NoResultException e) {
       return null;
     }
-
   }
 }
@@ -25,7 +25,11 @@ import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredImage;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -35,6 +39,7 @@ import javax.annotation.Nullable;
 public class ImageDomainRepository {
 
   private static final ImageConverter IMAGE_CONVERTER = new ImageConverter();
+  private static final int STREAM_PAGE_SIZE = 500;
   private final ResourceRepository<ImageModel> imageModelRepository;
   private final LocationDomainRepository locationDomainRepository;
   private final CloudDomainRepository cloudDomainRepository;
@@ -62,6 +67,16 @@ public class ImageDomainRepository {
         .apply(imageModelRepository.findByCloudUniqueIdAndTenant(userId, imageId));
   }
 
+  /**
+   * @param ids the ids of the images
+   * @return all existing images with one of the given ids
+   */
+  public List<DiscoveredImage> findAllById(Collection<String> ids) {
+    checkNotNull(ids, "ids is null");
+    return imageModelRepository.findByCloudUniqueIds(ids).stream().map(IMAGE_CONVERTER)
+        .collect(Collectors.toList());
+  }
+
   public List<DiscoveredImage> findByTenantAndCloud(String tenantId, String cloudId) {
     return imageModelRepository.findByTenantAndCloud(tenantId, cloudId).stream()
         .map(IMAGE_CONVERTER).collect(Collectors.toList());
@@ -72,6 +87,34 @@ public class ImageDomainRepository {
     saveAndGet(domain);
   }
 
+  /**
+   * Saves all images within the current transaction.
+   *
+   * <p>The existing images are read with one query, and their clouds are resolved once per cloud.
+   * This replaces one lookup per image. The inserts and updates are sent in JDBC batches when the
+   * transaction is flushed.
+   *
+   * @param domains the images to save
+   */
+  public void saveAll(Collection<DiscoveredImage> domains) {
+    checkNotNull(domains, "domains is null");
+
+    final Map<String, ImageModel> models = imageModelRepository.findByCloudUniqueIds(
+        domains.stream().map(DiscoveredImage::id).collect(Collectors.toSet())).stream()
+        .collect(Collectors.toMap(ImageModel::getCloudUniqueId, Function.identity()));
+    final Map<String, CloudModel> cloudModels = new HashMap<>();
+    for (DiscoveredImage domain : domains) {
+      final ImageModel model = models.get(domain.id());
+      if (model == null) {
+        models.put(domain.id(), createModel(domain, cloudModels
+            .computeIfAbsent(IdScopedByClouds.from(domain.id()).cloudId(),
+                cloudDomainRepository::findModelById)));
+      } else {
+        updateModel(domain, model);
+      }
+    }
+  }
+
   ImageModel saveAndGet(DiscoveredImage domain) {
     checkNotNull(domain, "domain is null");
 
@@ -108,8 +151,10 @@ public class ImageDomainRepository {
   }
 
   private ImageModel createModel(DiscoveredImage domain) {
-    final CloudModel cloudModel = getCloudModel(domain.id());
+    return createModel(domain, getCloudModel(domain.id()));
+  }
 
+  private ImageModel createModel(DiscoveredImage domain, @Nullable CloudModel cloudModel) {
     checkState(cloudModel != null, String
         .format("Can not save image %s as related cloudModel is missing.",
             domain));
@@ -132,7 +177,8 @@ public class ImageDomainRepository {
 
     checkState(domain.id().equals(model.getCloudUniqueId()), "ids do not match");
 
-    operatingSystemDomainRepository.update(domain.operatingSystem(), model.operatingSystem());
+    model.setOperatingSystemModel(
+        operatingSystemDomainRepository.saveAndGet(domain.operatingSystem()));
     model.setState(domain.state());
     imageModelRepository.save(model);
   }
@@ -142,4 +188,17 @@ public class ImageDomainRepository {
     return imageModelRepository.findByTenant(userId).stream().map(IMAGE_CONVERTER)
         .collect(Collectors.toList());
   }
+
+  /**
+   * Passes all images of the user to the consumer, reading them in pages from the database.
+   *
+   * @param userId the user
+   * @param consumer the consumer of the images
+   */
+  public void streamAll(String userId, Consumer<DiscoveredImage> consumer) {
+    checkNotNull(userId, "userId is null");
+    checkNotNull(consumer, "consumer is null");
+    imageModelRepository.streamByTenant(userId, STREAM_PAGE_SIZE,
+        model -> consumer.accept(IMAGE_CONVERTER.apply(model)));
+  }
 }
@@ -28,9 +28,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
-import javax.persistence.OneToOne;
-import org.hibernate.annotations.Cascade;
-import org.hibernate.annotations.CascadeType;
+import javax.persistence.ManyToOne;
 
 @Entity
 class ImageModel extends ResourceModel implements LoginNameSupplier {
@@ -45,10 +43,9 @@ class ImageModel extends ResourceModel implements LoginNameSupplier {
   private DiscoveryItemState state;
 
   /**
-   * Owned relations
+   * Shared value, see {@link ValueModel}
    */
-  @OneToOne(optional = false, orphanRemoval = true)
-  @Cascade(CascadeType.DELETE)
+  @ManyToOne(optional = false)
   private OperatingSystemModel operatingSystemModel;
 
   /**
@@ -77,6 +74,12 @@ class ImageModel extends ResourceModel implements LoginNameSupplier {
     return operatingSystemModel;
   }
 
+  public ImageModel setOperatingSystemModel(OperatingSystemModel operatingSystemModel) {
+    checkNotNull(operatingSystemModel, "operatingSystemModel is null");
+    this.operatingSystemModel = operatingSystemModel;
+    return this;
+  }
+
   @Override
   public String loginName() {
     if (loginUsernameOverride != null) {
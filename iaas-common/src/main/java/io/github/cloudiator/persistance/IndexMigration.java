@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableListMultimap;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A migration creating a fixed set of indexes. Indexes already covered by an existing index are
+ * skipped.
+ */
+abstract class IndexMigration implements SchemaMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexMigration.class);
+
+  private final Schema schema;
+  private final int version;
+  private final String description;
+  private final ImmutableListMultimap<Class<?>, SchemaIndex> indexes;
+
+  IndexMigration(Schema schema, int version, String description,
+      ImmutableListMultimap<Class<?>, SchemaIndex> indexes) {
+    checkNotNull(schema, "schema is null");
+    checkArgument(version > 0, "version needs to be positive");
+    checkNotNull(description, "description is null");
+    checkNotNull(indexes, "indexes is null");
+    this.schema = schema;
+    this.version = version;
+    this.description = description;
+    this.indexes = indexes;
+  }
+
+  @Override
+  public int version() {
+    return version;
+  }
+
+  @Override
+  public String description() {
+    return description;
+  }
+
+  @Override
+  public Set<Class<?>> entities() {
+    return indexes.keySet();
+  }
+
+  @Override
+  public void apply(Class<?> entity) {
+    for (SchemaIndex index : indexes(entity)) {
+      if (schema.covers(entity, index)) {
+        LOGGER.debug(String
+            .format("Index %s of %s is already covered. Skipping.", index.name(),
+                Schema.table(entity)));
+        continue;
+      }
+      LOGGER.info(String.format("Creating index %s on %s%s.", index.name(), Schema.table(entity),
+          index.columns()));
+      schema.createIndex(entity, index);
+    }
+  }
+
+  @Override
+  public List<SchemaIndex> indexes(Class<?> entity) {
+    return indexes.get(entity);
+  }
+
+}
@@ -22,6 +22,9 @@ import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.sword.domain.IpAddress;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 
 public class IpAddressDomainRepository {
 
@@ -41,6 +44,37 @@ public class IpAddressDomainRepository {
     return saveAndGet(Collections.singleton(ipAddress));
   }
 
+  /**
+   * Updates the addresses of the group, only adding and removing the addresses that changed.
+   */
+  void update(Collection<IpAddress> ipAddresses, IpGroupModel ipGroupModel) {
+
+    final Set<IpAddress> added = new HashSet<>(ipAddresses);
+
+    for (IpAddressModel ipAddressModel : ipGroupModel.getIpAddresses()) {
+      final Optional<IpAddress> match = added.stream()
+          .filter(ipAddress -> matches(ipAddress, ipAddressModel)).findAny();
+      if (match.isPresent()) {
+        added.remove(match.get());
+      } else {
+        ipGroupModel.removeIpAddress(ipAddressModel);
+      }
+    }
+
+    for (IpAddress ipAddress : added) {
+      ipGroupModel.addIpAddress(new IpAddressModel(ipGroupModel, ipAddress.ip(),
+          ipAddress.version(), ipAddress.type()));
+    }
+
+    ipGroupModelRepository.save(ipGroupModel);
+  }
+
+  private static boolean matches(IpAddress ipAddress, IpAddressModel ipAddressModel) {
+    return ipAddress.ip().equals(ipAddressModel.getIp()) && ipAddress.version()
+        .equals(ipAddressModel.getVersion()) && ipAddress.type()
+        .equals(ipAddressModel.getType());
+  }
+
   private IpGroupModel create(Collection<IpAddress> ipAddresses) {
 
     IpGroupModel ipGroupModel = new IpGroupModel();
@@ -45,6 +45,12 @@ class IpGroupModel extends Model {
     ipAddressModels.add(ipAddressModel);
   }
 
+  public void removeIpAddress(IpAddressModel ipAddressModel) {
+    if (ipAddressModels != null) {
+      ipAddressModels.remove(ipAddressModel);
+    }
+  }
+
   public Set<IpAddressModel> getIpAddresses() {
     return ImmutableSet.copyOf(ipAddressModels);
   }
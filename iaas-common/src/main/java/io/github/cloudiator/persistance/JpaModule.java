@@ -30,12 +30,27 @@ import java.util.Map;
  */
 public class JpaModule extends AbstractModule {
 
+  private static final int JDBC_BATCH_SIZE = 50;
+
   private final String jpaUnit;
   private final JpaContext jpaContext;
+  private final ConnectionPoolContext connectionPoolContext;
+  private final int jdbcBatchSize;
+
+  public JpaModule(String jpaUnit, JpaContext jpaContext,
+      ConnectionPoolContext connectionPoolContext) {
+    this(jpaUnit, jpaContext, connectionPoolContext, JDBC_BATCH_SIZE);
+  }
 
-  public JpaModule(String jpaUnit, JpaContext jpaContext) {
+  /**
+   * @param jdbcBatchSize the number of statements sent in one JDBC batch, 0 disables batching
+   */
+  JpaModule(String jpaUnit, JpaContext jpaContext, ConnectionPoolContext connectionPoolContext,
+      int jdbcBatchSize) {
     this.jpaUnit = jpaUnit;
     this.jpaContext = jpaContext;
+    this.connectionPoolContext = connectionPoolContext;
+    this.jdbcBatchSize = jdbcBatchSize;
   }
 
   @Override
@@ -55,6 +70,10 @@ public class JpaModule extends AbstractModule {
 
     bind(TenantModelRepository.class).to(TenantModelRepositoryJpa.class);
 
+    bind(DiscoveryMemberModelRepository.class).to(DiscoveryMemberModelRepositoryJpa.class);
+
+    bind(SchemaMigrationModelRepository.class).to(SchemaMigrationModelRepositoryJpa.class);
+
     bind(GeoLocationModelRepository.class).to(GeoLocationModelRepositoryJpa.class);
 
     bind(OperatingSystemModelRepository.class).to(OperatingSystemModelRepositoryJpa.class);
@@ -103,6 +122,32 @@ public class JpaModule extends AbstractModule {
     config.put("javax.persistence.jdbc.url", jpaContext.url());
     config.put("javax.persistence.jdbc.user", jpaContext.user());
     config.put("javax.persistence.jdbc.password", jpaContext.password());
+    //pooled connections, see PooledConnectionProvider
+    config.put("hibernate.connection.provider_class", PooledConnectionProvider.class.getName());
+    config.put(PooledConnectionProvider.POOL_NAME, jpaUnit);
+    config.put(PooledConnectionProvider.POOL_SIZE,
+        String.valueOf(connectionPoolContext.maximumPoolSize()));
+    config.put(PooledConnectionProvider.POOL_MIN_IDLE,
+        String.valueOf(connectionPoolContext.minimumIdle()));
+    config.put(PooledConnectionProvider.POOL_CONNECTION_TIMEOUT,
+        String.valueOf(connectionPoolContext.connectionTimeout()));
+    config.put(PooledConnectionProvider.POOL_LEAK_DETECTION_THRESHOLD,
+        String.valueOf(connectionPoolContext.leakDetectionThreshold()));
+    config.put(PooledConnectionProvider.POOL_STATEMENT_CACHE_SIZE,
+        String.valueOf(connectionPoolContext.statementCacheSize()));
+    //send the inserts and updates of a flush in batches, grouped by table
+    config.put("hibernate.jdbc.batch_size", String.valueOf(jdbcBatchSize));
+    config.put("hibernate.jdbc.batch_versioned_data", "true");
+    config.put("hibernate.order_inserts", "true");
+    config.put("hibernate.order_updates", "true");
+    //in-process second level and query cache for the rarely changing entities
+    config.put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+    config.put("hibernate.cache.use_second_level_cache", "true");
+    config.put("hibernate.cache.use_query_cache", "true");
+    config.put("hibernate.cache.region.factory_class",
+        "org.hibernate.cache.ehcache.EhCacheRegionFactory");
+    config.put("net.sf.ehcache.configurationResourceName", "/hibernate-ehcache.xml");
+    config.put("hibernate.generate_statistics", "true");
     jpaPersistModule.properties(config);
     return jpaPersistModule;
   }
@@ -27,6 +27,7 @@ import de.uniulm.omi.cloudiator.sword.multicloud.service.IdScopedByClouds;
 import io.github.cloudiator.domain.DiscoveredLocation;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +36,7 @@ import java.util.stream.Collectors;
 public class LocationDomainRepository {
 
   private static final LocationConverter LOCATION_CONVERTER = new LocationConverter();
+  private static final int STREAM_PAGE_SIZE = 500;
   private final LocationModelRepository locationModelRepository;
   private final CloudDomainRepository cloudDomainRepository;
   private final GeoLocationDomainRepository geoLocationDomainRepository;
@@ -133,15 +135,11 @@ public class LocationDomainRepository {
     //updated the state
     model.setState(domain.state());
 
-    //create if not already exists
-    if (model.getGeoLocationModel() == null && domain.geoLocation().isPresent()) {
+    //geo locations are shared, point to the one matching the current values
+    if (domain.geoLocation().isPresent()) {
       model.setGeoLocationModel(geoLocationDomainRepository.saveAndGet(domain.geoLocation().get()));
-    } else if (!domain.geoLocation().isPresent()) {
-      //delete if removed
-      model.setGeoLocationModel(null);
     } else {
-      //update
-      geoLocationDomainRepository.update(domain.geoLocation().get(), model.getGeoLocationModel());
+      model.setGeoLocationModel(null);
     }
 
     locationModelRepository.save(model);
@@ -153,4 +151,17 @@ public class LocationDomainRepository {
     return locationModelRepository.findByTenant(userId).stream().map(LOCATION_CONVERTER::apply)
         .collect(Collectors.toList());
   }
+
+  /**
+   * Passes all locations of the user to the consumer, reading them in pages from the database.
+   *
+   * @param userId the user
+   * @param consumer the consumer of the locations
+   */
+  public void streamAll(String userId, Consumer<DiscoveredLocation> consumer) {
+    checkNotNull(userId, "userId is null");
+    checkNotNull(consumer, "consumer is null");
+    locationModelRepository.streamByTenant(userId, STREAM_PAGE_SIZE,
+        model -> consumer.accept(LOCATION_CONVERTER.apply(model)));
+  }
 }
@@ -30,20 +30,18 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
-import javax.persistence.OneToOne;
-import org.hibernate.annotations.Cascade;
-import org.hibernate.annotations.CascadeType;
 
 @Entity
 class LocationModel extends Model {
 
-  @Column(nullable = false, updatable = false)
-  @Lob
+  @Column(nullable = false, updatable = false, length = CloudUniqueIds.MAX_LENGTH)
   private String cloudUniqueId;
 
+  @Column(updatable = false, length = CloudUniqueIds.HASH_LENGTH)
+  private String cloudUniqueIdHash;
+
   @Column(nullable = false, updatable = false)
   private String providerId;
 
@@ -65,8 +63,7 @@ class LocationModel extends Model {
   private List<LocationModel> children;
 
   @Nullable
-  @OneToOne(optional = true)
-  @Cascade(CascadeType.DELETE)
+  @ManyToOne
   private GeoLocationModel geoLocationModel;
 
   @Nullable
@@ -90,6 +87,7 @@ class LocationModel extends Model {
       Boolean isAssignable, DiscoveryItemState state) {
     checkNotNull(cloudUniqueId, "cloudUniqueId is null");
     this.cloudUniqueId = cloudUniqueId;
+    this.cloudUniqueIdHash = CloudUniqueIds.hash(cloudUniqueId);
     checkNotNull(providerId, "providerId is null");
     this.providerId = providerId;
     checkNotNull(name, "name is null");
@@ -111,6 +109,7 @@ class LocationModel extends Model {
 
   public void setCloudUniqueId(String cloudUniqueId) {
     this.cloudUniqueId = cloudUniqueId;
+    this.cloudUniqueIdHash = CloudUniqueIds.hash(cloudUniqueId);
   }
 
   public String getProviderId() {
@@ -47,8 +47,11 @@ class LocationModelRepositoryJpa
   public LocationModel findByCloudUniqueId(String cloudUniqueId) {
     checkNotNull(cloudUniqueId, "cloudUniqueId is null");
     String queryString = String
-        .format("from %s where cloudUniqueId=:cloudUniqueId", type.getName());
-    Query query = em().createQuery(queryString).setParameter("cloudUniqueId", cloudUniqueId);
+        .format("from %s where cloudUniqueIdHash=:hash and cloudUniqueId=:cloudUniqueId",
+            type.getName());
+    Query query = em().createQuery(queryString)
+        .setParameter("hash", CloudUniqueIds.hash(cloudUniqueId))
+        .setParameter("cloudUniqueId", cloudUniqueId);
     try {
       //noinspection unchecked
       return (LocationModel) query.getSingleResult();
@@ -73,9 +76,10 @@ class LocationModelRepositoryJpa
     checkNotNull(userId, "userId is null");
     checkNotNull(locationId, "locationId is null");
     String queryString = String.format(
-        "select location from %s location inner join location.cloudModel cloud inner join cloud.tenantModel tenant where tenant.userId = :tenant and location.cloudUniqueId = :id",
+        "select location from %s location inner join location.cloudModel cloud inner join cloud.tenantModel tenant where tenant.userId = :tenant and location.cloudUniqueIdHash = :hash and location.cloudUniqueId = :id",
         type.getName());
     Query query = em().createQuery(queryString).setParameter("tenant", userId)
+        .setParameter("hash", CloudUniqueIds.hash(locationId))
         .setParameter("id", locationId);
     try {
       //noinspection unchecked
@@ -37,10 +37,20 @@ public class LoginCredentialDomainRepository {
     return model;
   }
 
+  void update(LoginCredential domain, LoginCredentialModel model) {
+    updateModel(domain, model);
+    loginCredentialModelRepository.save(model);
+  }
+
   private LoginCredentialModel createModel(LoginCredential domain) {
     return new LoginCredentialModel(domain.username().orElse(null), domain.password().orElse(null),
         domain.privateKey().orElse(null));
   }
 
+  private void updateModel(LoginCredential domain, LoginCredentialModel model) {
+    model.setUsername(domain.username().orElse(null));
+    model.setPassword(domain.password().orElse(null));
+    model.setPrivateKey(domain.privateKey().orElse(null));
+  }
 
 }
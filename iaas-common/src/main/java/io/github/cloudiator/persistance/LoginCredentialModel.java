@@ -21,8 +21,10 @@ package io.github.cloudiator.persistance;
 import javax.annotation.Nullable;
 import javax.persistence.Entity;
 import javax.persistence.Lob;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 class LoginCredentialModel extends Model {
 
   @Nullable
@@ -65,4 +67,19 @@ class LoginCredentialModel extends Model {
   public String getPrivateKey() {
     return privateKey;
   }
+
+  public LoginCredentialModel setUsername(@Nullable String username) {
+    this.username = username;
+    return this;
+  }
+
+  public LoginCredentialModel setPassword(@Nullable String password) {
+    this.password = password;
+    return this;
+  }
+
+  public LoginCredentialModel setPrivateKey(@Nullable String privateKey) {
+    this.privateKey = privateKey;
+    return this;
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * Derives the natural keys of value models.
+ *
+ * <p>The key is a fixed-width hash of all values, so that it can be covered by a unique index
+ * even if some of the values are null.
+ */
+final class NaturalKeys {
+
+  /**
+   * The length of a natural key.
+   */
+  static final int LENGTH = 64;
+
+  private NaturalKeys() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  static String of(@Nullable Object... values) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    for (Object value : values) {
+      if (value == null) {
+        hasher.putByte((byte) 0);
+        continue;
+      }
+      hasher.putByte((byte) 1);
+      hasher.putString(normalize(value), StandardCharsets.UTF_8);
+      hasher.putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  private static String normalize(Object value) {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).stripTrailingZeros().toPlainString();
+    }
+    if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return value.toString();
+  }
+
+}
@@ -96,16 +96,16 @@ public class NodeDomainRepository {
     nodeModelRepository.delete(byDomainId);
   }
 
+  /**
+   * Updates the node by diffing it against the existing model. Only changed columns and
+   * collections are written, the related rows are updated in place instead of being recreated.
+   */
   private NodeModel updateModel(Node domain, NodeModel nodeModel) {
 
     checkState(domain.id().equals(nodeModel.getDomainId()), "domain id does not match");
     checkState(
         domain.userId().equals(nodeModel.getTenantModel().getUserId()), "user id does not match");
 
-    final NodePropertiesModel nodePropertiesModel = generateNodeProperties(domain);
-    final LoginCredentialModel loginCredentialModel = generateLoginCredential(domain);
-    final IpGroupModel ipGroupModel = generateIpModel(domain);
-
     if (nodeModel.getOriginId() != null) {
       checkState(domain.originId().isPresent(), "model has a originId but domain object does not.");
       checkState(domain.originId().get().equals(nodeModel.getOriginId()),
@@ -114,10 +114,10 @@ public class NodeDomainRepository {
     }
     nodeModel.setOriginId(domain.originId().orElse(null));
     nodeModel.setName(domain.name());
-    nodeModel.setNodeProperties(nodePropertiesModel);
-    nodeModel.setLoginCredential(loginCredentialModel);
+    updateNodeProperties(domain, nodeModel.getNodeProperties());
+    nodeModel.setLoginCredential(updateLoginCredential(domain, nodeModel.getLoginCredential()));
     nodeModel.setType(domain.type());
-    nodeModel.setIpGroup(ipGroupModel);
+    nodeModel.setIpGroup(updateIpModel(domain, nodeModel.getIpGroup()));
     nodeModel.setNodeState(domain.state());
     nodeModel.setDiagnostic(domain.diagnostic().orElse(null));
     nodeModel.setReason(domain.reason().orElse(null));
@@ -151,6 +151,15 @@ public class NodeDomainRepository {
     return ipGroupModel;
   }
 
+  @Nullable
+  private IpGroupModel updateIpModel(Node domain, @Nullable IpGroupModel ipGroupModel) {
+    if (ipGroupModel == null || domain.ipAddresses().isEmpty()) {
+      return generateIpModel(domain);
+    }
+    ipAddressDomainRepository.update(domain.ipAddresses(), ipGroupModel);
+    return ipGroupModel;
+  }
+
   @Nullable
   private LoginCredentialModel generateLoginCredential(Node domain) {
     LoginCredentialModel loginCredentialModel = null;
@@ -161,26 +170,25 @@ public class NodeDomainRepository {
     return loginCredentialModel;
   }
 
+  @Nullable
+  private LoginCredentialModel updateLoginCredential(Node domain,
+      @Nullable LoginCredentialModel loginCredentialModel) {
+    if (loginCredentialModel == null || !domain.loginCredential().isPresent()) {
+      return generateLoginCredential(domain);
+    }
+    loginCredentialDomainRepository.update(domain.loginCredential().get(), loginCredentialModel);
+    return loginCredentialModel;
+  }
+
   private NodePropertiesModel generateNodeProperties(Node domain) {
 
     final NodeProperties nodeProperties = domain.nodeProperties();
 
-    OperatingSystemModel operatingSystemModel = null;
-    if (nodeProperties.operatingSystem().isPresent()) {
-      operatingSystemModel = operatingSystemDomainRepository
-          .saveAndGet(nodeProperties.operatingSystem().get());
-    }
-
-    GeoLocationModel geoLocationModel = null;
-    if (nodeProperties.geoLocation().isPresent()) {
-      geoLocationModel = geoLocationDomainRepository.saveAndGet(nodeProperties.geoLocation().get());
-    }
-
     final NodePropertiesModel nodePropertiesModel = new NodePropertiesModel(
         nodeProperties.providerId(),
         nodeProperties.numberOfCores().orElse(null), nodeProperties.memory().orElse(null),
         nodeProperties.disk().orElse(null),
-        operatingSystemModel, geoLocationModel);
+        getOperatingSystem(nodeProperties), getGeoLocation(nodeProperties));
 
     nodePropertiesModelRepository.save(nodePropertiesModel);
 
@@ -188,4 +196,34 @@ public class NodeDomainRepository {
 
   }
 
+  private void updateNodeProperties(Node domain, NodePropertiesModel nodePropertiesModel) {
+
+    final NodeProperties nodeProperties = domain.nodeProperties();
+
+    nodePropertiesModel.setProviderId(nodeProperties.providerId());
+    nodePropertiesModel.setNumberOfCores(nodeProperties.numberOfCores().orElse(null));
+    nodePropertiesModel.setMemory(nodeProperties.memory().orElse(null));
+    nodePropertiesModel.setDisk(nodeProperties.disk().orElse(null));
+    nodePropertiesModel.setOperatingSystem(getOperatingSystem(nodeProperties));
+    nodePropertiesModel.setGeoLocation(getGeoLocation(nodeProperties));
+
+    nodePropertiesModelRepository.save(nodePropertiesModel);
+  }
+
+  @Nullable
+  private OperatingSystemModel getOperatingSystem(NodeProperties nodeProperties) {
+    if (!nodeProperties.operatingSystem().isPresent()) {
+      return null;
+    }
+    return operatingSystemDomainRepository.saveAndGet(nodeProperties.operatingSystem().get());
+  }
+
+  @Nullable
+  private GeoLocationModel getGeoLocation(NodeProperties nodeProperties) {
+    if (!nodeProperties.geoLocation().isPresent()) {
+      return null;
+    }
+    return geoLocationDomainRepository.saveAndGet(nodeProperties.geoLocation().get());
+  }
+
 }
@@ -35,8 +35,14 @@ import javax.persistence.Enumerated;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import org.hibernate.annotations.DynamicUpdate;
 
+/**
+ * A node. Uses dynamic updates, so that state transitions only write the changed columns instead
+ * of rewriting the lob columns.
+ */
 @Entity
+@DynamicUpdate
 class NodeModel extends Model {
 
   @Column(nullable = false, unique = true)
@@ -21,7 +21,7 @@ package io.github.cloudiator.persistance;
 import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.OneToOne;
+import javax.persistence.ManyToOne;
 
 @Entity
 class NodePropertiesModel extends Model {
@@ -39,11 +39,11 @@ class NodePropertiesModel extends Model {
   @Nullable
   private Double disk;
 
-  @OneToOne(optional = true)
+  @ManyToOne
   @Nullable
   private OperatingSystemModel operatingSystem;
 
-  @OneToOne(optional = true)
+  @ManyToOne
   @Nullable
   private GeoLocationModel geoLocation;
 
@@ -95,4 +95,35 @@ class NodePropertiesModel extends Model {
   public String getProviderId() {
     return providerId;
   }
+
+  public NodePropertiesModel setProviderId(String providerId) {
+    this.providerId = providerId;
+    return this;
+  }
+
+  public NodePropertiesModel setNumberOfCores(@Nullable Integer numberOfCores) {
+    this.numberOfCores = numberOfCores;
+    return this;
+  }
+
+  public NodePropertiesModel setMemory(@Nullable Long memory) {
+    this.memory = memory;
+    return this;
+  }
+
+  public NodePropertiesModel setDisk(@Nullable Double disk) {
+    this.disk = disk;
+    return this;
+  }
+
+  public NodePropertiesModel setOperatingSystem(
+      @Nullable OperatingSystemModel operatingSystem) {
+    this.operatingSystem = operatingSystem;
+    return this;
+  }
+
+  public NodePropertiesModel setGeoLocation(@Nullable GeoLocationModel geoLocation) {
+    this.geoLocation = geoLocation;
+    return this;
+  }
 }
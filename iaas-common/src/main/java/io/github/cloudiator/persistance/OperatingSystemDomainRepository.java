@@ -18,6 +18,8 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.domain.OperatingSystem;
 
@@ -27,26 +29,30 @@ import de.uniulm.omi.cloudiator.domain.OperatingSystem;
 public class OperatingSystemDomainRepository {
 
   private final OperatingSystemModelRepository operatingSystemModelRepository;
+  private final ValueInterner valueInterner;
 
   @Inject
   public OperatingSystemDomainRepository(
-      OperatingSystemModelRepository operatingSystemModelRepository) {
+      OperatingSystemModelRepository operatingSystemModelRepository,
+      ValueInterner valueInterner) {
     this.operatingSystemModelRepository = operatingSystemModelRepository;
+    this.valueInterner = valueInterner;
   }
 
   public void save(OperatingSystem domain) {
     saveAndGet(domain);
   }
 
+  /**
+   * Returns the shared row of the operating system, creating it if it does not exist yet.
+   */
   OperatingSystemModel saveAndGet(OperatingSystem domain) {
-    final OperatingSystemModel model = createModel(domain);
-    operatingSystemModelRepository.save(model);
-    return model;
-  }
-
-  void update(OperatingSystem domain, OperatingSystemModel model) {
-    updateModel(domain, model);
-    operatingSystemModelRepository.save(model);
+    checkNotNull(domain, "domain is null");
+    final String naturalKey = OperatingSystemModel.naturalKey(
+        domain.operatingSystemArchitecture(), domain.operatingSystemFamily(),
+        domain.operatingSystemVersion().version());
+    return valueInterner.intern(OperatingSystemModel.class, naturalKey,
+        operatingSystemModelRepository::findByNaturalKey, () -> createModel(domain));
   }
 
   private OperatingSystemModel createModel(OperatingSystem domain) {
@@ -55,12 +61,4 @@ public class OperatingSystemDomainRepository {
         domain.operatingSystemArchitecture(), domain.operatingSystemFamily(),
         domain.operatingSystemVersion().version());
   }
-
-  private void updateModel(OperatingSystem domain, OperatingSystemModel model) {
-
-    model.setOperatingSystemArchitecture(domain.operatingSystemArchitecture());
-    model.setOperatingSystemFamily(domain.operatingSystemFamily());
-    model.setVersion(domain.operatingSystemVersion().version());
-
-  }
 }
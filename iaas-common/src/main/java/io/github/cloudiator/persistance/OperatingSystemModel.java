@@ -26,17 +26,26 @@ import de.uniulm.omi.cloudiator.domain.OperatingSystemFamily;
 import de.uniulm.omi.cloudiator.domain.OperatingSystemVersion;
 import de.uniulm.omi.cloudiator.domain.OperatingSystemVersions;
 import javax.annotation.Nullable;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Created by daniel on 04.11.14.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 class OperatingSystemModel extends Model
-    implements de.uniulm.omi.cloudiator.domain.OperatingSystem {
+    implements de.uniulm.omi.cloudiator.domain.OperatingSystem, ValueModel {
+
+  @Nullable
+  @Column(updatable = false, length = NaturalKeys.LENGTH)
+  private String naturalKey;
 
   @Column(nullable = false)
   @Enumerated(EnumType.STRING)
@@ -66,6 +75,7 @@ class OperatingSystemModel extends Model
     this.operatingSystemArchitecture = operatingSystemArchitecture;
     this.operatingSystemFamily = operatingSystemFamily;
     this.version = version;
+    this.naturalKey = deriveNaturalKey();
   }
 
   public OperatingSystemModel(de.uniulm.omi.cloudiator.domain.OperatingSystem operatingSystem) {
@@ -73,6 +83,17 @@ class OperatingSystemModel extends Model
     this.operatingSystemArchitecture = operatingSystem.operatingSystemArchitecture();
     this.operatingSystemFamily = operatingSystem.operatingSystemFamily();
     this.version = operatingSystem.operatingSystemVersion().version();
+    this.naturalKey = deriveNaturalKey();
+  }
+
+  static String naturalKey(OperatingSystemArchitecture operatingSystemArchitecture,
+      OperatingSystemFamily operatingSystemFamily, @Nullable Integer version) {
+    return NaturalKeys.of(operatingSystemArchitecture, operatingSystemFamily, version);
+  }
+
+  @Override
+  public String deriveNaturalKey() {
+    return naturalKey(operatingSystemArchitecture, operatingSystemFamily, version);
   }
 
   @Override
@@ -93,21 +114,4 @@ class OperatingSystemModel extends Model
     return OperatingSystemVersions
         .of(version, null);
   }
-
-  public OperatingSystemModel setOperatingSystemArchitecture(
-      OperatingSystemArchitecture operatingSystemArchitecture) {
-    this.operatingSystemArchitecture = operatingSystemArchitecture;
-    return this;
-  }
-
-  public OperatingSystemModel setOperatingSystemFamily(
-      OperatingSystemFamily operatingSystemFamily) {
-    this.operatingSystemFamily = operatingSystemFamily;
-    return this;
-  }
-
-  public OperatingSystemModel setVersion(@Nullable Integer version) {
-    this.version = version;
-    return this;
-  }
 }
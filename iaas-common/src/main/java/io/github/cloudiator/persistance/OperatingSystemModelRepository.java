@@ -18,6 +18,10 @@
 
 package io.github.cloudiator.persistance;
 
+import javax.annotation.Nullable;
+
 interface OperatingSystemModelRepository extends ModelRepository<OperatingSystemModel> {
 
+  @Nullable
+  OperatingSystemModel findByNaturalKey(String naturalKey);
 }
@@ -18,10 +18,15 @@
 
 package io.github.cloudiator.persistance;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.Query;
 
 class OperatingSystemModelRepositoryJpa extends
     BaseModelRepositoryJpa<OperatingSystemModel> implements OperatingSystemModelRepository {
@@ -32,4 +37,18 @@ class OperatingSystemModelRepositoryJpa extends
       TypeLiteral<OperatingSystemModel> type) {
     super(entityManager, type);
   }
+
+  @Override
+  @Nullable
+  public OperatingSystemModel findByNaturalKey(String naturalKey) {
+    checkNotNull(naturalKey, "naturalKey is null");
+    String queryString = String.format("from %s where naturalKey=:naturalKey", type.getName());
+    Query query = em().createQuery(queryString).setParameter("naturalKey", naturalKey);
+    try {
+      //noinspection unchecked
+      return (OperatingSystemModel) query.getSingleResult();
+    } catch (NoResultException e) {
+      return null;
+    }
+  }
 }
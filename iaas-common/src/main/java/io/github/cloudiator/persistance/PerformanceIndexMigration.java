@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static io.github.cloudiator.persistance.SchemaIndex.index;
+import static io.github.cloudiator.persistance.SchemaIndex.unique;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.inject.Inject;
+
+/**
+ * The indexes backing the access paths of the repositories: the tenant of clouds, nodes and
+ * virtual machines, the cloud and location of discovered items, the state of discovered items,
+ * nodes and virtual machines and the origin of nodes.
+ *
+ * <p>The indexes on the attributes of hardware offers and operating systems, created by earlier
+ * versions of this migration, are dropped by the {@link UnusedIndexMigration}.
+ */
+class PerformanceIndexMigration extends IndexMigration {
+
+  private static final ImmutableListMultimap<Class<?>, SchemaIndex> INDEXES = ImmutableListMultimap
+      .<Class<?>, SchemaIndex>builder()
+      .put(TenantModel.class, unique("uk_tenant_user_id", "userId"))
+      .putAll(CloudModel.class,
+          index("idx_cloud_tenant", "tenantModel_id"),
+          unique("uk_cloud_cloud_id", "cloudId"))
+      .putAll(LocationModel.class,
+          index("idx_location_cloud", "cloudModel_id"),
+          index("idx_location_parent", "parent_id"),
+          index("idx_location_state", "state"))
+      .putAll(ImageModel.class,
+          index("idx_image_cloud", "cloudModel_id"),
+          index("idx_image_location", "locationModel_id"),
+          index("idx_image_state", "state"))
+      .putAll(HardwareModel.class,
+          index("idx_hardware_cloud", "cloudModel_id"),
+          index("idx_hardware_location", "locationModel_id"),
+          index("idx_hardware_state", "state"),
+          index("idx_hardware_offer", "hardwareOfferModel_id"))
+      .putAll(VirtualMachineModel.class,
+          index("idx_vm_tenant", "tenantModel_id"),
+          index("idx_vm_cloud_id", "cloudId"),
+          index("idx_vm_state", "state"))
+      .putAll(NodeModel.class,
+          index("idx_node_tenant", "tenantModel_id"),
+          unique("uk_node_domain_id", "domainId"),
+          index("idx_node_origin", "originId"),
+          index("idx_node_state", "nodeState"))
+      .put(DiscoveryMemberModel.class, index("idx_discovery_member_heartbeat", "heartbeat"))
+      .build();
+
+  @Inject
+  PerformanceIndexMigration(Schema schema) {
+    super(schema, 2, "performance indexes", INDEXES);
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the statistics hibernate collects for the persistence unit, most notably the hit and
+ * miss counts of the second level and query caches.
+ */
+@Singleton
+public class PersistenceStatistics implements PersistenceStatisticsMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceStatistics.class);
+  public static final String OBJECT_NAME =
+      "io.github.cloudiator.persistance:type=PersistenceStatistics";
+
+  private final Provider<EntityManagerFactory> entityManagerFactory;
+
+  @Inject
+  public PersistenceStatistics(Provider<EntityManagerFactory> entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.get().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private static double ratio(long hits, long misses) {
+    final long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * Registers the statistics with the platform mbean server.
+   */
+  public void register() {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (!mBeanServer.isRegistered(objectName)) {
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (JMException e) {
+      LOGGER.warn(String.format("Could not register persistence statistics as %s.", OBJECT_NAME),
+          e);
+    }
+  }
+
+  @Override
+  public long getSecondLevelCacheHitCount() {
+    return statistics().getSecondLevelCacheHitCount();
+  }
+
+  @Override
+  public long getSecondLevelCacheMissCount() {
+    return statistics().getSecondLevelCacheMissCount();
+  }
+
+  @Override
+  public long getSecondLevelCachePutCount() {
+    return statistics().getSecondLevelCachePutCount();
+  }
+
+  @Override
+  public double getSecondLevelCacheHitRatio() {
+    final Statistics statistics = statistics();
+    return ratio(statistics.getSecondLevelCacheHitCount(),
+        statistics.getSecondLevelCacheMissCount());
+  }
+
+  @Override
+  public long getQueryCacheHitCount() {
+    return statistics().getQueryCacheHitCount();
+  }
+
+  @Override
+  public long getQueryCacheMissCount() {
+    return statistics().getQueryCacheMissCount();
+  }
+
+  @Override
+  public long getQueryCachePutCount() {
+    return statistics().getQueryCachePutCount();
+  }
+
+  @Override
+  public double getQueryCacheHitRatio() {
+    final Statistics statistics = statistics();
+    return ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
+  }
+
+  @Override
+  public long getQueryExecutionCount() {
+    return statistics().getQueryExecutionCount();
+  }
+
+  @Override
+  public long getPrepareStatementCount() {
+    return statistics().getPrepareStatementCount();
+  }
+
+  @Override
+  public long getEntityInsertCount() {
+    return statistics().getEntityInsertCount();
+  }
+
+  @Override
+  public long getEntityUpdateCount() {
+    return statistics().getEntityUpdateCount();
+  }
+
+  @Override
+  public long getFlushCount() {
+    return statistics().getFlushCount();
+  }
+
+  @Override
+  public void clear() {
+    statistics().clear();
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+/**
+ * Exposes the cache and query statistics of the persistence unit via JMX.
+ */
+public interface PersistenceStatisticsMXBean {
+
+  long getSecondLevelCacheHitCount();
+
+  long getSecondLevelCacheMissCount();
+
+  long getSecondLevelCachePutCount();
+
+  /**
+   * @return the share of second level cache lookups that were hits, or 0 if there was none
+   */
+  double getSecondLevelCacheHitRatio();
+
+  long getQueryCacheHitCount();
+
+  long getQueryCacheMissCount();
+
+  long getQueryCachePutCount();
+
+  /**
+   * @return the share of query cache lookups that were hits, or 0 if there was none
+   */
+  double getQueryCacheHitRatio();
+
+  /**
+   * @return the number of queries executed against the database
+   */
+  long getQueryExecutionCount();
+
+  /**
+   * @return the number of statements prepared, i.e. the number of round trips to the database
+   */
+  long getPrepareStatementCount();
+
+  long getEntityInsertCount();
+
+  long getEntityUpdateCount();
+
+  /**
+   * @return the number of flushes, compared to the number of prepared statements and inserts it
+   * shows how well inserts and updates are batched
+   */
+  long getFlushCount();
+
+  /**
+   * Resets all statistics.
+   */
+  void clear();
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.ConnectionProviderInitiator;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the connections of hibernate from a HikariCP connection pool.
+ *
+ * <p>Configured by the {@link JpaModule} using the standard JDBC settings and the pool settings
+ * of this class. Prepared statements are cached by the driver, as HikariCP leaves statement
+ * caching to the driver. Statement caching and the rewriting of batched inserts are currently only
+ * configured for MySQL and MariaDB.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PooledConnectionProvider.class);
+
+  static final String POOL_NAME = "cloudiator.pool.name";
+  static final String POOL_SIZE = "cloudiator.pool.size";
+  static final String POOL_MIN_IDLE = "cloudiator.pool.minIdle";
+  static final String POOL_CONNECTION_TIMEOUT = "cloudiator.pool.connectionTimeout";
+  static final String POOL_LEAK_DETECTION_THRESHOLD = "cloudiator.pool.leakDetectionThreshold";
+  static final String POOL_STATEMENT_CACHE_SIZE = "cloudiator.pool.statementCacheSize";
+
+  private static final int STATEMENT_CACHE_SQL_LIMIT = 2048;
+
+  private HikariDataSource dataSource;
+
+  private static String setting(Map<?, ?> settings, String key) {
+    final Object value = settings.get(key);
+    if (value == null) {
+      throw new IllegalStateException(String.format("Missing setting %s.", key));
+    }
+    return value.toString();
+  }
+
+  @Override
+  public void configure(Map configurationValues) {
+    final HikariConfig config = new HikariConfig();
+    config.setPoolName(setting(configurationValues, POOL_NAME));
+    config.setDriverClassName(setting(configurationValues, AvailableSettings.JPA_JDBC_DRIVER));
+    config.setJdbcUrl(setting(configurationValues, AvailableSettings.JPA_JDBC_URL));
+    config.setUsername(setting(configurationValues, AvailableSettings.JPA_JDBC_USER));
+    config.setPassword(setting(configurationValues, AvailableSettings.JPA_JDBC_PASSWORD));
+    config.setMaximumPoolSize(Integer.parseInt(setting(configurationValues, POOL_SIZE)));
+    config.setMinimumIdle(Integer.parseInt(setting(configurationValues, POOL_MIN_IDLE)));
+    config.setConnectionTimeout(
+        Long.parseLong(setting(configurationValues, POOL_CONNECTION_TIMEOUT)));
+    config.setLeakDetectionThreshold(
+        Long.parseLong(setting(configurationValues, POOL_LEAK_DETECTION_THRESHOLD)));
+    //same defaults as the driver manager connection provider of hibernate
+    config.setAutoCommit(false);
+    final Integer isolation = ConnectionProviderInitiator.extractIsolation(configurationValues);
+    if (isolation != null) {
+      config.setTransactionIsolation(String.valueOf(isolation));
+    }
+
+    final int statementCacheSize = Integer
+        .parseInt(setting(configurationValues, POOL_STATEMENT_CACHE_SIZE));
+    final String url = config.getJdbcUrl();
+    final boolean mysql = url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:");
+    if (mysql) {
+      //sends a batch of inserts as a single multi-row statement
+      config.addDataSourceProperty("rewriteBatchedStatements", "true");
+    }
+    if (statementCacheSize > 0 && mysql) {
+      config.addDataSourceProperty("useServerPrepStmts", "true");
+      config.addDataSourceProperty("cachePrepStmts", "true");
+      config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+      config.addDataSourceProperty("prepStmtCacheSqlLimit",
+          String.valueOf(STATEMENT_CACHE_SQL_LIMIT));
+    }
+
+    config.setMetricsTrackerFactory(new ConnectionPoolMetrics());
+
+    LOGGER.info(String.format(
+        "Starting connection pool %s with at most %s connections, leak detection threshold %s ms and statement cache size %s.",
+        config.getPoolName(), config.getMaximumPoolSize(), config.getLeakDetectionThreshold(),
+        statementCacheSize));
+    dataSource = new HikariDataSource(config);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return dataSource.getConnection();
+  }
+
+  @Override
+  public void closeConnection(Connection conn) throws SQLException {
+    conn.close();
+  }
+
+  @Override
+  public boolean supportsAggressiveRelease() {
+    return false;
+  }
+
+  @Override
+  public boolean isUnwrappableAs(Class unwrapType) {
+    return ConnectionProvider.class.equals(unwrapType) || PooledConnectionProvider.class
+        .isAssignableFrom(unwrapType) || DataSource.class.isAssignableFrom(unwrapType);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T unwrap(Class<T> unwrapType) {
+    if (ConnectionProvider.class.equals(unwrapType) || PooledConnectionProvider.class
+        .isAssignableFrom(unwrapType)) {
+      return (T) this;
+    }
+    if (DataSource.class.isAssignableFrom(unwrapType)) {
+      return (T) dataSource;
+    }
+    throw new UnknownUnwrapTypeException(unwrapType);
+  }
+
+  @Override
+  public void stop() {
+    if (dataSource != null) {
+      LOGGER.info(String.format("Closing connection pool %s.", dataSource.getPoolName()));
+      dataSource.close();
+    }
+  }
+
+}
@@ -22,7 +22,6 @@ import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Inheritance;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 
 /**
@@ -33,10 +32,12 @@ import javax.persistence.ManyToOne;
 abstract class ResourceModel extends Model {
 
 
-  @Column(nullable = false, updatable = false)
-  @Lob
+  @Column(nullable = false, updatable = false, length = CloudUniqueIds.MAX_LENGTH)
   private String cloudUniqueId;
 
+  @Column(updatable = false, length = CloudUniqueIds.HASH_LENGTH)
+  private String cloudUniqueIdHash;
+
   @Column(nullable = false, updatable = false)
   private String providerId;
 
@@ -57,6 +58,7 @@ abstract class ResourceModel extends Model {
   public ResourceModel(String cloudUniqueId, String providerId, String name, CloudModel cloudModel,
       @Nullable LocationModel locationModel) {
     this.cloudUniqueId = cloudUniqueId;
+    this.cloudUniqueIdHash = CloudUniqueIds.hash(cloudUniqueId);
     this.providerId = providerId;
     this.name = name;
     this.cloudModel = cloudModel;
@@ -69,6 +71,7 @@ abstract class ResourceModel extends Model {
 
   public void setCloudUniqueId(String cloudUniqueId) {
     this.cloudUniqueId = cloudUniqueId;
+    this.cloudUniqueIdHash = CloudUniqueIds.hash(cloudUniqueId);
   }
 
   public String getProviderId() {
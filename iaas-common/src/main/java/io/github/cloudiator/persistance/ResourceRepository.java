@@ -18,7 +18,9 @@
 
 package io.github.cloudiator.persistance;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 /**
@@ -30,8 +32,28 @@ interface ResourceRepository<T extends ResourceModel>
   @Nullable
   T findByCloudUniqueId(String cloudUniqueId);
 
+  /**
+   * @param cloudUniqueIds the ids of the resources
+   * @return all resources with one of the given ids, ids without a resource are skipped
+   */
+  List<T> findByCloudUniqueIds(Collection<String> cloudUniqueIds);
+
   List<T> findByTenant(String tenant);
 
+  /**
+   * Reads all resources of the tenant in pages of the given size, using a keyset scan on the
+   * primary key. Every resource is detached after it was passed to the consumer, so the consumer
+   * needs to read everything it requires (e.g. by converting it) within the call.
+   *
+   * <p>This only bounds the persistence context. A consumer collecting all resources, like the
+   * catalog queries whose replies can not be paged, still holds the complete result in memory.
+   *
+   * @param tenant the tenant
+   * @param pageSize the number of resources read per query
+   * @param consumer the consumer of the resources
+   */
+  void streamByTenant(String tenant, int pageSize, Consumer<T> consumer);
+
   T findByCloudUniqueIdAndTenant(String tenant, String cloudUniqueId);
 
   List<T> findByTenantAndCloud(String tenant, String cloudId);
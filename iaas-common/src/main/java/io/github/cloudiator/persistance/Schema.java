@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jdbc.ReturningWork;
+
+/**
+ * Inspects and changes the tables of the entities using the connection of the current entity
+ * manager.
+ *
+ * <p>Inspection relies on the JDBC database metadata only, and therefore works for every
+ * database supported by hibernate.
+ */
+class Schema {
+
+  /**
+   * A lock shared by all processes using the database.
+   */
+  interface Lock extends AutoCloseable {
+
+    /**
+     * Releases the lock.
+     */
+    @Override
+    void close();
+  }
+
+  private final Provider<EntityManager> entityManager;
+
+  @Inject
+  Schema(Provider<EntityManager> entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  private EntityManager em() {
+    return entityManager.get();
+  }
+
+  static String table(Class<?> entity) {
+    return entity.getSimpleName();
+  }
+
+  boolean managed(Class<?> entity) {
+    return em().getMetamodel().getEntities().stream()
+        .anyMatch(entityType -> entity.equals(entityType.getJavaType()));
+  }
+
+  boolean mysql() {
+    final Object dialect = em().getEntityManagerFactory().getProperties()
+        .get("hibernate.dialect");
+    return dialect != null && (dialect.toString().contains("MySQL") || dialect.toString()
+        .contains("MariaDB"));
+  }
+
+  /**
+   * Acquires a named lock shared by all processes using the same database, blocking until the
+   * lock is available.
+   *
+   * <p>The lock is held by a dedicated connection of the pool, independent of the transactions of
+   * the current entity manager, as MySQL implicitly commits on every schema change. Only MySQL
+   * (and MariaDB) support named locks, no lock is taken for other databases.
+   *
+   * @param name the name of the lock
+   * @param timeout the maximum time to wait for the lock in seconds
+   * @return the acquired lock, to be closed for releasing it
+   * @throws PersistenceException if the lock could not be acquired in time
+   */
+  Lock lock(String name, int timeout) {
+    checkNotNull(name, "name is null");
+    if (!mysql()) {
+      return () -> {
+      };
+    }
+
+    final ConnectionProvider connectionProvider = em().getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+        .getService(ConnectionProvider.class);
+    try {
+      final Connection connection = connectionProvider.getConnection();
+      try (PreparedStatement statement = connection.prepareStatement("select get_lock(?, ?)")) {
+        statement.setString(1, name);
+        statement.setInt(2, timeout);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          if (!resultSet.next() || resultSet.getInt(1) != 1) {
+            throw new PersistenceException(String
+                .format("Could not acquire lock %s within %s seconds.", name, timeout));
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        connectionProvider.closeConnection(connection);
+        throw e;
+      }
+      return () -> {
+        try (PreparedStatement statement = connection
+            .prepareStatement("select release_lock(?)")) {
+          statement.setString(1, name);
+          statement.executeQuery().close();
+        } catch (SQLException e) {
+          throw new PersistenceException(String.format("Could not release lock %s.", name), e);
+        } finally {
+          try {
+            connectionProvider.closeConnection(connection);
+          } catch (SQLException ignored) {
+            //the pool evicts broken connections, which releases the lock as well
+          }
+        }
+      };
+    } catch (SQLException e) {
+      throw new PersistenceException(String.format("Could not acquire lock %s.", name), e);
+    }
+  }
+
+  /**
+   * Checks whether the table of the entity is covered by the given index, i.e. it either has an
+   * index of the same name, or an index whose leading columns are the columns of the given index.
+   * The latter avoids duplicating the indexes the database already creates for unique and foreign
+   * keys.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  boolean covers(Class<?> entity, SchemaIndex index) {
+    checkNotNull(index, "index is null");
+    final List<String> wanted = index.columns().stream().map(String::toLowerCase)
+        .collect(Collectors.toList());
+    final Collection<TableIndex> existing = indexes(entity);
+    if (existing.stream().anyMatch(e -> e.name.equalsIgnoreCase(index.name()))) {
+      return true;
+    }
+    return existing.stream().anyMatch(
+        e -> e.columns.size() >= wanted.size() && e.columns.subList(0, wanted.size())
+            .equals(wanted) && (!index.isUnique() || e.unique && e.columns.size() == wanted
+            .size()));
+  }
+
+  /**
+   * @return true if the table of the entity has an index of the given name
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  boolean hasIndex(Class<?> entity, String name) {
+    checkNotNull(name, "name is null");
+    return indexes(entity).stream().anyMatch(e -> e.name.equalsIgnoreCase(name));
+  }
+
+  /**
+   * @return the names of all unique indexes of the table of the entity consisting of the given
+   * column only
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  List<String> uniqueIndexes(Class<?> entity, String column) {
+    checkNotNull(column, "column is null");
+    return indexes(entity).stream()
+        .filter(e -> e.unique && e.columns.equals(Collections.singletonList(column.toLowerCase())))
+        .map(e -> e.name).collect(Collectors.toList());
+  }
+
+  /**
+   * @return the database specific type name of the column or null if the column does not exist
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  @Nullable
+  String columnType(Class<?> entity, String column) {
+    checkNotNull(column, "column is null");
+    return work(connection -> {
+      final DatabaseMetaData metaData = connection.getMetaData();
+      try (ResultSet resultSet = metaData
+          .getColumns(connection.getCatalog(), connection.getSchema(),
+              identifier(metaData, table(entity)), identifier(metaData, column))) {
+        return resultSet.next() ? resultSet.getString("TYPE_NAME") : null;
+      }
+    });
+  }
+
+  /**
+   * Creates the index. An index of the same name that already exists, e.g. as it was created by
+   * another process in the meantime, is treated as success.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void createIndex(Class<?> entity, SchemaIndex index) {
+    checkNotNull(index, "index is null");
+    final String ddl = index.ddl(table(entity));
+    try {
+      //plain JDBC, so that a failure does not mark the transaction for rollback
+      work(connection -> {
+        try (Statement statement = connection.createStatement()) {
+          return statement.executeUpdate(ddl);
+        }
+      });
+    } catch (JDBCException e) {
+      if (!hasIndex(entity, index.name())) {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Drops the index or unique constraint of the given name.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void dropIndex(Class<?> entity, String name) {
+    checkNotNull(name, "name is null");
+    if (mysql()) {
+      execute(String.format("alter table %s drop index %s", table(entity), name));
+    } else {
+      execute(String.format("alter table %s drop constraint %s", table(entity), name));
+    }
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void execute(String statement) {
+    checkNotNull(statement, "statement is null");
+    em().createNativeQuery(statement).executeUpdate();
+  }
+
+  private Collection<TableIndex> indexes(Class<?> entity) {
+    return work(connection -> {
+      final DatabaseMetaData metaData = connection.getMetaData();
+      final Map<String, TableIndex> indexes = new LinkedHashMap<>();
+      try (ResultSet resultSet = metaData
+          .getIndexInfo(connection.getCatalog(), connection.getSchema(),
+              identifier(metaData, table(entity)), false, true)) {
+        while (resultSet.next()) {
+          final String name = resultSet.getString("INDEX_NAME");
+          final String column = resultSet.getString("COLUMN_NAME");
+          if (name == null || column == null) {
+            continue;
+          }
+          TableIndex index = indexes.get(name);
+          if (index == null) {
+            index = new TableIndex(name, !resultSet.getBoolean("NON_UNIQUE"));
+            indexes.put(name, index);
+          }
+          index.columns.add(column.toLowerCase());
+        }
+      }
+      return indexes.values();
+    });
+  }
+
+  private <T> T work(ReturningWork<T> work) {
+    return em().unwrap(Session.class).doReturningWork(work);
+  }
+
+  private static String identifier(DatabaseMetaData metaData, String identifier)
+      throws SQLException {
+    if (metaData.storesUpperCaseIdentifiers()) {
+      return identifier.toUpperCase();
+    }
+    if (metaData.storesLowerCaseIdentifiers()) {
+      return identifier.toLowerCase();
+    }
+    return identifier;
+  }
+
+  private static class TableIndex {
+
+    private final String name;
+    private final boolean unique;
+    //columns in lower case, ordered by their position in the index
+    private final List<String> columns = new ArrayList<>();
+
+    private TableIndex(String name, boolean unique) {
+      this.name = name;
+      this.unique = unique;
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * An index on the table of an entity, maintained by a {@link SchemaMigration}.
+ */
+final class SchemaIndex {
+
+  private final String name;
+  private final List<String> columns;
+  private final boolean unique;
+
+  private SchemaIndex(String name, List<String> columns, boolean unique) {
+    checkNotNull(name, "name is null");
+    checkNotNull(columns, "columns is null");
+    checkArgument(!columns.isEmpty(), "columns is empty");
+    this.name = name;
+    this.columns = ImmutableList.copyOf(columns);
+    this.unique = unique;
+  }
+
+  static SchemaIndex index(String name, String... columns) {
+    return new SchemaIndex(name, ImmutableList.copyOf(columns), false);
+  }
+
+  static SchemaIndex unique(String name, String... columns) {
+    return new SchemaIndex(name, ImmutableList.copyOf(columns), true);
+  }
+
+  String name() {
+    return name;
+  }
+
+  List<String> columns() {
+    return columns;
+  }
+
+  boolean isUnique() {
+    return unique;
+  }
+
+  String ddl(String table) {
+    return String.format("create %sindex %s on %s (%s)", unique ? "unique " : "", name, table,
+        String.join(", ", columns));
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("name", name).add("columns", columns)
+        .add("unique", unique).toString();
+  }
+}
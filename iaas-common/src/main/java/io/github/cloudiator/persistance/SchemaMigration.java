@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A versioned change of the schema.
+ *
+ * <p>Every agent only manages the entities of its own persistence unit, a migration is therefore
+ * applied and recorded per entity by the {@link SchemaMigrator}. Migrations need to be
+ * idempotent, as a migration interrupted by a crash is applied again on the next start.
+ */
+interface SchemaMigration {
+
+  /**
+   * @return the version of the migration, migrations are applied in ascending order
+   */
+  int version();
+
+  /**
+   * @return a short description of the migration
+   */
+  String description();
+
+  /**
+   * @return the entities whose tables are changed by this migration
+   */
+  Set<Class<?>> entities();
+
+  /**
+   * Applies the migration to the table of the given entity.
+   *
+   * @param entity one of {@link #entities()}, managed by the current persistence unit
+   */
+  void apply(Class<?> entity);
+
+  /**
+   * @param entity one of {@link #entities()}
+   * @return the indexes this migration guarantees on the table of the entity, verified on every
+   * start
+   */
+  List<SchemaIndex> indexes(Class<?> entity);
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects.ToStringHelper;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Records a schema migration applied to the table of an entity.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"version", "entityName"}))
+class SchemaMigrationModel extends Model {
+
+  @Column(nullable = false, updatable = false)
+  private int version;
+
+  @Column(nullable = false, updatable = false)
+  private String entityName;
+
+  @Column(nullable = false, updatable = false)
+  private String description;
+
+  @Column(nullable = false, updatable = false)
+  private long appliedAt;
+
+  /**
+   * Empty constructor for hibernate.
+   */
+  protected SchemaMigrationModel() {
+  }
+
+  public SchemaMigrationModel(int version, String entityName, String description,
+      long appliedAt) {
+    checkArgument(version > 0, "version needs to be positive");
+    checkNotNull(entityName, "entityName is null");
+    checkNotNull(description, "description is null");
+    this.version = version;
+    this.entityName = entityName;
+    this.description = description;
+    this.appliedAt = appliedAt;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public String getEntityName() {
+    return entityName;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public long getAppliedAt() {
+    return appliedAt;
+  }
+
+  @Override
+  protected ToStringHelper stringHelper() {
+    return super.stringHelper().add("version", version).add("entityName", entityName)
+        .add("description", description).add("appliedAt", appliedAt);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import java.util.List;
+import javax.persistence.EntityManager;
+
+class SchemaMigrationModelRepositoryJpa extends
+    BaseModelRepositoryJpa<SchemaMigrationModel> implements SchemaMigrationModelRepository {
+
+  @Inject
+  protected SchemaMigrationModelRepositoryJpa(
+      Provider<EntityManager> entityManager,
+      TypeLiteral<SchemaMigrationModel> type) {
+    super(entityManager, type);
+  }
+
+  @Override
+  public List<SchemaMigrationModel> findByEntityName(String entityName) {
+    checkNotNull(entityName, "entityName is null");
+    String query = String
+        .format("from %s where entityName=:entityName order by version", type.getName());
+    //noinspection unchecked
+    return em().createQuery(query).setParameter("entityName", entityName).getResultList();
+  }
+}
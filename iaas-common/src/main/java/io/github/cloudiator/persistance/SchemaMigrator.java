@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the versioned schema migrations and verifies the indexes they maintain.
+ *
+ * <p>Hibernate still creates missing tables and columns, but all indexes and changes of existing
+ * columns are owned by the migrations, so that every database ends up with the same, reproducible
+ * schema. Applied migrations are recorded per entity, only entities of the current persistence
+ * unit are migrated.
+ *
+ * <p>Agents sharing a database may start at the same time, the migrations are therefore
+ * serialized across processes by a database lock.
+ *
+ * <p>Needs to be run after the persist service was started and before the first repository
+ * access.
+ */
+@Singleton
+public class SchemaMigrator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SchemaMigrator.class);
+  private static final String LOCK = "cloudiator_schema_migration";
+  private static final int LOCK_TIMEOUT = 600;
+
+  private final Schema schema;
+  private final SchemaMigrationModelRepository schemaMigrationModelRepository;
+  private final List<SchemaMigration> migrations;
+
+  @Inject
+  SchemaMigrator(Schema schema, SchemaMigrationModelRepository schemaMigrationModelRepository,
+      CloudUniqueIdMigration cloudUniqueIdMigration,
+      PerformanceIndexMigration performanceIndexMigration,
+      ValueInterningMigration valueInterningMigration,
+      UnusedIndexMigration unusedIndexMigration) {
+    this.schema = schema;
+    this.schemaMigrationModelRepository = schemaMigrationModelRepository;
+    final List<SchemaMigration> sorted = new ArrayList<>(
+        Arrays.asList(cloudUniqueIdMigration, performanceIndexMigration,
+            valueInterningMigration, unusedIndexMigration));
+    sorted.sort(Comparator.comparingInt(SchemaMigration::version));
+    this.migrations = ImmutableList.copyOf(sorted);
+  }
+
+  /**
+   * Applies all pending migrations in the order of their versions and verifies the indexes of
+   * all migrations afterwards.
+   */
+  public void migrate() {
+    try (Schema.Lock ignored = schema.lock(LOCK, LOCK_TIMEOUT)) {
+      //applied migrations are read while holding the lock, so no migration is applied twice
+      doMigrate();
+    }
+  }
+
+  private void doMigrate() {
+    for (SchemaMigration migration : migrations) {
+      for (Class<?> entity : migration.entities()) {
+        if (!schema.managed(entity) || applied(entity).contains(migration.version())) {
+          continue;
+        }
+        LOGGER.info(String
+            .format("Applying schema migration %s (%s) to %s.", migration.version(),
+                migration.description(), Schema.table(entity)));
+        migration.apply(entity);
+        record(migration, entity);
+      }
+    }
+    verify();
+  }
+
+  private void verify() {
+    int verified = 0;
+    for (SchemaMigration migration : migrations) {
+      for (Class<?> entity : migration.entities()) {
+        if (!schema.managed(entity)) {
+          continue;
+        }
+        for (SchemaIndex index : migration.indexes(entity)) {
+          if (!schema.covers(entity, index)) {
+            LOGGER.warn(String
+                .format("Index %s of %s is missing although migration %s was applied. Recreating.",
+                    index.name(), Schema.table(entity), migration.version()));
+            schema.createIndex(entity, index);
+          }
+          verified++;
+        }
+      }
+    }
+    LOGGER.info(String.format("Verified %s indexes of the schema.", verified));
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  Set<Integer> applied(Class<?> entity) {
+    return schemaMigrationModelRepository.findByEntityName(entity.getName()).stream()
+        .map(SchemaMigrationModel::getVersion).collect(Collectors.toSet());
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void record(SchemaMigration migration, Class<?> entity) {
+    schemaMigrationModelRepository.save(
+        new SchemaMigrationModel(migration.version(), entity.getName(), migration.description(),
+            System.currentTimeMillis()));
+  }
+
+}
@@ -25,6 +25,12 @@ interface TenantModelRepository extends ModelRepository<TenantModel> {
 
   TenantModel findByUserId(String userId);
 
+  /**
+   * Returns the tenant, creating it if it does not exist.
+   *
+   * <p>Concurrent creations of the same tenant are resolved by the unique constraint on the user
+   * id: the losing transaction fails immediately and finds the tenant when it is retried.
+   */
   TenantModel createOrGet(String userId);
 
 }
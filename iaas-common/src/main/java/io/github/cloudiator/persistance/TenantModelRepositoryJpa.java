@@ -23,9 +23,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
+import org.hibernate.CacheMode;
+import org.hibernate.annotations.QueryHints;
 
 /**
  * Created by daniel on 31.05.17.
@@ -40,11 +43,25 @@ class TenantModelRepositoryJpa extends BaseModelRepositoryJpa<TenantModel> imple
   }
 
   @Override
+  @Nullable
   public TenantModel findByUserId(String userId) {
     checkNotNull(userId, "userId is null");
+    final TenantModel tenantModel = findByUserId(userId, CacheMode.NORMAL);
+    if (tenantModel != null) {
+      return tenantModel;
+    }
+    //tenants are created by all agents, a cached miss may predate the creation by another agent
+    return findByUserId(userId, CacheMode.REFRESH);
+  }
+
+  @Nullable
+  private TenantModel findByUserId(String userId, CacheMode cacheMode) {
     String queryString = String
         .format("from %s where userId=:userId", type.getName());
-    Query query = em().createQuery(queryString).setParameter("userId", userId);
+    Query query = em().createQuery(queryString).setParameter("userId", userId)
+        .setHint(QueryHints.CACHEABLE, true)
+        .setHint(QueryHints.CACHE_REGION, CacheRegions.TENANT_QUERIES)
+        .setHint(QueryHints.CACHE_MODE, cacheMode);
     try {
       //noinspection unchecked
       return (TenantModel) query.getSingleResult();
@@ -62,6 +79,8 @@ class TenantModelRepositoryJpa extends BaseModelRepositoryJpa<TenantModel> imple
     }
     TenantModel tenantModel = new TenantModel(userId);
     save(tenantModel);
+    //surface a concurrent creation now, instead of at the end of the transaction
+    em().flush();
     return tenantModel;
   }
 }
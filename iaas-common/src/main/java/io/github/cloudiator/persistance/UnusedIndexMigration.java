@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.github.cloudiator.persistance;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops the indexes on the attributes of operating systems and hardware offers. They were created
+ * for filtered catalog queries, which were removed as the query requests can not express
+ * filters. Operating systems and hardware offers are only looked up by their natural key, so the
+ * indexes backed no query and only slowed down writes.
+ */
+class UnusedIndexMigration implements SchemaMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UnusedIndexMigration.class);
+  private static final ImmutableListMultimap<Class<?>, String> INDEXES = ImmutableListMultimap
+      .<Class<?>, String>builder()
+      .putAll(HardwareOfferModel.class, "idx_hardware_offer_cores", "idx_hardware_offer_ram",
+          "idx_hardware_offer_disk")
+      .put(OperatingSystemModel.class, "idx_os_family_version_arch")
+      .build();
+
+  private final Schema schema;
+
+  @Inject
+  UnusedIndexMigration(Schema schema) {
+    this.schema = schema;
+  }
+
+  @Override
+  public int version() {
+    //version 4 was the removed optimistic locking migration, it may already be recorded
+    return 5;
+  }
+
+  @Override
+  public String description() {
+    return "unused indexes";
+  }
+
+  @Override
+  public Set<Class<?>> entities() {
+    return INDEXES.keySet();
+  }
+
+  @Override
+  public void apply(Class<?> entity) {
+    for (String index : INDEXES.get(entity)) {
+      if (!schema.hasIndex(entity, index)) {
+        continue;
+      }
+      LOGGER.info(String.format("Dropping index %s of %s.", index, Schema.table(entity)));
+      if (schema.mysql()) {
+        schema.dropIndex(entity, index);
+      } else {
+        schema.execute(String.format("drop index %s", index));
+      }
+    }
+  }
+
+  @Override
+  public List<SchemaIndex> indexes(Class<?> entity) {
+    return ImmutableList.of();
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.persistance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceException;
+
+/**
+ * Interns the rows of value models, so that equal values share a single row.
+ *
+ * <p>The ids of the rows are remembered, so that repeated values are referenced without a query.
+ * Lookups of the same value are serialized by a lock per natural key. A missing row is inserted
+ * and committed in a transaction of its own, so that it is visible to all other transactions at
+ * once and does not depend on the outcome of the calling transaction. If another process inserted
+ * the same value in the meantime, the unique natural key rejects the insert and the existing row
+ * is read in another new transaction, as it may not be visible to the calling transaction.
+ */
+@Singleton
+class ValueInterner {
+
+  private static final int MAX_INTERNED_VALUES = 50000;
+  private static final int LOCK_STRIPES = 64;
+
+  private final Provider<EntityManager> entityManager;
+  //entity name:natural key -> id of the row
+  private final Cache<String, Object> ids = CacheBuilder.newBuilder()
+      .maximumSize(MAX_INTERNED_VALUES).build();
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+  @Inject
+  ValueInterner(Provider<EntityManager> entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Returns the row of the value model with the given natural key, creating it if it does not
+   * exist.
+   *
+   * @param type the type of the value model
+   * @param naturalKey the natural key of the value
+   * @param finder finds the row by its natural key within the current transaction
+   * @param factory creates a new row for the value
+   * @param <T> the type of the value model
+   * @return the shared row of the value
+   */
+  <T extends ValueModel> T intern(Class<T> type, String naturalKey,
+      Function<String, T> finder, Supplier<T> factory) {
+    checkNotNull(type, "type is null");
+    checkNotNull(naturalKey, "naturalKey is null");
+    checkNotNull(finder, "finder is null");
+    checkNotNull(factory, "factory is null");
+
+    final String cacheKey = type.getName() + ":" + naturalKey;
+    final EntityManager em = entityManager.get();
+
+    final Lock lock = locks.get(cacheKey);
+    lock.lock();
+    try {
+      final Object id = ids.getIfPresent(cacheKey);
+      if (id != null) {
+        return em.getReference(type, id);
+      }
+
+      @Nullable final T existing = finder.apply(naturalKey);
+      if (existing != null) {
+        ids.put(cacheKey, identifier(em, existing));
+        return existing;
+      }
+
+      final Object createdId = create(em, type, naturalKey, factory);
+      ids.put(cacheKey, createdId);
+      return em.getReference(type, createdId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <T extends ValueModel> Object create(EntityManager em, Class<T> type,
+      String naturalKey, Supplier<T> factory) {
+    final T created = factory.get();
+    try {
+      return inOwnTransaction(em, own -> {
+        own.persist(created);
+        own.flush();
+        return identifier(own, created);
+      });
+    } catch (PersistenceException e) {
+      //the value was inserted by another process in the meantime. It is read in a new
+      //transaction, as the snapshot of the calling transaction may predate the insert.
+      @Nullable final Object existing = inOwnTransaction(em, own -> find(own, type, naturalKey));
+      if (existing == null) {
+        throw e;
+      }
+      return existing;
+    }
+  }
+
+  @Nullable
+  private static Object find(EntityManager own, Class<?> type, String naturalKey) {
+    final List<?> rows = own
+        .createQuery(String.format("from %s where naturalKey=:naturalKey", type.getName()))
+        .setParameter("naturalKey", naturalKey).getResultList();
+    return rows.isEmpty() ? null : identifier(own, rows.get(0));
+  }
+
+  private static <R> R inOwnTransaction(EntityManager em, Function<EntityManager, R> work) {
+    final EntityManager own = em.getEntityManagerFactory().createEntityManager();
+    final EntityTransaction transaction = own.getTransaction();
+    try {
+      transaction.begin();
+      final R result = work.apply(own);
+      transaction.commit();
+      return result;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      own.close();
+    }
+  }
+
+  private static Object identifier(EntityManager em, Object entity) {
+    return em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.persistance;
+
+import static io.github.cloudiator.persistance.SchemaIndex.index;
+import static io.github.cloudiator.persistance.SchemaIndex.unique;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Migrates the value models to interned rows.
+ *
+ * <p>Fills the natural key of all existing value rows and creates the unique index on it. Rows
+ * duplicating the value of an earlier row keep a null key and stay referenced by their current
+ * owners, as these are spread over the persistence units of several agents.
+ *
+ * <p>For the referencing tables, the unique constraints on the foreign keys created for the former
+ * one to one relations are replaced by plain indexes, so that rows can be shared.
+ */
+class ValueInterningMigration implements SchemaMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ValueInterningMigration.class);
+  private static final int BATCH_SIZE = 500;
+  private static final Map<Class<?>, SchemaIndex> NATURAL_KEY_INDEXES = ImmutableMap.of(
+      OperatingSystemModel.class, unique("uk_os_natural_key", "naturalKey"),
+      GeoLocationModel.class, unique("uk_geo_location_natural_key", "naturalKey"),
+      HardwareOfferModel.class, unique("uk_hardware_offer_natural_key", "naturalKey"));
+  private static final Map<Class<?>, List<SchemaIndex>> REFERENCE_INDEXES = ImmutableMap.of(
+      ImageModel.class, ImmutableList.of(index("idx_image_os", "operatingSystemModel_id")),
+      LocationModel.class,
+      ImmutableList.of(index("idx_location_geo_location", "geoLocationModel_id")),
+      NodePropertiesModel.class,
+      ImmutableList.of(index("idx_node_properties_os", "operatingSystem_id"),
+          index("idx_node_properties_geo_location", "geoLocation_id")));
+
+  private final Provider<EntityManager> entityManager;
+  private final Schema schema;
+
+  @Inject
+  ValueInterningMigration(Provider<EntityManager> entityManager, Schema schema) {
+    this.entityManager = entityManager;
+    this.schema = schema;
+  }
+
+  private EntityManager em() {
+    return entityManager.get();
+  }
+
+  @Override
+  public int version() {
+    return 3;
+  }
+
+  @Override
+  public String description() {
+    return "interned value rows";
+  }
+
+  @Override
+  public Set<Class<?>> entities() {
+    return ImmutableSet.<Class<?>>builder().addAll(NATURAL_KEY_INDEXES.keySet())
+        .addAll(REFERENCE_INDEXES.keySet()).build();
+  }
+
+  @Override
+  public List<SchemaIndex> indexes(Class<?> entity) {
+    if (NATURAL_KEY_INDEXES.containsKey(entity)) {
+      return ImmutableList.of(NATURAL_KEY_INDEXES.get(entity));
+    }
+    return REFERENCE_INDEXES.get(entity);
+  }
+
+  @Override
+  public void apply(Class<?> entity) {
+    if (NATURAL_KEY_INDEXES.containsKey(entity)) {
+      internRows(entity);
+    } else {
+      shareReferences(entity);
+    }
+  }
+
+  private void internRows(Class<?> entity) {
+    final Set<String> naturalKeys = new HashSet<>(existingKeys(entity));
+    long migrated = 0;
+    Object after = null;
+    do {
+      final int before = naturalKeys.size();
+      after = keyBatch(entity, after, naturalKeys);
+      migrated += naturalKeys.size() - before;
+    } while (after != null);
+    if (migrated > 0) {
+      LOGGER.info(String
+          .format("Filled the natural key of %s rows of %s.", migrated, entity.getSimpleName()));
+    }
+    final SchemaIndex index = NATURAL_KEY_INDEXES.get(entity);
+    if (!schema.covers(entity, index)) {
+      schema.createIndex(entity, index);
+    }
+  }
+
+  private void shareReferences(Class<?> entity) {
+    for (SchemaIndex index : REFERENCE_INDEXES.get(entity)) {
+      //the plain index needs to exist first, as MySQL requires an index for each foreign key
+      if (!schema.hasIndex(entity, index.name())) {
+        schema.createIndex(entity, index);
+      }
+      for (String unique : schema.uniqueIndexes(entity, index.columns().get(0))) {
+        LOGGER.info(String.format("Dropping unique index %s of %s%s.", unique,
+            Schema.table(entity), index.columns()));
+        schema.dropIndex(entity, unique);
+      }
+    }
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  List<String> existingKeys(Class<?> entity) {
+    //noinspection unchecked
+    return em().createQuery(String
+        .format("select e.naturalKey from %s e where e.naturalKey is not null", entity.getName()))
+        .getResultList();
+  }
+
+  /**
+   * Fills the natural key of the next batch of rows without a key. Rows duplicating a known key
+   * are skipped.
+   *
+   * @return the id of the last row of the batch, or null if there are no more rows
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  @Nullable
+  Object keyBatch(Class<?> entity, @Nullable Object after, Set<String> naturalKeys) {
+    final Query query;
+    if (after == null) {
+      query = em().createQuery(String.format(
+          "select e.id, e from %s e where e.naturalKey is null order by e.id",
+          entity.getName()));
+    } else {
+      query = em().createQuery(String.format(
+          "select e.id, e from %s e where e.naturalKey is null and e.id > :after order by e.id",
+          entity.getName())).setParameter("after", after);
+    }
+    //noinspection unchecked
+    final List<Object[]> rows = query.setMaxResults(BATCH_SIZE).getResultList();
+    for (Object[] row : rows) {
+      final String naturalKey = ((ValueModel) row[1]).deriveNaturalKey();
+      if (!naturalKeys.add(naturalKey)) {
+        continue;
+      }
+      em().createQuery(String
+          .format("update %s e set e.naturalKey = :naturalKey where e.id = :id",
+              entity.getName()))
+          .setParameter("naturalKey", naturalKey)
+          .setParameter("id", row[0]).executeUpdate();
+    }
+    em().clear();
+    return rows.size() == BATCH_SIZE ? rows.get(rows.size() - 1)[0] : null;
+  }
+
+}
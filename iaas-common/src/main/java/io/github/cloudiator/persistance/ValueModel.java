@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.github.cloudiator.persistance;
+
+/**
+ * A model of a value object. Rows of value models are interned by their natural key and shared
+ * by all referencing models, so they must never be changed or deleted through a referencing
+ * model.
+ */
+interface ValueModel {
+
+  /**
+   * @return the natural key derived from the values of this model
+   */
+  String deriveNaturalKey();
+
+}
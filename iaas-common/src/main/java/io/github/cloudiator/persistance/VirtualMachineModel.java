@@ -40,10 +40,12 @@ import javax.persistence.OneToOne;
 @Entity
 class VirtualMachineModel extends Model {
 
-  @Column(nullable = false, updatable = false)
-  @Lob
+  @Column(nullable = false, updatable = false, length = CloudUniqueIds.MAX_LENGTH)
   private String cloudUniqueId;
 
+  @Column(updatable = false, length = CloudUniqueIds.HASH_LENGTH)
+  private String cloudUniqueIdHash;
+
   @Column(nullable = false, updatable = false)
   @Lob
   private String providerId;
@@ -53,7 +55,6 @@ class VirtualMachineModel extends Model {
   private String name;
 
   @Column(nullable = false)
-  @Lob
   private String cloudId;
 
   @ManyToOne(optional = false)
@@ -99,6 +100,7 @@ class VirtualMachineModel extends Model {
 
     checkNotNull(cloudUniqueId, "cloudUniqueId is null");
     this.cloudUniqueId = cloudUniqueId;
+    this.cloudUniqueIdHash = CloudUniqueIds.hash(cloudUniqueId);
     checkNotNull(providerId, "providerId is null");
     this.providerId = providerId;
     checkNotNull(name, "name is null");
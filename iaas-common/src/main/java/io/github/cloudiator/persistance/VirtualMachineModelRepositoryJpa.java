@@ -44,8 +44,11 @@ class VirtualMachineModelRepositoryJpa extends
   public VirtualMachineModel findByCloudUniqueId(String cloudUniqueId) {
     checkNotNull(cloudUniqueId, "cloudUniqueId is null");
     String queryString = String
-        .format("select vm from %s vm where vm.cloudUniqueId=:id", type.getName());
-    Query query = em().createQuery(queryString).setParameter("id", cloudUniqueId);
+        .format("select vm from %s vm where vm.cloudUniqueIdHash=:hash and vm.cloudUniqueId=:id",
+            type.getName());
+    Query query = em().createQuery(queryString)
+        .setParameter("hash", CloudUniqueIds.hash(cloudUniqueId))
+        .setParameter("id", cloudUniqueId);
     try {
       //noinspection unchecked
       return (VirtualMachineModel) query.getSingleResult();
@@ -70,9 +73,10 @@ class VirtualMachineModelRepositoryJpa extends
     checkNotNull(tenant, "tenant is null");
     checkNotNull(cloudUniqueId, "id is null");
     String queryString = String.format(
-        "select vm from %s vm inner join vm.tenantModel tenant where tenant.userId=:tenant and vm.cloudUniqueId = :id",
+        "select vm from %s vm inner join vm.tenantModel tenant where tenant.userId=:tenant and vm.cloudUniqueIdHash = :hash and vm.cloudUniqueId = :id",
         type.getName());
     Query query = em().createQuery(queryString).setParameter("tenant", tenant)
+        .setParameter("hash", CloudUniqueIds.hash(cloudUniqueId))
         .setParameter("id", cloudUniqueId);
     //noinspection unchecked
     try {
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.cloudiator.messaging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class EventPublisherTest {
+
+  private static final int KEYS = 10;
+  private static final int EVENTS = 1000;
+
+  private static void await(EventPublisher publisher, long published)
+      throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (publisher.getPublished() + publisher.getFailed() < published
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void publishesEventsOfSameKeyInOrder() throws InterruptedException {
+    final EventPublisher publisher = new EventPublisher(3, 10, 7);
+    final Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+
+    for (int i = 0; i < EVENTS; i++) {
+      final String key = "key" + i % KEYS;
+      publisher.publish(key, i, event -> received
+          .computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+          .add(event));
+    }
+    await(publisher, EVENTS);
+
+    assertThat(publisher.getPublished(), equalTo((long) EVENTS));
+    assertThat(publisher.getQueueDepth(), equalTo(0L));
+    for (int k = 0; k < KEYS; k++) {
+      final int key = k;
+      assertThat(received.get("key" + key), equalTo(IntStream.range(0, EVENTS)
+          .filter(i -> i % KEYS == key).boxed().collect(Collectors.toList())));
+    }
+  }
+
+  @Test
+  public void publishesOffCallingThread() throws InterruptedException {
+    final EventPublisher publisher = new EventPublisher(1, 10, 1);
+    final CountDownLatch published = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+
+    publisher.publish("key", "event", event -> {
+      threads.add(Thread.currentThread());
+      published.countDown();
+    });
+
+    assertThat(published.await(10, TimeUnit.SECONDS), equalTo(true));
+    assertThat(threads.get(0).equals(Thread.currentThread()), equalTo(false));
+  }
+
+  @Test
+  public void failingAnnouncerDoesNotStopLane() throws InterruptedException {
+    final EventPublisher publisher = new EventPublisher(1, 10, 10);
+    final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    publisher.publish("key", "first", event -> {
+      throw new IllegalStateException("announcer failed");
+    });
+    publisher.publish("key", "second", received::add);
+    await(publisher, 2);
+
+    assertThat(publisher.getFailed(), equalTo(1L));
+    assertThat(publisher.getPublished(), equalTo(1L));
+    assertThat(received, equalTo(Collections.singletonList("second")));
+  }
+
+  @Test
+  public void interruptedCallerQueuesInOrder() throws InterruptedException {
+    final EventPublisher publisher = new EventPublisher(1, 1, 1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+
+    publisher.publish("key", 0, event -> {
+      Uninterruptibles.awaitUninterruptibly(release);
+      received.add(event);
+    });
+    publisher.publish("key", 1, received::add);
+    new Thread(() -> {
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      release.countDown();
+    }).start();
+
+    Thread.currentThread().interrupt();
+    publisher.publish("key", 2, received::add);
+    assertThat(Thread.interrupted(), equalTo(true));
+    await(publisher, 3);
+
+    assertThat(received, equalTo(Arrays.asList(0, 1, 2)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonPositiveLanes() {
+    new EventPublisher(0, 10, 10);
+  }
+}
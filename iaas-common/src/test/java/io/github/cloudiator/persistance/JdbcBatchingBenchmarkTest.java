@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.github.cloudiator.persistance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.persist.PersistService;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import de.uniulm.omi.cloudiator.domain.OperatingSystems;
+import de.uniulm.omi.cloudiator.sword.domain.ApiBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.CloudType;
+import de.uniulm.omi.cloudiator.sword.domain.ConfigurationBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.CredentialsBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.GeoLocationBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.ImageBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.IpAddresses;
+import de.uniulm.omi.cloudiator.sword.domain.LoginCredentialBuilder;
+import de.uniulm.omi.cloudiator.sword.domain.PropertiesBuilder;
+import io.github.cloudiator.domain.CloudState;
+import io.github.cloudiator.domain.DiscoveredImage;
+import io.github.cloudiator.domain.DiscoveryItemState;
+import io.github.cloudiator.domain.ExtendedCloud;
+import io.github.cloudiator.domain.ExtendedCloudBuilder;
+import io.github.cloudiator.domain.Node;
+import io.github.cloudiator.domain.NodeBuilder;
+import io.github.cloudiator.domain.NodePropertiesBuilder;
+import io.github.cloudiator.domain.NodeState;
+import io.github.cloudiator.domain.NodeType;
+import io.github.cloudiator.util.JpaContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the insert rate and the prepared statements per saved item on an in-memory database,
+ * once with JDBC batching disabled and once with the batch size of the {@link JpaModule}. Covers
+ * the discovery ingestion, saving the images one by one and in bulk, and the node save.
+ *
+ * <p>The prepared statements approximate the round trips to the database and do not depend on
+ * the machine, so they are asserted. The rates are only logged.
+ *
+ * <p>Skipped unless run with {@code -Dbenchmark=true}. The number of items can be changed with
+ * {@code -Dbenchmark.images=...} and {@code -Dbenchmark.nodes=...}.
+ */
+public class JdbcBatchingBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JdbcBatchingBenchmarkTest.class);
+
+  private static final int IMAGES = Integer.getInteger("benchmark.images", 2000);
+  private static final int NODES = Integer.getInteger("benchmark.nodes", 500);
+  private static final int WARM_UP = 100;
+  private static final int UNBATCHED = 0;
+  private static final int BATCHED = 50;
+  //the number of items the discovery listener saves in one transaction
+  private static final int LISTENER_BATCH_SIZE = 100;
+  private static final String USER = "benchmark";
+
+  private static final ExtendedCloud CLOUD = ExtendedCloudBuilder.newBuilder()
+      .api(ApiBuilder.newBuilder().providerName("openstack4j").build())
+      .endpoint("https://cloud.example.com:5000/v2.0")
+      .credentials(CredentialsBuilder.newBuilder().user(USER).password("secret").build())
+      .configuration(ConfigurationBuilder.newBuilder().nodeGroup("cloudiator")
+          .properties(PropertiesBuilder.newBuilder().build()).build())
+      .cloudType(CloudType.PRIVATE).state(CloudState.OK).userId(USER).build();
+
+  private static class Result {
+
+    private final double rate;
+    private final double statements;
+
+    private Result(double rate, double statements) {
+      this.rate = rate;
+      this.statements = statements;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%.0f inserts/s, %.2f statements per item", rate, statements);
+    }
+  }
+
+  /**
+   * A fresh in-memory database using the given JDBC batch size.
+   */
+  private static class Database implements AutoCloseable {
+
+    private final Injector injector;
+
+    private Database(int jdbcBatchSize) {
+      final Config config = ConfigFactory.parseMap(ImmutableMap.<String, Object>builder()
+          .put("jpa.dialect", "org.hibernate.dialect.H2Dialect")
+          .put("jpa.driver", "org.h2.Driver")
+          .put("jpa.url", "jdbc:h2:mem:benchmark" + jdbcBatchSize + ";DB_CLOSE_DELAY=-1")
+          .put("jpa.user", "sa")
+          .put("jpa.password", "")
+          .put("jpa.pool.size", 2)
+          .put("jpa.pool.minIdle", 1)
+          .put("jpa.pool.connectionTimeout", 30000)
+          .put("jpa.pool.leakDetectionThreshold", 0)
+          .put("jpa.pool.statementCacheSize", 0)
+          .build());
+      injector = Guice.createInjector(new JpaModule("benchmarkPersistenceUnit",
+          new JpaContext(config), new ConnectionPoolContext(config, 1), jdbcBatchSize));
+      injector.getInstance(PersistService.class).start();
+      inTransaction(() -> get(CloudDomainRepository.class).save(CLOUD));
+    }
+
+    private <T> T get(Class<T> type) {
+      return injector.getInstance(type);
+    }
+
+    private void inTransaction(Runnable runnable) {
+      final EntityManager entityManager = get(EntityManager.class);
+      entityManager.getTransaction().begin();
+      try {
+        runnable.run();
+        entityManager.getTransaction().commit();
+      } catch (RuntimeException e) {
+        entityManager.getTransaction().rollback();
+        throw e;
+      } finally {
+        //every transaction starts with an empty persistence context, like a listener lane
+        entityManager.clear();
+      }
+    }
+
+    private Result measure(int items, Runnable work) {
+      final PersistenceStatistics statistics = get(PersistenceStatistics.class);
+      final long statements = statistics.getPrepareStatementCount();
+      final long start = System.nanoTime();
+      work.run();
+      final double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+      return new Result(items / seconds,
+          (statistics.getPrepareStatementCount() - statements) / (double) items);
+    }
+
+    @Override
+    public void close() {
+      get(PersistService.class).stop();
+    }
+  }
+
+  @BeforeClass
+  public static void enabled() {
+    assumeTrue("The benchmark only runs with -Dbenchmark=true.", Boolean.getBoolean("benchmark"));
+  }
+
+  private static List<DiscoveredImage> images(String prefix, int count) {
+    final List<DiscoveredImage> images = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final String providerId = prefix + i;
+      images.add(new DiscoveredImage(ImageBuilder.newBuilder().id(CLOUD.id() + "/" + providerId)
+          .providerId(providerId).name(providerId).os(OperatingSystems.unknown()).build(),
+          DiscoveryItemState.OK, USER));
+    }
+    return images;
+  }
+
+  private static void saveImages(Database database, List<DiscoveredImage> images, boolean bulk) {
+    final ImageDomainRepository repository = database.get(ImageDomainRepository.class);
+    for (List<DiscoveredImage> batch : Lists.partition(images, LISTENER_BATCH_SIZE)) {
+      database.inTransaction(() -> {
+        if (bulk) {
+          repository.saveAll(batch);
+        } else {
+          batch.forEach(repository::save);
+        }
+      });
+    }
+  }
+
+  private static int persisted(Database database, List<DiscoveredImage> images) {
+    final int[] persisted = new int[1];
+    database.inTransaction(() -> persisted[0] = database.get(ImageDomainRepository.class)
+        .findAllById(images.stream().map(DiscoveredImage::id).collect(Collectors.toList()))
+        .size());
+    return persisted[0];
+  }
+
+  private static List<Node> nodes(int count) {
+    final List<Node> nodes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      nodes.add(NodeBuilder.newBuilder().id(UUID.randomUUID().toString()).name("node" + i)
+          .state(NodeState.RUNNING).userId(USER).nodeType(NodeType.VM)
+          .nodeProperties(NodePropertiesBuilder.newBuilder().providerId("flavor")
+              .numberOfCores(4).memory(4096L).disk(40d).os(OperatingSystems.unknown())
+              .geoLocation(GeoLocationBuilder.newBuilder().city("ulm").country("de").build())
+              .build())
+          .loginCredential(
+              LoginCredentialBuilder.newBuilder().username("ubuntu").password("secret").build())
+          .ipAddresses(Sets.newHashSet(IpAddresses.of("8.8.8." + i % 250),
+              IpAddresses.of("192.168.1." + i % 250)))
+          .build());
+    }
+    return nodes;
+  }
+
+  private static void saveNodes(Database database, List<Node> nodes) {
+    final NodeDomainRepository repository = database.get(NodeDomainRepository.class);
+    //the node agent saves every node in a transaction of its own
+    nodes.forEach(node -> database.inTransaction(() -> repository.save(node)));
+  }
+
+  private static Result[] ingestImages(int jdbcBatchSize) {
+    try (Database database = new Database(jdbcBatchSize)) {
+      //warm up the connection pool, the caches and the JIT
+      saveImages(database, images("warmup-single-", WARM_UP), false);
+      saveImages(database, images("warmup-bulk-", WARM_UP), true);
+
+      final List<DiscoveredImage> single = images("single-", IMAGES);
+      final List<DiscoveredImage> bulk = images("bulk-", IMAGES);
+      final Result[] results = new Result[]{
+          database.measure(IMAGES, () -> saveImages(database, single, false)),
+          database.measure(IMAGES, () -> saveImages(database, bulk, true))};
+
+      assertThat(persisted(database, single), equalTo(IMAGES));
+      assertThat(persisted(database, bulk), equalTo(IMAGES));
+      LOGGER.info(String.format(
+          "Saved %s images with jdbc batch size %s: one by one %s, in bulk %s.", IMAGES,
+          jdbcBatchSize, results[0], results[1]));
+      return results;
+    }
+  }
+
+  private static Result saveNodes(int jdbcBatchSize) {
+    try (Database database = new Database(jdbcBatchSize)) {
+      saveNodes(database, nodes(WARM_UP));
+
+      final List<Node> nodes = nodes(NODES);
+      final Result result = database.measure(NODES, () -> saveNodes(database, nodes));
+
+      final int[] persisted = new int[1];
+      database.inTransaction(() -> persisted[0] = database.get(NodeDomainRepository.class)
+          .findByTenant(USER).size());
+      assertThat(persisted[0], equalTo(WARM_UP + NODES));
+      LOGGER.info(String.format("Saved %s nodes with jdbc batch size %s: %s.", NODES,
+          jdbcBatchSize, result));
+      return result;
+    }
+  }
+
+  @Test
+  public void ingestImages() {
+    final Result[] unbatched = ingestImages(UNBATCHED);
+    final Result[] batched = ingestImages(BATCHED);
+
+    //a bulk save flushes all images of a transaction at once, so batching saves round trips
+    assertThat(batched[1].statements < unbatched[1].statements, equalTo(true));
+    //a save one by one flushes every image on the lookup of the next one
+    assertThat(batched[0].statements <= unbatched[0].statements, equalTo(true));
+  }
+
+  @Test
+  public void saveNodes() {
+    final Result unbatched = saveNodes(UNBATCHED);
+    final Result batched = saveNodes(BATCHED);
+
+    //only the inserts into the same table within one node save are batched
+    assertThat(batched.statements <= unbatched.statements, equalTo(true));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2014-2018 University of Ulm
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.  Licensed under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.github.cloudiator.persistance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class NaturalKeysTest {
+
+  @Test
+  public void keyIsDeterministicAndHasFixedLength() {
+    final String key = NaturalKeys.of("ubuntu", 16L, null);
+
+    assertThat(key, equalTo(NaturalKeys.of("ubuntu", 16L, null)));
+    assertThat(key.length(), equalTo(NaturalKeys.LENGTH));
+    assertThat(NaturalKeys.of().length(), equalTo(NaturalKeys.LENGTH));
+  }
+
+  @Test
+  public void nullDiffersFromItsStringRepresentation() {
+    assertThat(NaturalKeys.of((Object) null), not(equalTo(NaturalKeys.of("null"))));
+    assertThat(NaturalKeys.of((Object) null), not(equalTo(NaturalKeys.of(""))));
+  }
+
+  @Test
+  public void valueBoundariesAreKept() {
+    assertThat(NaturalKeys.of("ab", "c"), not(equalTo(NaturalKeys.of("a", "bc"))));
+    assertThat(NaturalKeys.of("a", null), not(equalTo(NaturalKeys.of(null, "a"))));
+  }
+
+  @Test
+  public void equalDecimalsShareAKey() {
+    assertThat(NaturalKeys.of(new BigDecimal("1.0")),
+        equalTo(NaturalKeys.of(new BigDecimal("1.00"))));
+    assertThat(NaturalKeys.of(new BigDecimal("1.0")),
+        not(equalTo(NaturalKeys.of(new BigDecimal("1.01")))));
+  }
+
+  @Test
+  public void enumsAreKeyedByName() {
+    assertThat(NaturalKeys.of(TimeUnit.SECONDS), equalTo(NaturalKeys.of("SECONDS")));
+  }
+
+}
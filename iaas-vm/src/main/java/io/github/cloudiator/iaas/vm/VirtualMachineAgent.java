@@ -32,7 +32,10 @@ import io.github.cloudiator.iaas.vm.messaging.CreateVirtualMachineSubscriber;
 import io.github.cloudiator.iaas.vm.messaging.VirtualMachineDeleteRequestSubscriber;
 import io.github.cloudiator.iaas.vm.messaging.VirtualMachineQuerySubscriber;
 import io.github.cloudiator.iaas.vm.messaging.VirtualMachineRequestDispatcher;
+import io.github.cloudiator.messaging.EventPublisher;
+import io.github.cloudiator.persistance.ConnectionPoolContext;
 import io.github.cloudiator.persistance.JpaModule;
+import io.github.cloudiator.persistance.PersistenceStatistics;
 import io.github.cloudiator.util.JpaContext;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -48,13 +51,16 @@ public class VirtualMachineAgent {
   private static final Logger LOGGER = LoggerFactory
       .getLogger(VirtualMachineAgent.class);
 
+  private static final VmAgentContext VM_AGENT_CONTEXT = new VmAgentContext();
+
   private static Injector injector =
       Guice.createInjector(
           new KafkaMessagingModule(new KafkaContext(Configuration.conf())),
           new MessageServiceModule(),
           new JpaModule("defaultPersistenceUnit", new JpaContext(
-              Configuration.conf())),
-          new VmAgentModule(new VmAgentContext()),
+              Configuration.conf()), new ConnectionPoolContext(Configuration.conf(),
+              VM_AGENT_CONTEXT.parallelVMStarts())),
+          new VmAgentModule(VM_AGENT_CONTEXT),
           new StatisticsModule(new StatisticsContext())
       );
 
@@ -80,6 +86,9 @@ public class VirtualMachineAgent {
 
     LOGGER.info("Using configuration: " + Configuration.conf());
 
+    injector.getInstance(EventPublisher.class).register();
+    injector.getInstance(PersistenceStatistics.class).register();
+
     LOGGER.info(String.format(
         "%s is submitting virtual machine request queue dispatcher to its execution service %s.",
         VirtualMachineAgent.class.getName(),
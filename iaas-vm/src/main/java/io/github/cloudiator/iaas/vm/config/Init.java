@@ -27,6 +27,7 @@ import de.uniulm.omi.cloudiator.util.execution.Schedulable;
 import io.github.cloudiator.domain.CloudState;
 import io.github.cloudiator.domain.ExtendedCloud;
 import io.github.cloudiator.messaging.CloudMessageRepository;
+import io.github.cloudiator.persistance.SchemaMigrator;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -46,6 +47,7 @@ class Init {
   private static final Logger LOGGER = LoggerFactory
       .getLogger(Init.class);
   private final PersistService persistService;
+  private final SchemaMigrator schemaMigrator;
   private final CloudMessageRepository cloudMessageRepository;
   private final CloudRegistry cloudRegistry;
   private final UserService userService;
@@ -54,11 +56,13 @@ class Init {
 
   @Inject
   Init(PersistService persistService,
+      SchemaMigrator schemaMigrator,
       CloudMessageRepository cloudMessageRepository,
       CloudRegistry cloudRegistry, UserService userService,
       @Named("SCHEDULE_EXECUTION") ExecutionService executionService,
       Set<Schedulable> schedulables) {
     this.persistService = persistService;
+    this.schemaMigrator = schemaMigrator;
     this.cloudMessageRepository = cloudMessageRepository;
     this.cloudRegistry = cloudRegistry;
     this.userService = userService;
@@ -90,6 +94,7 @@ class Init {
   private void startPersistService() {
     LOGGER.info("Starting persistence service");
     persistService.start();
+    schemaMigrator.migrate();
   }
 
   private void restoreCloudRegistry() {
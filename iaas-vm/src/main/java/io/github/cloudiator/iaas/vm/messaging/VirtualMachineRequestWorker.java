@@ -123,12 +123,10 @@ public class VirtualMachineRequestWorker implements Runnable {
               stopTime - startTime);
 
       //persist the vm
-      synchronized (VirtualMachineRequestWorker.class) {
-        TransactionRetryer.retry((Callable<Void>) () -> {
-          persistVirtualMachine(update);
-          return null;
-        });
-      }
+      TransactionRetryer.retry((Callable<Void>) () -> {
+        persistVirtualMachine(update);
+        return null;
+      });
 
       messageInterface.reply(virtualMachineRequest.getId(),
           VirtualMachineCreatedResponse.newBuilder()
@@ -18,6 +18,7 @@
 
 package io.github.cloudiator.iaas.vm.state;
 
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
@@ -28,9 +29,12 @@ import de.uniulm.omi.cloudiator.util.stateMachine.StateMachineHook;
 import de.uniulm.omi.cloudiator.util.stateMachine.Transitions;
 import io.github.cloudiator.domain.ExtendedVirtualMachine;
 import io.github.cloudiator.domain.LocalVirtualMachineState;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.messaging.VirtualMachineMessageToVirtualMachine;
 import io.github.cloudiator.messaging.VirtualMachineMessageToVirtualMachine.VirtualMachineStateConverter;
+import io.github.cloudiator.persistance.TransactionRetryer;
 import io.github.cloudiator.persistance.VirtualMachineDomainRepository;
+import java.util.concurrent.locks.Lock;
 import org.cloudiator.messages.Vm.VirtualMachineEvent;
 import org.cloudiator.messaging.services.VirtualMachineService;
 
@@ -38,6 +42,9 @@ import org.cloudiator.messaging.services.VirtualMachineService;
 public class VirtualMachineStateMachine implements
     ErrorAwareStateMachine<ExtendedVirtualMachine, LocalVirtualMachineState> {
 
+  private static final int LOCK_STRIPES = 64;
+  //serializes the persistence of a single vm, different vms are persisted concurrently
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
   private final ErrorAwareStateMachine<ExtendedVirtualMachine, LocalVirtualMachineState> delegate;
   private final VirtualMachineDomainRepository virtualMachineDomainRepository;
   private final VirtualMachineService virtualMachineService;
@@ -45,7 +52,8 @@ public class VirtualMachineStateMachine implements
   @Inject
   public VirtualMachineStateMachine(
       VirtualMachineDomainRepository virtualMachineDomainRepository,
-      VirtualMachineService virtualMachineService) {
+      VirtualMachineService virtualMachineService,
+      EventPublisher eventPublisher) {
     this.virtualMachineDomainRepository = virtualMachineDomainRepository;
     this.virtualMachineService = virtualMachineService;
     //noinspection unchecked
@@ -62,33 +70,49 @@ public class VirtualMachineStateMachine implements
               @Override
               public void post(LocalVirtualMachineState from,
                   ExtendedVirtualMachine extendedVirtualMachine) {
-                VirtualMachineStateMachine.this.virtualMachineService
-                    .announceEvent(VirtualMachineEvent.newBuilder().setFrom(
+                eventPublisher.publish(extendedVirtualMachine.id(),
+                    VirtualMachineEvent.newBuilder().setFrom(
                         VirtualMachineStateConverter.INSTANCE
                             .apply(from))
                         .setTo(VirtualMachineStateConverter.INSTANCE
                             .apply(extendedVirtualMachine.state()))
                         .setVm(VirtualMachineMessageToVirtualMachine.INSTANCE
                             .applyBack(extendedVirtualMachine))
-                        .setUserId(extendedVirtualMachine.getUserId()).build());
+                        .setUserId(extendedVirtualMachine.getUserId()).build(),
+                    VirtualMachineStateMachine.this.virtualMachineService::announceEvent);
               }
             })
         .build();
   }
 
+  @SuppressWarnings("WeakerAccess")
   @Transactional
-  synchronized ExtendedVirtualMachine save(ExtendedVirtualMachine virtualMachine) {
+  ExtendedVirtualMachine save(ExtendedVirtualMachine virtualMachine) {
     virtualMachineDomainRepository.save(virtualMachine);
     return virtualMachine;
   }
 
+  /**
+   * Saves the vm holding its lock. The transaction of {@link #save(ExtendedVirtualMachine)} is
+   * committed before the lock is released.
+   */
+  private ExtendedVirtualMachine lockedSave(ExtendedVirtualMachine virtualMachine) {
+    final Lock lock = locks.get(virtualMachine.id());
+    lock.lock();
+    try {
+      return save(virtualMachine);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   private ErrorTransition<ExtendedVirtualMachine, LocalVirtualMachineState> error() {
 
     return Transitions.<ExtendedVirtualMachine, LocalVirtualMachineState>errorTransitionBuilder()
         .action((o, arguments, throwable) -> {
 
           o.setState(LocalVirtualMachineState.ERROR);
-          save(o);
+          TransactionRetryer.retry(() -> lockedSave(o));
 
           return o;
 
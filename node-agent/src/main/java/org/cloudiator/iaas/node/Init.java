@@ -20,6 +20,7 @@ package org.cloudiator.iaas.node;
 
 import com.google.inject.Inject;
 import com.google.inject.persist.PersistService;
+import io.github.cloudiator.persistance.SchemaMigrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +33,13 @@ public class Init {
       .getLogger(Init.class);
 
   private final PersistService persistService;
+  private final SchemaMigrator schemaMigrator;
 
   @Inject
-  Init(PersistService persistService) {
+  Init(PersistService persistService, SchemaMigrator schemaMigrator) {
     LOGGER.info("Initializing");
     this.persistService = persistService;
+    this.schemaMigrator = schemaMigrator;
     run();
   }
 
@@ -47,6 +50,7 @@ public class Init {
 
   private void startPersistService() {
     persistService.start();
+    schemaMigrator.migrate();
   }
 
 
@@ -21,7 +21,10 @@ package org.cloudiator.iaas.node;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import io.github.cloudiator.messaging.EventPublisher;
+import io.github.cloudiator.persistance.ConnectionPoolContext;
 import io.github.cloudiator.persistance.JpaModule;
+import io.github.cloudiator.persistance.PersistenceStatistics;
 import io.github.cloudiator.util.JpaContext;
 import org.cloudiator.iaas.node.config.NodeAgentContext;
 import org.cloudiator.iaas.node.config.NodeModule;
@@ -37,9 +40,12 @@ import org.slf4j.LoggerFactory;
 
 public class NodeAgent {
 
+  private static final NodeAgentContext NODE_AGENT_CONTEXT = new NodeAgentContext();
+
   private static final Injector INJECTOR = Guice
-      .createInjector(new NodeModule(new NodeAgentContext()), new JpaModule("defaultPersistenceUnit", new JpaContext(
-              Configuration.conf())), new MessageServiceModule(),
+      .createInjector(new NodeModule(NODE_AGENT_CONTEXT), new JpaModule("defaultPersistenceUnit",
+          new JpaContext(Configuration.conf()), new ConnectionPoolContext(Configuration.conf(),
+              NODE_AGENT_CONTEXT.parallelNodes())), new MessageServiceModule(),
           new KafkaMessagingModule(new KafkaContext(Configuration.conf())));
   private static final Logger LOGGER = LoggerFactory
       .getLogger(NodeAgent.class);
@@ -48,6 +54,9 @@ public class NodeAgent {
 
     LOGGER.info("Using configuration: " + Configuration.conf());
 
+    INJECTOR.getInstance(EventPublisher.class).register();
+    INJECTOR.getInstance(PersistenceStatistics.class).register();
+
     LOGGER.debug("Starting listeners.");
     LOGGER.debug("Starting " + NodeRequestListener.class);
     INJECTOR.getInstance(NodeRequestListener.class).run();
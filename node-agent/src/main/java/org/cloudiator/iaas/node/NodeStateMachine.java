@@ -18,6 +18,7 @@
 
 package org.cloudiator.iaas.node;
 
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
@@ -30,10 +31,13 @@ import de.uniulm.omi.cloudiator.util.stateMachine.Transitions;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.domain.NodeBuilder;
 import io.github.cloudiator.domain.NodeState;
+import io.github.cloudiator.messaging.EventPublisher;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import io.github.cloudiator.persistance.NodeDomainRepository;
 import io.github.cloudiator.persistance.TransactionRetryer;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import org.cloudiator.messages.Node.NodeEvent;
 import org.cloudiator.messaging.services.NodeService;
 import org.slf4j.Logger;
@@ -43,6 +47,9 @@ import org.slf4j.LoggerFactory;
 public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NodeStateMachine.class);
+  private static final int LOCK_STRIPES = 64;
+  //serializes the persistence of a single node, different nodes are persisted concurrently
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
   private final ErrorAwareStateMachine<Node, NodeState> stateMachine;
   private final NodeDomainRepository nodeDomainRepository;
   private final NodeDeletionStrategy nodeDeletionStrategy;
@@ -51,6 +58,7 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
   @Inject
   public NodeStateMachine(
       NodeService nodeService,
+      EventPublisher eventPublisher,
       NodeDomainRepository nodeDomainRepository,
       NodeDeletionStrategy nodeDeletionStrategy,
       NodeSchedulingStrategy nodeSchedulingStrategy) {
@@ -92,7 +100,7 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
                 .format(
                     "Executing post hook to announce node changed event for node %s. Previous state was %s, new state is %s.",
                     node, from, node.state()));
-            nodeService.announceNodeEvent(nodeEvent);
+            eventPublisher.publish(node.id(), nodeEvent, nodeService::announceNodeEvent);
           }
         })
         .build();
@@ -104,18 +112,32 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
 
   @SuppressWarnings("WeakerAccess")
   @Transactional
-  synchronized Node save(Node node) {
+  Node save(Node node) {
     nodeDomainRepository.save(node);
     return node;
   }
 
   @SuppressWarnings("WeakerAccess")
   @Transactional
-  synchronized Node delete(Node node) {
+  Node delete(Node node) {
     nodeDomainRepository.delete(node.id());
     return node;
   }
 
+  /**
+   * Runs the transaction while holding the lock of the node, so that the lock is only released
+   * after the commit.
+   */
+  private <T> T locked(Node node, Supplier<T> transaction) {
+    final Lock lock = locks.get(node.id());
+    lock.lock();
+    try {
+      return transaction.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
 
   private TransitionAction<Node> pendingToRunning() {
 
@@ -128,7 +150,7 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
       }
       try {
         final Node schedule = nodeSchedulingStrategy.schedule(o);
-        TransactionRetryer.retry(() -> save(schedule));
+        TransactionRetryer.retry(() -> locked(schedule, () -> save(schedule)));
         return schedule;
       } catch (NodeSchedulingException e) {
         throw new ExecutionException(e);
@@ -141,7 +163,7 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
     return (node, arguments) -> {
 
       nodeDeletionStrategy.deleteNode(node);
-      TransactionRetryer.retry(() -> delete(node));
+      TransactionRetryer.retry(() -> locked(node, () -> delete(node)));
 
       return NodeBuilder.of(node).state(NodeState.DELETED).build();
     };
@@ -156,7 +178,8 @@ public class NodeStateMachine implements ErrorAwareStateMachine<Node, NodeState>
           if (throwable != null) {
             builder.diagnostic(throwable.getMessage());
           }
-          return TransactionRetryer.retry(() -> save(builder.build()));
+          final Node failed = builder.build();
+          return TransactionRetryer.retry(() -> locked(failed, () -> save(failed)));
         })
         .errorState(NodeState.ERROR).build();
   }
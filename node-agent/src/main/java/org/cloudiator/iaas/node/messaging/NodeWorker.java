@@ -91,9 +91,7 @@ public class NodeWorker implements Runnable {
                   .build()).state(NodeState.PENDING).nodeCandidate(nodeCandidate.getId())
           .userId(userId).build();
 
-      synchronized (NodeWorker.class) {
-        TransactionRetryer.retry(() -> persistNode(pending));
-      }
+      TransactionRetryer.retry(() -> persistNode(pending));
 
       final Node running = nodeStateMachine
           .apply(pending, NodeState.RUNNING, new Object[]{nodeCandidate});